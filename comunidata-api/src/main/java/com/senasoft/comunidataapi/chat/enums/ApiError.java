@@ -8,7 +8,10 @@ public enum ApiError {
     FILES_NOT_FOUND(HttpStatus.NOT_FOUND, "Files not found"),
     AI_PROVIDER_TIMEOUT(HttpStatus.GATEWAY_TIMEOUT, "AI provider timeout"),
     AI_PROVIDER_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE, "AI provider unavailable"),
-    INTERNAL_ERROR(HttpStatus.INTERNAL_SERVER_ERROR, "Internal error processing request");
+    INTERNAL_ERROR(HttpStatus.INTERNAL_SERVER_ERROR, "Internal error processing request"),
+    JOB_NOT_FOUND(HttpStatus.NOT_FOUND, "CSV processing job not found"),
+    JOB_QUEUE_FULL(HttpStatus.SERVICE_UNAVAILABLE, "CSV processing queue is full, try again later"),
+    INVALID_CURSOR(HttpStatus.BAD_REQUEST, "Invalid pagination cursor or page size");
 
     private final HttpStatus httpStatus;
     private final String message;
@@ -13,7 +13,8 @@ import com.senasoft.comunidataapi.chat.service.function.list.SemanticSearchFunct
 import com.senasoft.comunidataapi.csv.entity.CitizenReport;
 import com.senasoft.comunidataapi.csv.enums.ProblemCategory;
 import com.senasoft.comunidataapi.csv.enums.UrgencyLevel;
-import com.senasoft.comunidataapi.csv.enums.Zone;
+import com.senasoft.comunidataapi.csv.service.analytics.ReportStatistics;
+import com.senasoft.comunidataapi.csv.service.query.ReportQueryService;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
@@ -51,6 +52,7 @@ public class FunctionServiceImpl implements FunctionService {
     private final FilterByZoneFunction filterByZoneFunction;
     private final SemanticSearchFunction semanticSearchFunction;
     private final GenerateReportFunction generateReportFunction;
+    private final ReportQueryService reportQueryService;
 
     /**
      * Detecta la función apropiada basándose en palabras clave del prompt.
@@ -485,30 +487,12 @@ public class FunctionServiceImpl implements FunctionService {
     private void addReportStatistics(StringBuilder contextBuilder, List<CitizenReport> reports) {
         contextBuilder.append("\n📊 ESTADÍSTICAS DE LOS REPORTES:\n");
 
-        // Conteo por categoría
-        Map<ProblemCategory, Long> byCategory = new HashMap<>();
-        Map<UrgencyLevel, Long> byUrgency = new HashMap<>();
-        Map<Zone, Long> byZone = new HashMap<>();
-        long withoutAttention = 0;
-        long withBias = 0;
-
-        for (CitizenReport report : reports) {
-            if (report.getCategoryProblem() != null) {
-                byCategory.merge(report.getCategoryProblem(), 1L, Long::sum);
-            }
-            if (report.getUrgencyLevel() != null) {
-                byUrgency.merge(report.getUrgencyLevel(), 1L, Long::sum);
-            }
-            if (report.getArea() != null) {
-                byZone.merge(report.getArea(), 1L, Long::sum);
-            }
-            if (Boolean.FALSE.equals(report.getGovernmentPreAttention())) {
-                withoutAttention++;
-            }
-            if (Boolean.TRUE.equals(report.getBiasDetected())) {
-                withBias++;
-            }
-        }
+        // Conteos en memoria sobre los reportes encontrados, sin otra consulta a MongoDB
+        ReportStatistics statistics = reportQueryService.statistics(reports);
+        Map<ProblemCategory, Long> byCategory = statistics.byCategory();
+        Map<UrgencyLevel, Long> byUrgency = statistics.byUrgency();
+        long withoutAttention = statistics.withoutAttention();
+        long withBias = statistics.withBias();
 
         if (!byCategory.isEmpty()) {
             contextBuilder.append("  • Por Categoría: ");
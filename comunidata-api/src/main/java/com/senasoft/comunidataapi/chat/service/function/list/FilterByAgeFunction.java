@@ -4,7 +4,8 @@ import com.fasterxml.jackson.annotation.JsonClassDescription;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyDescription;
 import com.senasoft.comunidataapi.csv.entity.CitizenReport;
-import com.senasoft.comunidataapi.csv.repository.CitizenReportRepository;
+import com.senasoft.comunidataapi.csv.repository.ReportFilter;
+import com.senasoft.comunidataapi.csv.service.query.ReportQueryService;
 import java.util.List;
 import java.util.function.Function;
 import lombok.RequiredArgsConstructor;
@@ -15,7 +16,7 @@ import org.springframework.stereotype.Component;
 public class FilterByAgeFunction
         implements Function<FilterByAgeFunction.Request, List<CitizenReport>> {
 
-    private final CitizenReportRepository repository;
+    private final ReportQueryService reportQueryService;
 
     @JsonClassDescription("Request para filtrar reportes por rango de edad")
     public record Request(
@@ -28,6 +29,7 @@ public class FilterByAgeFunction
 
     @Override
     public List<CitizenReport> apply(Request request) {
-        return repository.findByEdadBetween(request.minAge(), request.maxAge());
+        return reportQueryService.findReports(
+                ReportFilter.builder().minAge(request.minAge()).maxAge(request.maxAge()).build());
     }
 }
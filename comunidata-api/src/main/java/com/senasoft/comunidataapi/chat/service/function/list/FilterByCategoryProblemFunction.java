@@ -5,7 +5,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyDescription;
 import com.senasoft.comunidataapi.csv.entity.CitizenReport;
 import com.senasoft.comunidataapi.csv.enums.ProblemCategory;
-import com.senasoft.comunidataapi.csv.repository.CitizenReportRepository;
+import com.senasoft.comunidataapi.csv.repository.ReportFilter;
+import com.senasoft.comunidataapi.csv.service.query.ReportQueryService;
 import java.util.List;
 import java.util.function.Function;
 import lombok.RequiredArgsConstructor;
@@ -16,7 +17,7 @@ import org.springframework.stereotype.Component;
 public class FilterByCategoryProblemFunction
         implements Function<FilterByCategoryProblemFunction.Request, List<CitizenReport>> {
 
-    private final CitizenReportRepository repository;
+    private final ReportQueryService reportQueryService;
 
     @JsonClassDescription("Request para filtrar reportes por categoría del problema")
     public record Request(
@@ -31,6 +32,7 @@ public class FilterByCategoryProblemFunction
         if (categoria == null) {
             return List.of();
         }
-        return repository.findByCategoriaProblema(categoria);
+        return reportQueryService.findReports(
+                ReportFilter.builder().categories(List.of(categoria)).build());
     }
 }
@@ -4,7 +4,9 @@ import com.fasterxml.jackson.annotation.JsonClassDescription;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyDescription;
 import com.senasoft.comunidataapi.csv.entity.CitizenReport;
-import com.senasoft.comunidataapi.csv.repository.CitizenReportRepository;
+import com.senasoft.comunidataapi.csv.repository.ReportFilter;
+import com.senasoft.comunidataapi.csv.service.normalization.CityDictionary;
+import com.senasoft.comunidataapi.csv.service.query.ReportQueryService;
 import java.util.List;
 import java.util.function.Function;
 import lombok.RequiredArgsConstructor;
@@ -15,7 +17,8 @@ import org.springframework.stereotype.Component;
 public class FilterByCityFunction
         implements Function<FilterByCityFunction.Request, List<CitizenReport>> {
 
-    private final CitizenReportRepository repository;
+    private final ReportQueryService reportQueryService;
+    private final CityDictionary cityDictionary;
 
     @JsonClassDescription("Request para filtrar reportes por ciudad")
     public record Request(
@@ -25,6 +28,10 @@ public class FilterByCityFunction
 
     @Override
     public List<CitizenReport> apply(Request request) {
-        return repository.findByCiudad(request.city());
+        String city = cityDictionary.lookup(request.city());
+        if (city == null) {
+            return List.of();
+        }
+        return reportQueryService.findReports(ReportFilter.builder().cities(List.of(city)).build());
     }
 }
@@ -4,7 +4,8 @@ import com.fasterxml.jackson.annotation.JsonClassDescription;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyDescription;
 import com.senasoft.comunidataapi.csv.entity.CitizenReport;
-import com.senasoft.comunidataapi.csv.repository.CitizenReportRepository;
+import com.senasoft.comunidataapi.csv.repository.ReportFilter;
+import com.senasoft.comunidataapi.csv.service.query.ReportQueryService;
 import java.util.List;
 import java.util.function.Function;
 import lombok.RequiredArgsConstructor;
@@ -15,7 +16,7 @@ import org.springframework.stereotype.Component;
 public class FilterByGovernmentAttentionFunction
         implements Function<FilterByGovernmentAttentionFunction.Request, List<CitizenReport>> {
 
-    private final CitizenReportRepository repository;
+    private final ReportQueryService reportQueryService;
 
     @JsonClassDescription("Request para filtrar reportes por atención previa del gobierno")
     public record Request(
@@ -26,6 +27,7 @@ public class FilterByGovernmentAttentionFunction
 
     @Override
     public List<CitizenReport> apply(Request request) {
-        return repository.findByAtencionPreviaGobierno(request.hasAttention());
+        return reportQueryService.findReports(
+                ReportFilter.builder().governmentPreAttention(request.hasAttention()).build());
     }
 }
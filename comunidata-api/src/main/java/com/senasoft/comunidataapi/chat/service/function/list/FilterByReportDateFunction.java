@@ -4,7 +4,8 @@ import com.fasterxml.jackson.annotation.JsonClassDescription;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyDescription;
 import com.senasoft.comunidataapi.csv.entity.CitizenReport;
-import com.senasoft.comunidataapi.csv.repository.CitizenReportRepository;
+import com.senasoft.comunidataapi.csv.repository.ReportFilter;
+import com.senasoft.comunidataapi.csv.service.query.ReportQueryService;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.function.Function;
@@ -16,7 +17,7 @@ import org.springframework.stereotype.Component;
 public class FilterByReportDateFunction
         implements Function<FilterByReportDateFunction.Request, List<CitizenReport>> {
 
-    private final CitizenReportRepository repository;
+    private final ReportQueryService reportQueryService;
 
     @JsonClassDescription("Request para filtrar reportes por rango de fechas")
     public record Request(
@@ -33,6 +34,7 @@ public class FilterByReportDateFunction
     public List<CitizenReport> apply(Request request) {
         LocalDate start = LocalDate.parse(request.startDate());
         LocalDate end = LocalDate.parse(request.endDate());
-        return repository.findByFechaReporteBetween(start, end);
+        return reportQueryService.findReports(
+                ReportFilter.builder().startDate(start).endDate(end).build());
     }
 }
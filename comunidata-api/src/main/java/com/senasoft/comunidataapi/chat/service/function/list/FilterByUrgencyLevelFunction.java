@@ -5,7 +5,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyDescription;
 import com.senasoft.comunidataapi.csv.entity.CitizenReport;
 import com.senasoft.comunidataapi.csv.enums.UrgencyLevel;
-import com.senasoft.comunidataapi.csv.repository.CitizenReportRepository;
+import com.senasoft.comunidataapi.csv.repository.ReportFilter;
+import com.senasoft.comunidataapi.csv.service.query.ReportQueryService;
 import java.util.List;
 import java.util.function.Function;
 import lombok.RequiredArgsConstructor;
@@ -16,7 +17,7 @@ import org.springframework.stereotype.Component;
 public class FilterByUrgencyLevelFunction
         implements Function<FilterByUrgencyLevelFunction.Request, List<CitizenReport>> {
 
-    private final CitizenReportRepository repository;
+    private final ReportQueryService reportQueryService;
 
     @JsonClassDescription("Request para filtrar reportes por nivel de urgencia")
     public record Request(
@@ -31,6 +32,7 @@ public class FilterByUrgencyLevelFunction
         if (urgencia == null) {
             return List.of();
         }
-        return repository.findByNivelUrgencia(urgencia);
+        return reportQueryService.findReports(
+                ReportFilter.builder().urgencyLevels(List.of(urgencia)).build());
     }
 }
@@ -5,7 +5,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyDescription;
 import com.senasoft.comunidataapi.csv.entity.CitizenReport;
 import com.senasoft.comunidataapi.csv.enums.Zone;
-import com.senasoft.comunidataapi.csv.repository.CitizenReportRepository;
+import com.senasoft.comunidataapi.csv.repository.ReportFilter;
+import com.senasoft.comunidataapi.csv.service.query.ReportQueryService;
 import java.util.List;
 import java.util.function.Function;
 import lombok.RequiredArgsConstructor;
@@ -16,7 +17,7 @@ import org.springframework.stereotype.Component;
 public class FilterByZoneFunction
         implements Function<FilterByZoneFunction.Request, List<CitizenReport>> {
 
-    private final CitizenReportRepository repository;
+    private final ReportQueryService reportQueryService;
 
     @JsonClassDescription("Request para filtrar reportes por zona")
     public record Request(
@@ -30,6 +31,6 @@ public class FilterByZoneFunction
         if (zona == null) {
             return List.of();
         }
-        return repository.findByZona(zona);
+        return reportQueryService.findReports(ReportFilter.builder().area(zona).build());
     }
 }
@@ -3,9 +3,8 @@ package com.senasoft.comunidataapi.chat.service.function.list;
 import com.fasterxml.jackson.annotation.JsonClassDescription;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyDescription;
-import com.senasoft.comunidataapi.csv.entity.CitizenReport;
-import com.senasoft.comunidataapi.csv.repository.CitizenReportRepository;
-import java.util.List;
+import com.senasoft.comunidataapi.csv.repository.ReportFilter;
+import com.senasoft.comunidataapi.csv.service.query.ReportQueryService;
 import java.util.function.Function;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -16,7 +15,7 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class GenerateReportFunction implements Function<GenerateReportFunction.Request, String> {
 
-    private final CitizenReportRepository repository;
+    private final ReportQueryService reportQueryService;
 
     @JsonClassDescription("Request para generar un reporte PDF basado en análisis de datos")
     public record Request(
@@ -36,8 +35,8 @@ public class GenerateReportFunction implements Function<GenerateReportFunction.R
                 request.analysisType(),
                 request.filters());
 
-        // Obtener reportes completados
-        List<CitizenReport> reports = repository.findAllCompletedReports();
+        // Contar reportes completados (el mensaje solo necesita el total)
+        long totalReports = reportQueryService.count(ReportFilter.builder().build());
 
         // Aplicar filtros si existen (simplificado por ahora)
         // TODO: Implementar lógica de filtros JSON cuando sea necesario
@@ -48,9 +47,9 @@ public class GenerateReportFunction implements Function<GenerateReportFunction.R
                         "Reporte de tipo '%s' generado exitosamente con %d reportes ciudadanos. "
                                 + "El reporte PDF está siendo generado con análisis dinámico de IA y métricas detalladas. "
                                 + "Incluye: resumen ejecutivo, distribución por categoría, nivel de urgencia, y análisis de zonas.",
-                        request.analysisType(), reports.size());
+                        request.analysisType(), totalReports);
 
-        log.info("Report generation requested successfully. Total reports: {}", reports.size());
+        log.info("Report generation requested successfully. Total reports: {}", totalReports);
 
         return message;
     }
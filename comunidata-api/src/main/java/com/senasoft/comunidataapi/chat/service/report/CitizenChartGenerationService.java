@@ -1,13 +1,11 @@
 package com.senasoft.comunidataapi.chat.service.report;
 
-import com.senasoft.comunidataapi.csv.entity.CitizenReport;
+import com.senasoft.comunidataapi.csv.service.analytics.ReportStatistics;
 import java.awt.*;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.time.LocalDate;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartUtils;
@@ -43,21 +41,16 @@ public class CitizenChartGenerationService {
     private static final int CHART_HEIGHT = 400;
 
     /** Genera gráfico de barras con distribución de reportes por categoría. */
-    public byte[] generateCategoryDistributionChart(List<CitizenReport> reports) {
+    public byte[] generateCategoryDistributionChart(ReportStatistics statistics) {
         try {
-            Map<String, Long> categoryCount =
-                    reports.stream()
-                            .filter(r -> r.getCategoryProblem() != null)
-                            .collect(
-                                    Collectors.groupingBy(
-                                            r -> r.getCategoryProblem().getDisplayName(),
-                                            Collectors.counting()));
-
             DefaultCategoryDataset dataset = new DefaultCategoryDataset();
 
-            for (Map.Entry<String, Long> entry : categoryCount.entrySet()) {
-                dataset.addValue(entry.getValue(), "Reportes", entry.getKey());
-            }
+            statistics
+                    .byCategory()
+                    .forEach(
+                            (category, count) ->
+                                    dataset.addValue(
+                                            count, "Reportes", category.getDisplayName()));
 
             JFreeChart chart =
                     ChartFactory.createBarChart(
@@ -81,21 +74,13 @@ public class CitizenChartGenerationService {
     }
 
     /** Genera gráfico de torta con distribución por nivel de urgencia. */
-    public byte[] generateUrgencyLevelPieChart(List<CitizenReport> reports) {
+    public byte[] generateUrgencyLevelPieChart(ReportStatistics statistics) {
         try {
-            Map<String, Long> urgencyCount =
-                    reports.stream()
-                            .filter(r -> r.getUrgencyLevel() != null)
-                            .collect(
-                                    Collectors.groupingBy(
-                                            r -> r.getUrgencyLevel().getDisplayName(),
-                                            Collectors.counting()));
-
             DefaultPieDataset dataset = new DefaultPieDataset();
 
-            for (Map.Entry<String, Long> entry : urgencyCount.entrySet()) {
-                dataset.setValue(entry.getKey(), entry.getValue());
-            }
+            statistics
+                    .byUrgency()
+                    .forEach((urgency, count) -> dataset.setValue(urgency.getDisplayName(), count));
 
             JFreeChart chart =
                     ChartFactory.createPieChart(
@@ -122,30 +107,12 @@ public class CitizenChartGenerationService {
     }
 
     /** Genera gráfico de barras horizontales con top 10 ciudades con más reportes. */
-    public byte[] generateTopCitiesChart(List<CitizenReport> reports) {
+    public byte[] generateTopCitiesChart(ReportStatistics statistics) {
         try {
-            Map<String, Long> cityCount =
-                    reports.stream()
-                            .filter(r -> r.getCity() != null)
-                            .collect(
-                                    Collectors.groupingBy(
-                                            CitizenReport::getCity, Collectors.counting()));
-
-            // Top 10 ciudades
-            Map<String, Long> topCities =
-                    cityCount.entrySet().stream()
-                            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-                            .limit(10)
-                            .collect(
-                                    Collectors.toMap(
-                                            Map.Entry::getKey,
-                                            Map.Entry::getValue,
-                                            (e1, e2) -> e1,
-                                            java.util.LinkedHashMap::new));
-
+            // Top 10 ciudades, ya ordenadas de mayor a menor
             DefaultCategoryDataset dataset = new DefaultCategoryDataset();
 
-            for (Map.Entry<String, Long> entry : topCities.entrySet()) {
+            for (Map.Entry<String, Long> entry : statistics.topCities().entrySet()) {
                 dataset.addValue(entry.getValue(), "Reportes", entry.getKey());
             }
 
@@ -170,18 +137,11 @@ public class CitizenChartGenerationService {
     }
 
     /** Genera gráfico de línea con tendencia temporal de reportes. */
-    public byte[] generateTimeTrendChart(List<CitizenReport> reports) {
+    public byte[] generateTimeTrendChart(ReportStatistics statistics) {
         try {
-            Map<LocalDate, Long> dateCount =
-                    reports.stream()
-                            .filter(r -> r.getReportDate() != null)
-                            .collect(
-                                    Collectors.groupingBy(
-                                            CitizenReport::getReportDate, Collectors.counting()));
-
             TimeSeries series = new TimeSeries("Reportes Ciudadanos");
 
-            for (Map.Entry<LocalDate, Long> entry : dateCount.entrySet()) {
+            for (Map.Entry<LocalDate, Long> entry : statistics.perDay().entrySet()) {
                 LocalDate date = entry.getKey();
                 series.add(
                         new Day(date.getDayOfMonth(), date.getMonthValue(), date.getYear()),
@@ -207,21 +167,15 @@ public class CitizenChartGenerationService {
     }
 
     /** Genera gráfico de barras comparando zona rural vs urbana. */
-    public byte[] generateRuralUrbanComparisonChart(List<CitizenReport> reports) {
+    public byte[] generateRuralUrbanComparisonChart(ReportStatistics statistics) {
         try {
-            Map<String, Long> zoneCount =
-                    reports.stream()
-                            .filter(r -> r.getArea() != null)
-                            .collect(
-                                    Collectors.groupingBy(
-                                            r -> r.getArea().getDisplayName(),
-                                            Collectors.counting()));
-
             DefaultCategoryDataset dataset = new DefaultCategoryDataset();
 
-            for (Map.Entry<String, Long> entry : zoneCount.entrySet()) {
-                dataset.addValue(entry.getValue(), "Reportes", entry.getKey());
-            }
+            statistics
+                    .byZone()
+                    .forEach(
+                            (zone, count) ->
+                                    dataset.addValue(count, "Reportes", zone.getDisplayName()));
 
             JFreeChart chart =
                     ChartFactory.createBarChart(
@@ -241,27 +195,11 @@ public class CitizenChartGenerationService {
     }
 
     /** Genera gráfico de torta con atención previa del gobierno. */
-    public byte[] generateGovernmentAttentionChart(List<CitizenReport> reports) {
+    public byte[] generateGovernmentAttentionChart(ReportStatistics statistics) {
         try {
-            long withAttention =
-                    reports.stream()
-                            .filter(
-                                    r ->
-                                            r.getGovernmentPreAttention() != null
-                                                    && r.getGovernmentPreAttention())
-                            .count();
-
-            long withoutAttention =
-                    reports.stream()
-                            .filter(
-                                    r ->
-                                            r.getGovernmentPreAttention() != null
-                                                    && !r.getGovernmentPreAttention())
-                            .count();
-
             DefaultPieDataset dataset = new DefaultPieDataset();
-            dataset.setValue("Con Atención", withAttention);
-            dataset.setValue("Sin Atención", withoutAttention);
+            dataset.setValue("Con Atención", statistics.withAttention());
+            dataset.setValue("Sin Atención", statistics.withoutAttention());
 
             JFreeChart chart =
                     ChartFactory.createPieChart(
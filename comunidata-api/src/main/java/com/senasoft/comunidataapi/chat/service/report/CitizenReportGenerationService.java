@@ -5,13 +5,18 @@ import com.itextpdf.text.pdf.PdfPCell;
 import com.itextpdf.text.pdf.PdfPTable;
 import com.itextpdf.text.pdf.PdfWriter;
 import com.senasoft.comunidataapi.csv.entity.CitizenReport;
+import com.senasoft.comunidataapi.csv.enums.ProblemCategory;
+import com.senasoft.comunidataapi.csv.enums.UrgencyLevel;
+import com.senasoft.comunidataapi.csv.service.analytics.ReportStatistics;
+import com.senasoft.comunidataapi.csv.service.query.ReportQueryService;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.prompt.Prompt;
@@ -36,6 +41,7 @@ public class CitizenReportGenerationService {
 
     private final ChatModel chatModel;
     private final CitizenChartGenerationService chartService;
+    private final ReportQueryService reportQueryService;
 
     @Value("${app.reports.storage.path:./reports}")
     private String reportsStoragePath;
@@ -43,9 +49,11 @@ public class CitizenReportGenerationService {
     // Constructor manual para especificar @Qualifier en ChatModel
     public CitizenReportGenerationService(
             @Qualifier("openAiChatModel") ChatModel chatModel,
-            CitizenChartGenerationService chartService) {
+            CitizenChartGenerationService chartService,
+            ReportQueryService reportQueryService) {
         this.chatModel = chatModel;
         this.chartService = chartService;
+        this.reportQueryService = reportQueryService;
     }
 
     // Colores para ComuniData
@@ -77,11 +85,14 @@ public class CitizenReportGenerationService {
                                     .format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")));
             String filePath = reportsStoragePath + File.separator + fileName;
 
+            // Conteos en memoria sobre los reportes ya cargados, para el análisis y los gráficos
+            ReportStatistics statistics = reportQueryService.statistics(reports);
+
             // Generar análisis dinámico con GPT-5
-            String aiAnalysis = generateAiAnalysis(reports, analysisType, userPrompt);
+            String aiAnalysis = generateAiAnalysis(statistics, analysisType, userPrompt);
 
             // Generar métricas básicas
-            Map<String, Object> metrics = calculateMetrics(reports);
+            Map<String, Object> metrics = calculateMetrics(statistics);
 
             // Crear PDF
             Document document = new Document(PageSize.A4, 50, 50, 50, 50);
@@ -92,7 +103,7 @@ public class CitizenReportGenerationService {
             addHeader(document);
             addExecutiveSummary(document, aiAnalysis);
             addMetricsSection(document, metrics);
-            addChartsSection(document, reports); // ← NUEVA SECCIÓN DE GRÁFICOS
+            addChartsSection(document, statistics); // ← NUEVA SECCIÓN DE GRÁFICOS
             addReportsTable(document, reports);
             addFooter(document);
 
@@ -122,7 +133,7 @@ public class CitizenReportGenerationService {
 
     /** Genera análisis dinámico usando GPT-5. */
     private String generateAiAnalysis(
-            List<CitizenReport> reports, String analysisType, String userPrompt) {
+            ReportStatistics statistics, String analysisType, String userPrompt) {
 
         StringBuilder promptBuilder = new StringBuilder();
 
@@ -135,36 +146,24 @@ public class CitizenReportGenerationService {
 
         // Agregar resumen de datos
         promptBuilder.append("DATOS DISPONIBLES:\n");
-        promptBuilder.append("- Total de reportes: ").append(reports.size()).append("\n");
+        promptBuilder.append("- Total de reportes: ").append(statistics.total()).append("\n");
 
         // Distribución por categoría
-        Map<String, Long> byCategory =
-                reports.stream()
-                        .filter(r -> r.getCategoryProblem() != null)
-                        .collect(
-                                Collectors.groupingBy(
-                                        r -> r.getCategoryProblem().getDisplayName(),
-                                        Collectors.counting()));
         promptBuilder.append("- Distribución por categoría:\n");
-        byCategory.forEach(
-                (cat, count) ->
-                        promptBuilder
-                                .append("  * ")
-                                .append(cat)
-                                .append(": ")
-                                .append(count)
-                                .append("\n"));
-
-        // Distribución por ciudad (top 5)
-        Map<String, Long> byCity =
-                reports.stream()
-                        .filter(r -> r.getCity() != null)
-                        .collect(
-                                Collectors.groupingBy(
-                                        CitizenReport::getCity, Collectors.counting()));
+        statistics
+                .byCategory()
+                .forEach(
+                        (cat, count) ->
+                                promptBuilder
+                                        .append("  * ")
+                                        .append(cat.getDisplayName())
+                                        .append(": ")
+                                        .append(count)
+                                        .append("\n"));
+
+        // Distribución por ciudad (top 5, ya ordenadas de mayor a menor)
         promptBuilder.append("- Ciudades con más reportes (top 5):\n");
-        byCity.entrySet().stream()
-                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+        statistics.topCities().entrySet().stream()
                 .limit(5)
                 .forEach(
                         entry ->
@@ -176,22 +175,17 @@ public class CitizenReportGenerationService {
                                         .append("\n"));
 
         // Nivel de urgencia
-        Map<String, Long> byUrgency =
-                reports.stream()
-                        .filter(r -> r.getUrgencyLevel() != null)
-                        .collect(
-                                Collectors.groupingBy(
-                                        r -> r.getUrgencyLevel().getDisplayName(),
-                                        Collectors.counting()));
         promptBuilder.append("- Distribución por urgencia:\n");
-        byUrgency.forEach(
-                (urgency, count) ->
-                        promptBuilder
-                                .append("  * ")
-                                .append(urgency)
-                                .append(": ")
-                                .append(count)
-                                .append("\n"));
+        statistics
+                .byUrgency()
+                .forEach(
+                        (urgency, count) ->
+                                promptBuilder
+                                        .append("  * ")
+                                        .append(urgency.getDisplayName())
+                                        .append(": ")
+                                        .append(count)
+                                        .append("\n"));
 
         promptBuilder.append("\nGENERA UN ANÁLISIS EJECUTIVO que incluya:\n");
         promptBuilder.append("1. Hallazgos principales (2-3 puntos clave)\n");
@@ -209,33 +203,26 @@ public class CitizenReportGenerationService {
 
     // ==================== Cálculo de Métricas ====================
 
-    private Map<String, Object> calculateMetrics(List<CitizenReport> reports) {
+    private Map<String, Object> calculateMetrics(ReportStatistics statistics) {
         return Map.of(
                 "total",
-                reports.size(),
+                statistics.total(),
                 "porCategoria",
-                reports.stream()
-                        .filter(r -> r.getCategoryProblem() != null)
-                        .collect(
-                                Collectors.groupingBy(
-                                        r -> r.getCategoryProblem().getDisplayName(),
-                                        Collectors.counting())),
+                displayNameCounts(statistics.byCategory(), ProblemCategory::getDisplayName),
                 "porUrgencia",
-                reports.stream()
-                        .filter(r -> r.getUrgencyLevel() != null)
-                        .collect(
-                                Collectors.groupingBy(
-                                        r -> r.getUrgencyLevel().getDisplayName(),
-                                        Collectors.counting())),
+                displayNameCounts(statistics.byUrgency(), UrgencyLevel::getDisplayName),
                 "sinAtencionGobierno",
-                reports.stream()
-                        .filter(
-                                r ->
-                                        r.getGovernmentPreAttention() != null
-                                                && !r.getGovernmentPreAttention())
-                        .count(),
+                statistics.withoutAttention(),
                 "conSesgos",
-                reports.stream().filter(r -> Boolean.TRUE.equals(r.getBiasDetected())).count());
+                statistics.withBias());
+    }
+
+    /** Conteos por enum con la etiqueta que se muestra en el PDF. */
+    private static <E extends Enum<E>> Map<String, Long> displayNameCounts(
+            Map<E, Long> counts, Function<E, String> displayName) {
+        Map<String, Long> labeled = new LinkedHashMap<>();
+        counts.forEach((value, count) -> labeled.put(displayName.apply(value), count));
+        return labeled;
     }
 
     // ==================== Generación de PDF ====================
@@ -337,7 +324,7 @@ public class CitizenReportGenerationService {
     }
 
     /** Agrega sección de gráficos visuales al reporte. */
-    private void addChartsSection(Document document, List<CitizenReport> reports)
+    private void addChartsSection(Document document, ReportStatistics statistics)
             throws DocumentException {
         Font sectionFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 16, PRIMARY_COLOR);
         Paragraph sectionTitle = new Paragraph("Análisis Visual", sectionFont);
@@ -347,7 +334,7 @@ public class CitizenReportGenerationService {
 
         try {
             // Gráfico 1: Distribución por Categoría
-            byte[] categoryChart = chartService.generateCategoryDistributionChart(reports);
+            byte[] categoryChart = chartService.generateCategoryDistributionChart(statistics);
             Image categoryImage = Image.getInstance(categoryChart);
             categoryImage.scaleToFit(500, 300);
             categoryImage.setAlignment(Element.ALIGN_CENTER);
@@ -355,7 +342,7 @@ public class CitizenReportGenerationService {
             document.add(categoryImage);
 
             // Gráfico 2: Nivel de Urgencia (Pie Chart)
-            byte[] urgencyChart = chartService.generateUrgencyLevelPieChart(reports);
+            byte[] urgencyChart = chartService.generateUrgencyLevelPieChart(statistics);
             Image urgencyImage = Image.getInstance(urgencyChart);
             urgencyImage.scaleToFit(500, 300);
             urgencyImage.setAlignment(Element.ALIGN_CENTER);
@@ -372,7 +359,7 @@ public class CitizenReportGenerationService {
             document.add(pageTitle);
 
             // Gráfico 3: Top Ciudades
-            byte[] citiesChart = chartService.generateTopCitiesChart(reports);
+            byte[] citiesChart = chartService.generateTopCitiesChart(statistics);
             Image citiesImage = Image.getInstance(citiesChart);
             citiesImage.scaleToFit(500, 300);
             citiesImage.setAlignment(Element.ALIGN_CENTER);
@@ -380,7 +367,7 @@ public class CitizenReportGenerationService {
             document.add(citiesImage);
 
             // Gráfico 4: Atención del Gobierno
-            byte[] govChart = chartService.generateGovernmentAttentionChart(reports);
+            byte[] govChart = chartService.generateGovernmentAttentionChart(statistics);
             Image govImage = Image.getInstance(govChart);
             govImage.scaleToFit(500, 300);
             govImage.setAlignment(Element.ALIGN_CENTER);
@@ -388,7 +375,7 @@ public class CitizenReportGenerationService {
             document.add(govImage);
 
             // Gráfico 5: Rural vs Urbana
-            byte[] zoneChart = chartService.generateRuralUrbanComparisonChart(reports);
+            byte[] zoneChart = chartService.generateRuralUrbanComparisonChart(statistics);
             Image zoneImage = Image.getInstance(zoneChart);
             zoneImage.scaleToFit(500, 300);
             zoneImage.setAlignment(Element.ALIGN_CENTER);
@@ -396,10 +383,8 @@ public class CitizenReportGenerationService {
             document.add(zoneImage);
 
             // Si hay suficientes datos de fechas, agregar tendencia temporal
-            long reportsWithDates =
-                    reports.stream().filter(r -> r.getReportDate() != null).count();
-            if (reportsWithDates > 5) {
-                byte[] trendChart = chartService.generateTimeTrendChart(reports);
+            if (statistics.datedReports() > 5) {
+                byte[] trendChart = chartService.generateTimeTrendChart(statistics);
                 Image trendImage = Image.getInstance(trendChart);
                 trendImage.scaleToFit(500, 300);
                 trendImage.setAlignment(Element.ALIGN_CENTER);
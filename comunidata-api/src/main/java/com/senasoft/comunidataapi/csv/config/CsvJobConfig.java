@@ -0,0 +1,39 @@
+package com.senasoft.comunidataapi.csv.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Configuración del executor que ejecuta en segundo plano los trabajos de carga de CSV.
+ *
+ * <p>Las cargas se encolan aquí en lugar de ocupar un hilo del servlet durante todo el pipeline
+ * (normalización, IBM Granite y embeddings). La cola es acotada: si se llena, la carga se rechaza
+ * con 503 en lugar de acumular archivos sin límite.
+ *
+ * <p>Con {@code spring.threads.virtual.enabled} los workers son hilos virtuales: el pool y la cola
+ * siguen acotando cuántas cargas corren a la vez, pero un trabajo esperando a Granite, OpenAI o
+ * MongoDB no retiene un hilo de plataforma.
+ */
+@Configuration
+public class CsvJobConfig {
+
+    @Bean(name = "csvJobExecutor")
+    public ThreadPoolTaskExecutor csvJobExecutor(
+            @Value("${app.csv.jobs.pool-size:2}") int poolSize,
+            @Value("${app.csv.jobs.queue-capacity:20}") int queueCapacity,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("csv-job-");
+        if (virtualThreads) {
+            executor.setThreadFactory(Thread.ofVirtual().name("csv-job-", 0).factory());
+        }
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -0,0 +1,103 @@
+package com.senasoft.comunidataapi.csv.config;
+
+import com.senasoft.comunidataapi.csv.entity.EmbeddingVector;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import org.bson.types.Binary;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+/**
+ * Convertidores de Spring Data MongoDB para tipos propios del dominio.
+ *
+ * <p>{@link EmbeddingVector} se guarda como BSON binary subtipo 9 (vector) con el formato float32
+ * que entiende Atlas Vector Search: un byte de tipo ({@code 0x27}), un byte de padding ({@code
+ * 0x00}) y los valores en little-endian. Frente al arreglo de doubles anterior, el documento pesa
+ * ~6 KB en lugar de ~20 KB por embedding de 1536 dimensiones.
+ *
+ * <p>Los documentos creados antes de este formato se siguen leyendo: un arreglo de números se
+ * convierte a {@link EmbeddingVector} al cargarse, y la migración de {@code
+ * EmbeddingVectorMigration} los reescribe en formato binario.
+ */
+@Configuration
+public class MongoConversionConfig {
+
+    /** Subtipo BSON binary para vectores. */
+    public static final byte VECTOR_SUBTYPE = 9;
+
+    /** Tipo de dato float32 en el encabezado del vector BSON. */
+    private static final byte FLOAT32_DTYPE = 0x27;
+
+    private static final int HEADER_LENGTH = 2;
+
+    @Bean
+    public MongoCustomConversions customConversions() {
+        return new MongoCustomConversions(
+                List.of(
+                        new EmbeddingVectorToBinaryConverter(),
+                        new BinaryToEmbeddingVectorConverter(),
+                        new NumberListToEmbeddingVectorConverter()));
+    }
+
+    /** Codifica un vector en formato BSON vector float32. */
+    public static Binary toBinary(float[] values) {
+        ByteBuffer buffer =
+                ByteBuffer.allocate(HEADER_LENGTH + values.length * Float.BYTES)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(FLOAT32_DTYPE).put((byte) 0);
+        buffer.asFloatBuffer().put(values);
+        return new Binary(VECTOR_SUBTYPE, buffer.array());
+    }
+
+    /** Decodifica un BSON vector float32. */
+    public static float[] fromBinary(Binary binary) {
+        byte[] data = binary.getData();
+        if (binary.getType() != VECTOR_SUBTYPE
+                || data.length < HEADER_LENGTH
+                || data[0] != FLOAT32_DTYPE
+                || (data.length - HEADER_LENGTH) % Float.BYTES != 0) {
+            throw new IllegalArgumentException(
+                    "Binary value is not a float32 vector (subtype " + binary.getType() + ")");
+        }
+
+        float[] values = new float[(data.length - HEADER_LENGTH) / Float.BYTES];
+        ByteBuffer.wrap(data, HEADER_LENGTH, data.length - HEADER_LENGTH)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asFloatBuffer()
+                .get(values);
+        return values;
+    }
+
+    // ==================== Converters ====================
+
+    @WritingConverter
+    static class EmbeddingVectorToBinaryConverter implements Converter<EmbeddingVector, Binary> {
+        @Override
+        public Binary convert(EmbeddingVector source) {
+            return toBinary(source.toFloatArray());
+        }
+    }
+
+    @ReadingConverter
+    static class BinaryToEmbeddingVectorConverter implements Converter<Binary, EmbeddingVector> {
+        @Override
+        public EmbeddingVector convert(Binary source) {
+            return EmbeddingVector.of(fromBinary(source));
+        }
+    }
+
+    /** Lee embeddings guardados como arreglo de doubles antes de la migración. */
+    @ReadingConverter
+    static class NumberListToEmbeddingVectorConverter
+            implements Converter<List<Number>, EmbeddingVector> {
+        @Override
+        public EmbeddingVector convert(List<Number> source) {
+            return EmbeddingVector.fromNumbers(source);
+        }
+    }
+}
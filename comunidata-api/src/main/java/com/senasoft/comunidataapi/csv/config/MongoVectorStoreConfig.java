@@ -18,6 +18,11 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class MongoVectorStoreConfig {
 
+    /** Modelo de embeddings; también forma parte de la clave de la caché de embeddings. */
+    public static final String EMBEDDING_MODEL = "text-embedding-3-small";
+
+    public static final int EMBEDDING_DIMENSIONS = 1536;
+
     @Value("${spring.ai.openai.api-key}")
     private String openAiApiKey;
 
@@ -33,8 +38,8 @@ public class MongoVectorStoreConfig {
 
         OpenAiEmbeddingOptions options =
                 OpenAiEmbeddingOptions.builder()
-                        .model("text-embedding-3-small")
-                        .dimensions(1536)
+                        .model(EMBEDDING_MODEL)
+                        .dimensions(EMBEDDING_DIMENSIONS)
                         .build();
 
         return new OpenAiEmbeddingModel(openAiApi, MetadataMode.EMBED, options);
@@ -62,26 +67,28 @@ public class MongoVectorStoreConfig {
      * <ol>
      *   <li>Ve a tu cluster en MongoDB Atlas
      *   <li>Selecciona la base de datos
-     *   <li>En la colección 'citizen_reports', crea un Search Index
+     *   <li>En la colección 'citizen_reports', crea un Atlas Vector Search Index
      *   <li>Usa la siguiente configuración JSON:
      * </ol>
      *
      * <pre>{@code
      * {
-     *   "mappings": {
-     *     "dynamic": true,
-     *     "fields": {
-     *       "embedding": {
-     *         "type": "knnVector",
-     *         "dimensions": 1536,
-     *         "similarity": "cosine"
-     *       }
+     *   "fields": [
+     *     {
+     *       "type": "vector",
+     *       "path": "embedding",
+     *       "numDimensions": 1536,
+     *       "similarity": "cosine"
      *     }
-     *   }
+     *   ]
      * }
      * }</pre>
      *
      * <p>5. Nombra el índice como: "report_embeddings_index"
+     *
+     * <p>El campo {@code embedding} se guarda como BSON vector float32 (ver {@link
+     * MongoConversionConfig}), que el índice de tipo "vector" indexa directamente. Un índice
+     * "knnVector" creado con la configuración anterior debe reemplazarse por este.
      */
 
     // Bean comentado - ahora se usa autoconfiguración de Spring AI
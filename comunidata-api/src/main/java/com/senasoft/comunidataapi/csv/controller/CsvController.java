@@ -1,13 +1,21 @@
 package com.senasoft.comunidataapi.csv.controller;
 
 import com.senasoft.comunidataapi.csv.dto.response.CitizenReportResponseDTO;
+import com.senasoft.comunidataapi.csv.dto.response.CsvJobStatusDTO;
 import com.senasoft.comunidataapi.csv.dto.response.CsvUploadResponseDTO;
+import com.senasoft.comunidataapi.csv.dto.response.CursorPageDTO;
+import com.senasoft.comunidataapi.csv.dto.response.EmbeddingCacheStatsDTO;
+import com.senasoft.comunidataapi.csv.dto.response.LiveReportStatisticsDTO;
 import com.senasoft.comunidataapi.csv.service.CsvProcessingOrchestrator;
+import com.senasoft.comunidataapi.csv.service.analytics.ReportStatistics;
+import com.senasoft.comunidataapi.exception.ComuniDataException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
@@ -16,12 +24,17 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 /**
  * Controlador único para gestión de CSV de reportes ciudadanos.
  *
  * <p>Endpoints: 1. POST /csv - Cargar y procesar CSV 2. GET /csv - Listar reportes filtrados y
- * normalizados 3. GET /csv/export - Exportar reportes como CSV
+ * normalizados (completo o paginado por cursor) 3. GET /csv/export - Exportar reportes como CSV 4.
+ * GET /csv/jobs/{batchId} - Estado de una carga en segundo plano 5. GET /csv/embeddings/cache -
+ * Métricas de la caché de embeddings 6. GET /csv/stream - Listado completo en streaming (NDJSON)
+ * 7. GET /csv/statistics - Estadísticas agregadas de los reportes procesados 8. GET
+ * /csv/statistics/live - Contadores en vivo de reportes completados
  */
 @Slf4j
 @RestController
@@ -30,6 +43,8 @@ import org.springframework.web.multipart.MultipartFile;
 @Tag(name = "CSV Management", description = "API para gestión de reportes ciudadanos en CSV")
 public class CsvController {
 
+    private static final int CSV_GZIP_BUFFER_SIZE = 64 * 1024;
+
     private final CsvProcessingOrchestrator orchestrator;
 
     // ==================== ENDPOINT 1: Lista de los Csv ya categorizados y normalizados
@@ -38,22 +53,57 @@ public class CsvController {
     /**
      * Endpoint 2: Obtener lista de CSV ya filtrados y normalizados.
      *
-     * <p>Retorna todos los reportes ciudadanos que han sido procesados exitosamente.
+     * <p>Sin parámetros retorna todos los reportes ciudadanos procesados exitosamente, como arreglo
+     * JSON. Con {@code limit} y/o {@code cursor} retorna una página y el cursor de la siguiente.
      *
-     * @return Lista de reportes ciudadanos
+     * @param limit Tamaño de página (opcional)
+     * @param cursor Cursor retornado por la página anterior (opcional)
+     * @return Lista de reportes ciudadanos, o una página de reportes
      */
     @GetMapping
     @Operation(
             summary = "Obtener lista de CSV filtrados y normalizados",
             description =
-                    "Retorna todos los reportes ciudadanos que han sido procesados, filtrados y normalizados exitosamente")
-    public ResponseEntity<?> getAllProcessedCsvs() {
+                    "Retorna todos los reportes ciudadanos que han sido procesados, filtrados y normalizados exitosamente. Con los parámetros limit y cursor retorna una página y el cursor de la siguiente")
+    public ResponseEntity<?> getAllProcessedCsvs(
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
+        if (limit != null || cursor != null) {
+            CursorPageDTO<CitizenReportResponseDTO> page =
+                    orchestrator.getProcessedReportsPage(cursor, limit);
+            log.info(
+                    "Returning page of {} processed reports (hasMore={})",
+                    page.getItems().size(),
+                    page.getHasMore());
+            return ResponseEntity.ok(page);
+        }
+
         log.info("Request to get all processed reports");
         List<CitizenReportResponseDTO> reports = orchestrator.getAllProcessedReports();
         log.info("Returning {} processed reports", reports.size());
         return ResponseEntity.ok(reports);
     }
 
+    /**
+     * Endpoint 6: Listado completo de reportes procesados en streaming.
+     *
+     * <p>Escribe un reporte JSON por línea (NDJSON) a medida que se leen del cursor de MongoDB: la
+     * memoria del servidor no depende del número de reportes y el cliente recibe los primeros de
+     * inmediato.
+     *
+     * @return Cuerpo NDJSON escrito en streaming
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "Obtener lista de CSV filtrados y normalizados en streaming",
+            description =
+                    "Retorna todos los reportes ciudadanos procesados como NDJSON (un objeto JSON por línea), escritos a medida que se leen de la base de datos")
+    public ResponseEntity<StreamingResponseBody> streamProcessedCsvs() {
+        log.info("Request to stream all processed reports");
+        StreamingResponseBody body = orchestrator::writeProcessedReportsAsNdjson;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     // ==================== ENDPOINT 2: Exportar un CSV ya categorizado y ya
     // normalizado====================
 
@@ -69,27 +119,46 @@ public class CsvController {
     @Operation(
             summary = "Exportar CSV filtrado y normalizado",
             description =
-                    "Exporta todos los reportes ciudadanos filtrados y normalizados en formato CSV")
-    public ResponseEntity<?> exportAllReports(@PathVariable Integer id) {
+                    "Exporta todos los reportes ciudadanos filtrados y normalizados en formato CSV. Si el cliente acepta gzip, la respuesta se comprime")
+    public ResponseEntity<StreamingResponseBody> exportAllReports(
+            @PathVariable Integer id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                    String acceptEncoding) {
         log.info("Request to export all reports as CSV");
-        return buildCsvResponse(orchestrator.exportReportsAsCsv(null));
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+
+        StreamingResponseBody body =
+                outputStream -> {
+                    if (gzip) {
+                        GZIPOutputStream gzipStream =
+                                new GZIPOutputStream(outputStream, CSV_GZIP_BUFFER_SIZE);
+                        orchestrator.writeReportsAsCsv(null, gzipStream);
+                        gzipStream.finish();
+                    } else {
+                        orchestrator.writeReportsAsCsv(null, outputStream);
+                    }
+                };
+        return ResponseEntity.ok().headers(buildCsvHeaders(gzip)).body(body);
     }
 
     // ==================== Helper Methods ====================
 
-    private ResponseEntity<byte[]> buildCsvResponse(byte[] csvBytes) {
+    private HttpHeaders buildCsvHeaders(boolean gzip) {
         String filename =
                 String.format(
                         "reportes_ciudadanos_%s.csv",
                         LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")));
 
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.parseMediaType("text/csv"));
+        headers.setContentType(new MediaType("text", "csv", StandardCharsets.UTF_8));
         headers.setContentDispositionFormData("attachment", filename);
-        headers.setContentLength(csvBytes.length);
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
 
-        log.info("Exporting CSV file: {} ({} bytes)", filename, csvBytes.length);
-        return ResponseEntity.ok().headers(headers).body(csvBytes);
+        log.info("Exporting CSV file: {} (gzip={})", filename, gzip);
+        return headers;
     }
 
     // ==================== ENDPOINT 3: Importar un CSV para su categorización y normalización
@@ -98,18 +167,20 @@ public class CsvController {
     /**
      * Endpoint 1: Carga de CSV para filtración y normalización.
      *
-     * <p>Recibe un archivo CSV, lo normaliza y opcionalmente lo procesa con IA (IBM Granite +
-     * OpenAI Embeddings).
+     * <p>Recibe un archivo CSV y encola su procesamiento: normalización y opcionalmente IA (IBM
+     * Granite + OpenAI Embeddings). Retorna 202 de inmediato con el ID del batch; el progreso se
+     * consulta en {@code GET /csv/jobs/{batchId}}.
      *
      * @param file Archivo CSV con reportes ciudadanos
-     * @param procesarInmediatamente Si true, procesa con IA inmediatamente
-     * @return Respuesta con estadísticas del procesamiento
+     * @param procesarInmediatamente Si true, procesa con IA dentro del trabajo de carga; si false,
+     *     la IA queda a cargo del worker de la cola persistente
+     * @return Respuesta con el ID del batch y estado EN_COLA
      */
     @PostMapping(value = "/add", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @Operation(
             summary = "Cargar CSV para filtración y normalización",
             description =
-                    "Carga un archivo CSV con reportes ciudadanos, lo normaliza y opcionalmente lo procesa con IA (IBM Granite para detección de sesgos + OpenAI para embeddings)")
+                    "Carga un archivo CSV con reportes ciudadanos y encola su normalización y, opcionalmente, su procesamiento con IA (IBM Granite para detección de sesgos + OpenAI para embeddings). Retorna 202 con el ID del batch para consultar el progreso")
     public ResponseEntity<CsvUploadResponseDTO> uploadCsv(
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "procesarInmediatamente", defaultValue = "true")
@@ -134,16 +205,86 @@ public class CsvController {
         }
 
         try {
-            CsvUploadResponseDTO response = orchestrator.processCSV(file, procesarInmediatamente);
-            log.info(
-                    "CSV processed successfully. Batch ID: {}, Total: {}, Errors: {}",
-                    response.getBatchId(),
-                    response.getTotalRecords(),
-                    response.getRecordsWithErros());
-            return ResponseEntity.ok(response);
+            CsvUploadResponseDTO response = orchestrator.submitCSV(file, procesarInmediatamente);
+            log.info("CSV queued for processing. Batch ID: {}", response.getBatchId());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } catch (ComuniDataException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error processing CSV upload", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    // ==================== ENDPOINT 4: Estado de una carga en segundo plano ====================
+
+    /**
+     * Endpoint 4: Consultar el estado de una carga de CSV.
+     *
+     * <p>El estado vive en memoria del nodo que recibió la carga (ver {@code CsvJobRegistry}).
+     *
+     * @param batchId ID del batch retornado por POST /csv/add
+     * @return Estado, conteos por etapa (normalizados, validados, con embedding, con error) y
+     *     throughput en reportes por segundo
+     */
+    @GetMapping("/jobs/{batchId}")
+    @Operation(
+            summary = "Consultar estado de una carga de CSV",
+            description =
+                    "Retorna el estado del procesamiento en segundo plano de un CSV, con los conteos por etapa y el throughput")
+    public ResponseEntity<CsvJobStatusDTO> getJobStatus(@PathVariable String batchId) {
+        return ResponseEntity.ok(orchestrator.getJobStatus(batchId));
+    }
+
+    // ==================== ENDPOINT 5: Métricas de la caché de embeddings ====================
+
+    /**
+     * Endpoint 5: Consultar las métricas de la caché de embeddings.
+     *
+     * @return Aciertos en memoria y en MongoDB, fallos, tasa de acierto y tokens ahorrados
+     */
+    @GetMapping("/embeddings/cache")
+    @Operation(
+            summary = "Consultar métricas de la caché de embeddings",
+            description =
+                    "Retorna los aciertos y fallos de la caché de embeddings y los tokens estimados que no se enviaron al proveedor")
+    public ResponseEntity<EmbeddingCacheStatsDTO> getEmbeddingCacheStats() {
+        return ResponseEntity.ok(orchestrator.getEmbeddingCacheStats());
+    }
+
+    // ==================== ENDPOINT 7: Estadísticas de reportes ====================
+
+    /**
+     * Endpoint 7: Consultar las estadísticas de los reportes procesados.
+     *
+     * @return Conteos por categoría, urgencia, zona, ciudades principales y fecha, y totales con y
+     *     sin atención del gobierno y con sesgo
+     */
+    @GetMapping("/statistics")
+    @Operation(
+            summary = "Consultar estadísticas de reportes",
+            description =
+                    "Retorna los conteos agregados de los reportes procesados, calculados a partir del snapshot en memoria o de los rollups")
+    public ResponseEntity<ReportStatistics> getReportStatistics() {
+        return ResponseEntity.ok(orchestrator.getReportStatistics());
+    }
+
+    // ==================== ENDPOINT 8: Estadísticas en vivo ====================
+
+    /**
+     * Endpoint 8: Consultar los contadores en vivo de reportes completados.
+     *
+     * <p>Se leen de memoria, por lo que se pueden consultar con frecuencia durante una carga.
+     *
+     * @return Conteos por categoría, urgencia, zona y ciudad, origen de los datos y última
+     *     reconciliación
+     */
+    @GetMapping("/statistics/live")
+    @Operation(
+            summary = "Consultar estadísticas en vivo",
+            description =
+                    "Retorna los contadores en memoria de reportes completados, actualizados desde el change stream de MongoDB o los eventos del nodo")
+    public ResponseEntity<LiveReportStatisticsDTO> getLiveReportStatistics() {
+        return ResponseEntity.ok(orchestrator.getLiveReportStatistics());
+    }
 }
@@ -0,0 +1,33 @@
+package com.senasoft.comunidataapi.csv.dto.response;
+
+import com.senasoft.comunidataapi.csv.enums.JobStatus;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** DTO de respuesta con el estado y progreso de un trabajo de carga de CSV. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CsvJobStatusDTO {
+    private String batchId;
+    private String fileName;
+    private JobStatus status;
+    private Boolean processWithAi;
+    private Integer processedChunks;
+    private Integer normalizedRecords;
+    private Integer validatedRecords;
+    private Integer embeddedRecords;
+    private Integer errorRecords;
+
+    /** Reportes normalizados por segundo desde que inició el trabajo. */
+    private Double recordsPerSecond;
+
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private String errorMessage;
+}
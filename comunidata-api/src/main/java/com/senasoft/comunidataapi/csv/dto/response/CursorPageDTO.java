@@ -0,0 +1,25 @@
+package com.senasoft.comunidataapi.csv.dto.response;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO de respuesta para una página de resultados con paginación por cursor (keyset).
+ *
+ * @param <T> Tipo de los elementos de la página
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageDTO<T> {
+    private List<T> items;
+
+    /** Cursor opaco para pedir la página siguiente; null si esta es la última. */
+    private String nextCursor;
+
+    private Boolean hasMore;
+}
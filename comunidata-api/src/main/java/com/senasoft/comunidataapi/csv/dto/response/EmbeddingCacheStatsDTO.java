@@ -0,0 +1,25 @@
+package com.senasoft.comunidataapi.csv.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** DTO de respuesta con las métricas de la caché de embeddings desde el inicio del nodo. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmbeddingCacheStatsDTO {
+    private String model;
+    private Long memoryHits;
+    private Long persistentHits;
+    private Long misses;
+    private Double hitRate;
+
+    /** Tokens estimados que no se enviaron al proveedor gracias a la caché. */
+    private Long savedTokens;
+
+    private Integer memoryEntries;
+    private Integer memoryCapacity;
+}
@@ -0,0 +1,32 @@
+package com.senasoft.comunidataapi.csv.dto.response;
+
+import com.senasoft.comunidataapi.csv.enums.ProblemCategory;
+import com.senasoft.comunidataapi.csv.enums.UrgencyLevel;
+import com.senasoft.comunidataapi.csv.enums.Zone;
+import java.time.LocalDateTime;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** DTO de respuesta con los contadores en vivo de reportes completados. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiveReportStatisticsDTO {
+    private Long total;
+    private Map<ProblemCategory, Long> byCategory;
+    private Map<UrgencyLevel, Long> byUrgency;
+    private Map<Zone, Long> byZone;
+    private Map<String, Long> byCity;
+
+    /** Origen de los incrementos: CHANGE_STREAM (todos los nodos) o EVENTS (solo este nodo). */
+    private String source;
+
+    private LocalDateTime lastReconciledAt;
+
+    /** Diferencia absoluta corregida en la última reconciliación. */
+    private Long lastReconciliationDrift;
+}
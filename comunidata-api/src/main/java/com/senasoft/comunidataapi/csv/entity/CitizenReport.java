@@ -6,13 +6,13 @@ import com.senasoft.comunidataapi.csv.enums.UrgencyLevel;
 import com.senasoft.comunidataapi.csv.enums.Zone;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 /**
@@ -27,6 +27,35 @@ import org.springframework.data.mongodb.core.mapping.Document;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "citizen_reports")
+@CompoundIndexes({
+    // Cola de trabajo y listado paginado
+    @CompoundIndex(
+            name = "work_queue_idx",
+            def = "{'processingStatus': 1, 'leaseUntil': 1, '_id': 1}"),
+    @CompoundIndex(name = "claim_token_idx", def = "{'claimToken': 1}", sparse = true),
+    @CompoundIndex(name = "status_id_idx", def = "{'processingStatus': 1, '_id': 1}"),
+    // Filtros de las herramientas del chat (ReportFilter): igualdad primero, rango al final
+    @CompoundIndex(
+            name = "status_city_category_idx",
+            def = "{'processingStatus': 1, 'city': 1, 'categoryProblem': 1}"),
+    @CompoundIndex(
+            name = "status_area_urgency_idx",
+            def = "{'processingStatus': 1, 'area': 1, 'urgencyLevel': 1}"),
+    @CompoundIndex(
+            name = "status_category_urgency_idx",
+            def = "{'processingStatus': 1, 'categoryProblem': 1, 'urgencyLevel': 1}"),
+    @CompoundIndex(
+            name = "status_attention_idx",
+            def = "{'processingStatus': 1, 'governmentPreAttention': 1}"),
+    @CompoundIndex(
+            name = "status_report_date_idx",
+            def = "{'processingStatus': 1, 'reportDate': 1}"),
+    @CompoundIndex(name = "status_age_idx", def = "{'processingStatus': 1, 'age': 1}"),
+    // Exportación de reportes válidos
+    @CompoundIndex(name = "status_bias_idx", def = "{'processingStatus': 1, 'biasDetected': 1}"),
+    // Reportes de una carga, en el orden del archivo
+    @CompoundIndex(name = "batch_idx", def = "{'batchId': 1, 'batchIndex': 1}")
+})
 public class CitizenReport {
 
     @Id private String id;
@@ -34,39 +63,48 @@ public class CitizenReport {
     // Campos normalizados del CSV
     private Integer age;
 
-    @Indexed private String city;
+    private String city;
 
     private String comment;
 
-    @Indexed private ProblemCategory categoryProblem;
+    private ProblemCategory categoryProblem;
 
     private UrgencyLevel urgencyLevel;
 
-    @Indexed private LocalDate reportDate;
+    private LocalDate reportDate;
 
     private Boolean governmentPreAttention;
 
-    @Indexed private Zone area;
+    private Zone area;
 
     // Campos de procesamiento IA
-    @Indexed private Boolean biasDetected;
+    private Boolean biasDetected;
 
     private String descriptionBias;
 
     private String originalCategory; // Categoría antes de validación de IA
 
-    // Vector embedding para RAG (text-embedding-3-small genera 1536 dimensiones)
-    private List<Double> embedding;
+    // Vector embedding para RAG (text-embedding-3-small genera 1536 dimensiones, BSON float32)
+    private EmbeddingVector embedding;
 
-    // Control de procesamiento
-    @Indexed private ProcessingStatus processingStatus;
+    // Control de procesamiento (indexado como prefijo de los índices compuestos)
+    private ProcessingStatus processingStatus;
 
-    @Indexed private LocalDateTime importDate;
+    private LocalDateTime importDate;
 
     private LocalDateTime processDate;
 
     private String errorMessage;
 
+    // Cola de trabajo persistente (ver ReportWorkQueue)
+    private String leaseOwner; // Nodo que tiene reclamado el reporte
+
+    private String claimToken; // Reclamo en el que el nodo tomó el reporte
+
+    private LocalDateTime leaseUntil; // Vencimiento del reclamo; vencido = se puede reclamar de nuevo
+
+    private Integer processingAttempts; // Veces que el reporte fue reclamado para una etapa
+
     // Metadatos adicionales
     private String batchId; // ID del batch de procesamiento
 
@@ -0,0 +1,33 @@
+package com.senasoft.comunidataapi.csv.entity;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Entrada persistente de la caché de embeddings.
+ *
+ * <p>El ID es el hash SHA-256 del modelo y del texto embebido, de modo que el mismo comentario (con
+ * los mismos metadatos) nunca se envía dos veces al proveedor, aunque el CSV se vuelva a cargar.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "embedding_cache")
+public class EmbeddingCacheEntry {
+
+    @Id private String id;
+
+    private String model;
+
+    private EmbeddingVector vector;
+
+    @Indexed(expireAfter = "90d")
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,63 @@
+package com.senasoft.comunidataapi.csv.entity;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Vector de embedding en precisión float32.
+ *
+ * <p>Reemplaza a {@code List<Double>}: 1536 dimensiones ocupan ~6 KB en un {@code float[]} contra
+ * ~37 KB como lista de {@code Double}. En MongoDB se guarda como BSON binary subtipo 9 (vector
+ * float32) mediante los convertidores de {@link
+ * com.senasoft.comunidataapi.csv.config.MongoConversionConfig}.
+ *
+ * <p>Para evitar copias, el arreglo recibido y el retornado por {@link #toFloatArray()} son el mismo
+ * y no deben modificarse.
+ */
+public final class EmbeddingVector {
+
+    private final float[] values;
+
+    private EmbeddingVector(float[] values) {
+        this.values = values;
+    }
+
+    /** Envuelve un vector tal como lo retorna el modelo de embeddings, sin copiarlo. */
+    public static EmbeddingVector of(float[] values) {
+        return new EmbeddingVector(values);
+    }
+
+    /** Convierte un embedding en el formato anterior (arreglo BSON de doubles). */
+    public static EmbeddingVector fromNumbers(List<? extends Number> numbers) {
+        float[] values = new float[numbers.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = numbers.get(i).floatValue();
+        }
+        return new EmbeddingVector(values);
+    }
+
+    @JsonValue
+    public float[] toFloatArray() {
+        return values;
+    }
+
+    public int dimensions() {
+        return values.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof EmbeddingVector other && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return "EmbeddingVector[dimensions=" + values.length + "]";
+    }
+}
@@ -0,0 +1,30 @@
+package com.senasoft.comunidataapi.csv.entity;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Ciudad aprendida por el diccionario de ciudades durante la normalización.
+ *
+ * <p>El ID es la clave sin acentos ni puntuación de la ciudad y {@code name} es la primera
+ * escritura que llegó con esa clave. Solo se escribe con {@code $setOnInsert}, así que todos los
+ * nodos y reinicios comparten el mismo nombre canónico.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "learned_cities")
+public class LearnedCity {
+
+    @Id private String id;
+
+    private String name;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,18 @@
+package com.senasoft.comunidataapi.csv.enums;
+
+import lombok.Getter;
+
+/** Estado de un trabajo asíncrono de carga de CSV. */
+@Getter
+public enum JobStatus {
+    EN_COLA("En cola"),
+    EN_PROCESO("En proceso"),
+    COMPLETADO("Completado"),
+    ERROR("Error");
+
+    private final String displayName;
+
+    JobStatus(String displayName) {
+        this.displayName = displayName;
+    }
+}
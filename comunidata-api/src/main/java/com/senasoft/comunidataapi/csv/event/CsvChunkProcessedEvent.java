@@ -0,0 +1,19 @@
+package com.senasoft.comunidataapi.csv.event;
+
+/**
+ * Evento de progreso publicado cada vez que un chunk del CSV termina su procesamiento.
+ *
+ * @param batchId ID del batch al que pertenece el chunk
+ * @param chunkIndex Posición del chunk dentro del archivo (empieza en 0)
+ * @param normalizedRecords Reportes normalizados y guardados en este chunk
+ * @param validatedRecords Reportes validados por IBM Granite en este chunk
+ * @param embeddedRecords Reportes con embedding generado en este chunk
+ * @param errorRecords Reportes que terminaron con error en este chunk
+ */
+public record CsvChunkProcessedEvent(
+        String batchId,
+        int chunkIndex,
+        int normalizedRecords,
+        int validatedRecords,
+        int embeddedRecords,
+        int errorRecords) {}
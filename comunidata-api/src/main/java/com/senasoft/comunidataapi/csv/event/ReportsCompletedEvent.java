@@ -0,0 +1,12 @@
+package com.senasoft.comunidataapi.csv.event;
+
+import com.senasoft.comunidataapi.csv.entity.CitizenReport;
+import java.util.List;
+
+/**
+ * Evento publicado por la cola de trabajo cuando este nodo guarda reportes que llegaron a
+ * COMPLETADO. Solo lo reciben los listeners del mismo nodo.
+ *
+ * @param reports Reportes guardados como COMPLETADO
+ */
+public record ReportsCompletedEvent(List<CitizenReport> reports) {}
@@ -0,0 +1,14 @@
+package com.senasoft.comunidataapi.csv.event;
+
+/**
+ * Evento de progreso publicado por el worker de la cola de trabajo cada vez que termina una etapa
+ * de IA sobre reportes de un batch que quedaron pendientes (procesamiento diferido o
+ * recuperación tras un reinicio).
+ *
+ * @param batchId ID del batch al que pertenecen los reportes
+ * @param validatedRecords Reportes validados por IBM Granite en esta ejecución
+ * @param embeddedRecords Reportes con embedding generado en esta ejecución
+ * @param errorRecords Reportes que terminaron con error en esta ejecución
+ */
+public record ReportsProcessedEvent(
+        String batchId, int validatedRecords, int embeddedRecords, int errorRecords) {}
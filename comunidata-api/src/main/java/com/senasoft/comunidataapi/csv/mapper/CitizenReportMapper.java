@@ -2,6 +2,7 @@ package com.senasoft.comunidataapi.csv.mapper;
 
 import com.senasoft.comunidataapi.csv.dto.response.CitizenReportResponseDTO;
 import com.senasoft.comunidataapi.csv.entity.CitizenReport;
+import com.senasoft.comunidataapi.csv.repository.projection.CitizenReportSummary;
 import org.mapstruct.Mapper;
 import org.mapstruct.MappingConstants;
 
@@ -11,5 +12,7 @@ public interface CitizenReportMapper {
 
     CitizenReportResponseDTO toResponseDTO(CitizenReport entity);
 
+    CitizenReportResponseDTO toResponseDTO(CitizenReportSummary summary);
+
     CitizenReport toEntity(CitizenReportResponseDTO dto);
 }
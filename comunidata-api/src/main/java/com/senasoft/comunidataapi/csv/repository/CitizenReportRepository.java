@@ -1,79 +1,81 @@
 package com.senasoft.comunidataapi.csv.repository;
 
 import com.senasoft.comunidataapi.csv.entity.CitizenReport;
-import com.senasoft.comunidataapi.csv.enums.ProblemCategory;
 import com.senasoft.comunidataapi.csv.enums.ProcessingStatus;
-import com.senasoft.comunidataapi.csv.enums.UrgencyLevel;
-import com.senasoft.comunidataapi.csv.enums.Zone;
-import java.time.LocalDate;
+import com.senasoft.comunidataapi.csv.repository.projection.CitizenReportExportRow;
+import com.senasoft.comunidataapi.csv.repository.projection.CitizenReportSummary;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
-/** Repository para operaciones CRUD sobre reportes ciudadanos. */
+/**
+ * Repository para operaciones CRUD sobre reportes ciudadanos.
+ *
+ * <p>Los filtros de las herramientas del chat (edad, ciudad, categoría, urgencia, atención, fechas
+ * y zona, en cualquier combinación) se resuelven con {@link #findByFilter(ReportFilter)}.
+ */
 @Repository
-public interface CitizenReportRepository extends MongoRepository<CitizenReport, String> {
+public interface CitizenReportRepository
+        extends MongoRepository<CitizenReport, String>, CitizenReportRepositoryCustom {
 
-    // Consultas para Function Callbacks
+    /**
+     * Campos excluidos en las consultas de análisis: el embedding (~6 KB) y el comentario original
+     * no se usan para responder ni para las estadísticas.
+     */
+    String WITHOUT_HEAVY_FIELDS = "{ 'embedding': 0, 'originalComment': 0 }";
 
-    /** Filtra reportes por rango de edad */
-    List<CitizenReport> findByEdadBetween(Integer minEdad, Integer maxEdad);
-
-    /** Filtra reportes por ciudad */
-    List<CitizenReport> findByCiudad(String ciudad);
-
-    /** Filtra reportes por múltiples ciudades */
-    List<CitizenReport> findByCiudadIn(List<String> ciudades);
-
-    /** Filtra reportes por categoría del problema */
-    List<CitizenReport> findByCategoriaProblema(ProblemCategory categoria);
-
-    /** Filtra reportes por múltiples categorías */
-    List<CitizenReport> findByCategoriaProblemaIn(List<ProblemCategory> categorias);
-
-    /** Filtra reportes por nivel de urgencia */
-    List<CitizenReport> findByNivelUrgencia(UrgencyLevel urgencia);
-
-    /** Filtra reportes por múltiples niveles de urgencia */
-    List<CitizenReport> findByNivelUrgenciaIn(List<UrgencyLevel> urgencias);
-
-    /** Filtra reportes por atención previa del gobierno */
-    List<CitizenReport> findByAtencionPreviaGobierno(Boolean atencionPrevia);
-
-    /** Filtra reportes por rango de fechas */
-    List<CitizenReport> findByFechaReporteBetween(LocalDate fechaInicio, LocalDate fechaFin);
+    /** Consultas para procesamiento */
+    List<CitizenReport> findByBatchId(String batchId);
 
-    /** Filtra reportes por zona */
-    List<CitizenReport> findByZona(Zone zona);
+    Long countByBatchId(String batchId);
 
-    /** Filtra reportes con sesgo detectado */
-    List<CitizenReport> findBySesgoDetectado(Boolean sesgoDetectado);
+    /** Consultas para estadísticas */
+    @Query(value = "{ 'processingStatus': 'COMPLETADO' }", fields = WITHOUT_HEAVY_FIELDS)
+    List<CitizenReport> findAllCompletedReports();
 
-    /** Consultas combinadas */
-    List<CitizenReport> findByCategoriaProblemaAndZona(ProblemCategory categoria, Zone zona);
+    @Query(
+            value = "{ 'processingStatus': 'COMPLETADO', 'biasDetected': false }",
+            fields = WITHOUT_HEAVY_FIELDS)
+    List<CitizenReport> findAllValidReports();
 
-    List<CitizenReport> findByCiudadAndCategoriaProblema(String ciudad, ProblemCategory categoria);
+    /** Reportes específicos, p. ej. los IDs que resolvió un índice en memoria. */
+    @Query(value = "{ '_id': { '$in': ?0 } }", fields = WITHOUT_HEAVY_FIELDS)
+    List<CitizenReport> findWithoutHeavyFieldsByIdIn(Collection<String> ids);
 
-    List<CitizenReport> findByZonaAndNivelUrgencia(Zone zona, UrgencyLevel urgencia);
+    // ==================== Proyecciones ====================
 
-    /** Consultas para procesamiento */
-    List<CitizenReport> findByEstadoProcesamiento(ProcessingStatus status);
+    /** Listado de reportes en un estado, sin embedding ni campos internos. */
+    List<CitizenReportSummary> findSummariesByProcessingStatus(ProcessingStatus status);
 
-    List<CitizenReport> findByBatchId(String batchId);
+    /** Primera página del listado, ordenada por {@code _id}. */
+    List<CitizenReportSummary> findSummariesByProcessingStatusOrderByIdAsc(
+            ProcessingStatus status, Limit limit);
 
-    Long countByEstadoProcesamiento(ProcessingStatus status);
+    /** Página siguiente del listado: reportes con {@code _id} mayor al último ya entregado. */
+    List<CitizenReportSummary> findSummariesByProcessingStatusAndIdGreaterThanOrderByIdAsc(
+            ProcessingStatus status, String lastId, Limit limit);
 
-    Long countByBatchId(String batchId);
+    /**
+     * Listado completo respaldado por un cursor de MongoDB: los documentos se leen por lotes a
+     * medida que se consume el stream, que debe cerrarse al terminar.
+     */
+    @Meta(cursorBatchSize = 500)
+    Stream<CitizenReportSummary> streamSummariesByProcessingStatusOrderByIdAsc(
+            ProcessingStatus status);
 
-    /** Consultas para estadísticas */
-    @Query("{ 'estadoProcesamiento': 'COMPLETADO' }")
-    List<CitizenReport> findAllCompletedReports();
+    /** Exportación en streaming de los reportes en un estado, según el sesgo detectado. */
+    @Meta(cursorBatchSize = 1000)
+    Stream<CitizenReportExportRow> streamExportRowsByProcessingStatusAndBiasDetected(
+            ProcessingStatus status, Boolean biasDetected);
 
-    @Query("{ 'estadoProcesamiento': 'COMPLETADO', 'sesgoDetectado': false }")
-    List<CitizenReport> findAllValidReports();
+    /** Exportación en streaming de reportes específicos. */
+    @Meta(cursorBatchSize = 1000)
+    Stream<CitizenReportExportRow> streamExportRowsByIdIn(Collection<String> ids);
 
-    /** Consulta para obtener reportes que necesitan embedding */
-    @Query("{ 'estadoProcesamiento': 'PROCESANDO_IA', 'embedding': null }")
-    List<CitizenReport> findReportsNeedingEmbedding();
+    long countByProcessingStatus(ProcessingStatus status);
 }
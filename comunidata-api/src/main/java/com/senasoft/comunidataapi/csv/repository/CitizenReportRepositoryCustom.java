@@ -0,0 +1,27 @@
+package com.senasoft.comunidataapi.csv.repository;
+
+import com.senasoft.comunidataapi.csv.entity.CitizenReport;
+import java.util.List;
+
+/** Consultas dinámicas sobre reportes ciudadanos, implementadas con {@code MongoTemplate}. */
+public interface CitizenReportRepositoryCustom {
+
+    /**
+     * Busca reportes que cumplen todas las condiciones del filtro.
+     *
+     * <p>Los reportes se retornan sin {@code embedding} ni {@code originalComment}, y como máximo
+     * {@code app.reports.filter.max-results}.
+     *
+     * @param filter Condiciones a combinar
+     * @return Reportes que cumplen el filtro
+     */
+    List<CitizenReport> findByFilter(ReportFilter filter);
+
+    /**
+     * Cuenta los reportes que cumplen todas las condiciones del filtro, sin límite.
+     *
+     * @param filter Condiciones a combinar
+     * @return Cantidad de reportes
+     */
+    long countByFilter(ReportFilter filter);
+}
@@ -0,0 +1,44 @@
+package com.senasoft.comunidataapi.csv.repository;
+
+import com.senasoft.comunidataapi.csv.entity.CitizenReport;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+/** Implementación de {@link CitizenReportRepositoryCustom} con {@code MongoTemplate}. */
+@Slf4j
+public class CitizenReportRepositoryCustomImpl implements CitizenReportRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+    private final int maxResults;
+
+    public CitizenReportRepositoryCustomImpl(
+            MongoTemplate mongoTemplate,
+            @Value("${app.reports.filter.max-results:5000}") int maxResults) {
+        this.mongoTemplate = mongoTemplate;
+        this.maxResults = maxResults;
+    }
+
+    @Override
+    public List<CitizenReport> findByFilter(ReportFilter filter) {
+        int limit =
+                filter.getLimit() != null ? Math.min(filter.getLimit(), maxResults) : maxResults;
+
+        Query query = filter.toQuery().limit(limit);
+        // Mismos campos que CitizenReportRepository.WITHOUT_HEAVY_FIELDS
+        query.fields().exclude("embedding", "originalComment");
+
+        List<CitizenReport> reports = mongoTemplate.find(query, CitizenReport.class);
+        if (reports.size() == limit) {
+            log.warn("Report filter reached the limit of {} results: {}", limit, filter);
+        }
+        return reports;
+    }
+
+    @Override
+    public long countByFilter(ReportFilter filter) {
+        return mongoTemplate.count(filter.toQuery(), CitizenReport.class);
+    }
+}
@@ -0,0 +1,102 @@
+package com.senasoft.comunidataapi.csv.repository;
+
+import com.senasoft.comunidataapi.csv.enums.ProblemCategory;
+import com.senasoft.comunidataapi.csv.enums.ProcessingStatus;
+import com.senasoft.comunidataapi.csv.enums.UrgencyLevel;
+import com.senasoft.comunidataapi.csv.enums.Zone;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Filtro combinable sobre reportes ciudadanos.
+ *
+ * <p>Cualquier combinación de campos no nulos se traduce en una sola consulta: primero las
+ * condiciones de igualdad (estado, zona, ciudad, categoría, urgencia, atención) y al final los
+ * rangos (fecha, edad), el orden que aprovechan los índices compuestos. Los campos nulos o listas
+ * vacías no filtran.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportFilter {
+
+    /** Estado de procesamiento; por defecto solo reportes ya procesados. */
+    @Builder.Default private ProcessingStatus processingStatus = ProcessingStatus.COMPLETADO;
+
+    private Zone area;
+    private List<String> cities;
+    private List<ProblemCategory> categories;
+    private List<UrgencyLevel> urgencyLevels;
+    private Boolean governmentPreAttention;
+    private Boolean biasDetected;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Integer minAge;
+    private Integer maxAge;
+
+    /** Máximo de reportes a retornar; se acota a {@code app.reports.filter.max-results}. */
+    private Integer limit;
+
+    /** Construye la consulta sin límite ni proyección. */
+    public Query toQuery() {
+        List<Criteria> criteria = new ArrayList<>();
+
+        if (processingStatus != null) {
+            criteria.add(Criteria.where("processingStatus").is(processingStatus));
+        }
+        if (area != null) {
+            criteria.add(Criteria.where("area").is(area));
+        }
+        addIn(criteria, "city", cities);
+        addIn(criteria, "categoryProblem", categories);
+        addIn(criteria, "urgencyLevel", urgencyLevels);
+        if (governmentPreAttention != null) {
+            criteria.add(Criteria.where("governmentPreAttention").is(governmentPreAttention));
+        }
+        if (biasDetected != null) {
+            criteria.add(Criteria.where("biasDetected").is(biasDetected));
+        }
+        addRange(criteria, "reportDate", startDate, endDate);
+        addRange(criteria, "age", minAge, maxAge);
+
+        // Cada campo aparece una sola vez: la consulta queda plana, sin $and
+        Query query = new Query();
+        criteria.forEach(query::addCriteria);
+        return query;
+    }
+
+    // ==================== Helper Methods ====================
+
+    /** Un solo valor se consulta por igualdad; varios, con {@code $in}. */
+    private static void addIn(List<Criteria> criteria, String field, List<?> values) {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        criteria.add(
+                values.size() == 1
+                        ? Criteria.where(field).is(values.get(0))
+                        : Criteria.where(field).in(values));
+    }
+
+    private static void addRange(List<Criteria> criteria, String field, Object from, Object to) {
+        if (from == null && to == null) {
+            return;
+        }
+        Criteria range = Criteria.where(field);
+        if (from != null) {
+            range.gte(from);
+        }
+        if (to != null) {
+            range.lte(to);
+        }
+        criteria.add(range);
+    }
+}
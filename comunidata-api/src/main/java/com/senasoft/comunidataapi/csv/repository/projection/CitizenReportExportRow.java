@@ -0,0 +1,30 @@
+package com.senasoft.comunidataapi.csv.repository.projection;
+
+import com.senasoft.comunidataapi.csv.enums.ProblemCategory;
+import com.senasoft.comunidataapi.csv.enums.UrgencyLevel;
+import com.senasoft.comunidataapi.csv.enums.Zone;
+import java.time.LocalDate;
+
+/** Proyección cerrada con las columnas de la exportación a CSV. */
+public interface CitizenReportExportRow {
+
+    String getId();
+
+    Integer getAge();
+
+    String getCity();
+
+    String getComment();
+
+    ProblemCategory getCategoryProblem();
+
+    UrgencyLevel getUrgencyLevel();
+
+    LocalDate getReportDate();
+
+    Boolean getGovernmentPreAttention();
+
+    Zone getArea();
+
+    Boolean getBiasDetected();
+}
@@ -0,0 +1,45 @@
+package com.senasoft.comunidataapi.csv.repository.projection;
+
+import com.senasoft.comunidataapi.csv.enums.ProblemCategory;
+import com.senasoft.comunidataapi.csv.enums.ProcessingStatus;
+import com.senasoft.comunidataapi.csv.enums.UrgencyLevel;
+import com.senasoft.comunidataapi.csv.enums.Zone;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Proyección cerrada de un reporte para el listado de {@code GET /csv}.
+ *
+ * <p>Spring Data limita la consulta a estos campos, por lo que el embedding, el comentario original
+ * y los campos de la cola de trabajo nunca se leen de MongoDB.
+ */
+public interface CitizenReportSummary {
+
+    String getId();
+
+    Integer getAge();
+
+    String getCity();
+
+    String getComment();
+
+    ProblemCategory getCategoryProblem();
+
+    UrgencyLevel getUrgencyLevel();
+
+    LocalDate getReportDate();
+
+    Boolean getGovernmentPreAttention();
+
+    Zone getArea();
+
+    Boolean getBiasDetected();
+
+    String getDescriptionBias();
+
+    ProcessingStatus getProcessingStatus();
+
+    LocalDateTime getImportDate();
+
+    LocalDateTime getProcessDate();
+}
@@ -1,7 +1,14 @@
 package com.senasoft.comunidataapi.csv.service;
 
 import com.senasoft.comunidataapi.csv.dto.response.CitizenReportResponseDTO;
+import com.senasoft.comunidataapi.csv.dto.response.CsvJobStatusDTO;
 import com.senasoft.comunidataapi.csv.dto.response.CsvUploadResponseDTO;
+import com.senasoft.comunidataapi.csv.dto.response.CursorPageDTO;
+import com.senasoft.comunidataapi.csv.dto.response.EmbeddingCacheStatsDTO;
+import com.senasoft.comunidataapi.csv.dto.response.LiveReportStatisticsDTO;
+import com.senasoft.comunidataapi.csv.service.analytics.ReportStatistics;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -16,12 +23,60 @@ public interface CsvProcessingOrchestrator {
     /**
      * Procesa un archivo CSV completo con todo el pipeline.
      *
+     * <p>El archivo se lee en streaming y se procesa por chunks de tamaño fijo ({@code
+     * app.csv.chunk-size}), de modo que la memoria usada no crece con el tamaño del archivo. Cada
+     * chunk terminado se publica como un {@code CsvChunkProcessedEvent}.
+     *
      * @param file Archivo CSV cargado
      * @param procesarInmediatamente Si se debe procesar con IA inmediatamente
      * @return Respuesta con estadísticas del procesamiento
      */
     CsvUploadResponseDTO processCSV(MultipartFile file, Boolean procesarInmediatamente);
 
+    /**
+     * Encola el procesamiento de un archivo CSV y retorna de inmediato.
+     *
+     * <p>El archivo se copia a un temporal y el mismo pipeline de {@link #processCSV} se ejecuta
+     * en el {@code csvJobExecutor}. El progreso se consulta con {@link #getJobStatus(String)}.
+     *
+     * @param file Archivo CSV cargado
+     * @param procesarInmediatamente Si se debe procesar con IA inmediatamente
+     * @return Respuesta con el ID del batch y estado {@code EN_COLA}
+     */
+    CsvUploadResponseDTO submitCSV(MultipartFile file, Boolean procesarInmediatamente);
+
+    /**
+     * Obtiene el estado y progreso por etapa de un trabajo de carga.
+     *
+     * @param batchId ID del batch retornado por {@link #submitCSV}
+     * @return Estado del trabajo
+     * @throws com.senasoft.comunidataapi.exception.ComuniDataException si el trabajo no existe
+     */
+    CsvJobStatusDTO getJobStatus(String batchId);
+
+    /**
+     * Obtiene las métricas de aciertos y fallos de la caché de embeddings.
+     *
+     * @return Métricas acumuladas desde el inicio del nodo
+     */
+    EmbeddingCacheStatsDTO getEmbeddingCacheStats();
+
+    /**
+     * Obtiene las estadísticas de todos los reportes procesados, del snapshot columnar si está
+     * listo o de los rollups.
+     *
+     * @return Conteos por categoría, urgencia, zona, ciudad, fecha, atención y sesgo
+     */
+    ReportStatistics getReportStatistics();
+
+    /**
+     * Obtiene los contadores en vivo de reportes completados, que se actualizan mientras corren
+     * las cargas sin consultar MongoDB.
+     *
+     * @return Conteos por categoría, urgencia, zona y ciudad, y su última reconciliación
+     */
+    LiveReportStatisticsDTO getLiveReportStatistics();
+
     /**
      * Obtiene todos los reportes filtrados y normalizados.
      *
@@ -29,6 +84,28 @@ public interface CsvProcessingOrchestrator {
      */
     List<CitizenReportResponseDTO> getAllProcessedReports();
 
+    /**
+     * Obtiene una página de reportes procesados con paginación por cursor sobre {@code _id}.
+     *
+     * <p>Cada página es una consulta indexada que empieza donde terminó la anterior, por lo que el
+     * costo no depende de cuántas páginas se hayan leído antes.
+     *
+     * @param cursor Cursor retornado por la página anterior (null = primera página)
+     * @param limit Tamaño de la página (null = {@code app.csv.listing.default-page-size})
+     * @return Página de reportes y cursor de la siguiente
+     * @throws com.senasoft.comunidataapi.exception.ComuniDataException si el cursor o el tamaño no
+     *     son válidos
+     */
+    CursorPageDTO<CitizenReportResponseDTO> getProcessedReportsPage(String cursor, Integer limit);
+
+    /**
+     * Escribe todos los reportes procesados como NDJSON (un objeto JSON por línea) a medida que se
+     * leen del cursor de MongoDB, sin acumularlos en memoria.
+     *
+     * @param outputStream Stream de la respuesta HTTP
+     */
+    void writeProcessedReportsAsNdjson(OutputStream outputStream) throws IOException;
+
     /**
      * Exporta reportes filtrados como CSV.
      *
@@ -36,4 +113,13 @@ public interface CsvProcessingOrchestrator {
      * @return Contenido del CSV como bytes
      */
     byte[] exportReportsAsCsv(List<String> reportIds);
+
+    /**
+     * Escribe reportes filtrados como CSV (UTF-8) a medida que se leen del cursor de MongoDB, con
+     * memoria acotada sin importar el tamaño de la exportación.
+     *
+     * @param reportIds IDs de los reportes a exportar (null = todos los válidos)
+     * @param outputStream Stream de destino; no se cierra
+     */
+    void writeReportsAsCsv(List<String> reportIds, OutputStream outputStream) throws IOException;
 }
@@ -1,25 +1,60 @@
 package com.senasoft.comunidataapi.csv.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.senasoft.comunidataapi.chat.enums.ApiError;
 import com.senasoft.comunidataapi.csv.dto.response.CitizenReportResponseDTO;
+import com.senasoft.comunidataapi.csv.dto.response.CsvJobStatusDTO;
 import com.senasoft.comunidataapi.csv.dto.response.CsvUploadResponseDTO;
+import com.senasoft.comunidataapi.csv.dto.response.CursorPageDTO;
+import com.senasoft.comunidataapi.csv.dto.response.EmbeddingCacheStatsDTO;
+import com.senasoft.comunidataapi.csv.dto.response.LiveReportStatisticsDTO;
 import com.senasoft.comunidataapi.csv.entity.CitizenReport;
+import com.senasoft.comunidataapi.csv.enums.JobStatus;
 import com.senasoft.comunidataapi.csv.enums.ProcessingStatus;
+import com.senasoft.comunidataapi.csv.event.CsvChunkProcessedEvent;
 import com.senasoft.comunidataapi.csv.mapper.CitizenReportMapper;
 import com.senasoft.comunidataapi.csv.repository.CitizenReportRepository;
+import com.senasoft.comunidataapi.csv.repository.ReportFilter;
+import com.senasoft.comunidataapi.csv.repository.projection.CitizenReportExportRow;
+import com.senasoft.comunidataapi.csv.repository.projection.CitizenReportSummary;
+import com.senasoft.comunidataapi.csv.service.analytics.LiveReportStatistics;
+import com.senasoft.comunidataapi.csv.service.analytics.ReportStatistics;
+import com.senasoft.comunidataapi.csv.service.job.CsvJobRegistry;
 import com.senasoft.comunidataapi.csv.service.normalization.CsvNormalizationService;
+import com.senasoft.comunidataapi.csv.service.processing.EmbeddingCache;
 import com.senasoft.comunidataapi.csv.service.processing.EmbeddingGenerationService;
 import com.senasoft.comunidataapi.csv.service.processing.GraniteProcessingService;
+import com.senasoft.comunidataapi.csv.service.query.ReportQueryService;
+import com.senasoft.comunidataapi.csv.service.queue.ReportWorkQueue;
+import com.senasoft.comunidataapi.exception.ComuniDataException;
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 /** Implementación del orquestador de procesamiento de CSV. */
@@ -28,148 +63,433 @@ import org.springframework.web.multipart.MultipartFile;
 @RequiredArgsConstructor
 public class CsvProcessingOrchestratorImpl implements CsvProcessingOrchestrator {
 
+    /** Líneas NDJSON escritas entre cada flush de la respuesta. */
+    private static final int NDJSON_FLUSH_INTERVAL = 100;
+
+    /** Buffer de escritura de la exportación: pocas escrituras grandes al stream de respuesta. */
+    private static final int CSV_BUFFER_SIZE = 64 * 1024;
+
+    private static final String CSV_HEADER =
+            "ID,Edad,Ciudad,Comentario,Categoría,Nivel Urgencia,Fecha Reporte,Atención Gobierno,Zona,Sesgo Detectado";
+
     private final CsvNormalizationService normalizationService;
     private final GraniteProcessingService graniteService;
     private final EmbeddingGenerationService embeddingService;
     private final CitizenReportRepository repository;
     private final CitizenReportMapper mapper;
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CsvJobRegistry jobRegistry;
+    private final ReportWorkQueue workQueue;
+    private final EmbeddingCache embeddingCache;
+    private final ReportQueryService reportQueryService;
+    private final LiveReportStatistics liveStatistics;
+    private final ThreadPoolTaskExecutor csvJobExecutor;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.csv.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${app.csv.listing.default-page-size:100}")
+    private int defaultPageSize;
+
+    @Value("${app.csv.listing.max-page-size:1000}")
+    private int maxPageSize;
 
     @Override
-    @Transactional
     public CsvUploadResponseDTO processCSV(MultipartFile file, Boolean procesarInmediatamente) {
         String batchId = UUID.randomUUID().toString();
-        log.info("Starting CSV processing for batch {}", batchId);
+        boolean processWithAi = Boolean.TRUE.equals(procesarInmediatamente);
+
+        try (InputStream inputStream = file.getInputStream()) {
+            return runPipeline(inputStream, batchId, processWithAi);
+        } catch (IOException e) {
+            log.error("Error processing CSV file", e);
+            throw new RuntimeException("Error procesando archivo CSV: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public CsvUploadResponseDTO submitCSV(MultipartFile file, Boolean procesarInmediatamente) {
+        String batchId = UUID.randomUUID().toString();
+        boolean processWithAi = Boolean.TRUE.equals(procesarInmediatamente);
 
+        // El archivo temporal del multipart se elimina al terminar la petición, así que se copia
+        Path tempFile;
         try {
-            // 1. Normalizar CSV
-            List<CitizenReport> normalizedReports =
-                    normalizationService.parseAndNormalizeCsv(file.getInputStream(), batchId);
+            tempFile = Files.createTempFile("csv-" + batchId + "-", ".csv");
+            file.transferTo(tempFile);
+        } catch (IOException e) {
+            log.error("Error storing uploaded CSV for batch {}", batchId, e);
+            throw new RuntimeException("Error guardando archivo CSV: " + e.getMessage());
+        }
 
-            log.info("Normalized {} reports from CSV", normalizedReports.size());
+        jobRegistry.register(batchId, file.getOriginalFilename(), processWithAi);
+        try {
+            csvJobExecutor.execute(() -> runJob(tempFile, batchId, processWithAi));
+        } catch (TaskRejectedException e) {
+            log.warn("CSV job queue is full, rejecting batch {}", batchId);
+            jobRegistry.markFailed(batchId, ApiError.JOB_QUEUE_FULL.getMessage());
+            deleteQuietly(tempFile);
+            throw new ComuniDataException(ApiError.JOB_QUEUE_FULL);
+        }
 
-            // 2. Guardar reportes normalizados en MongoDB
-            List<CitizenReport> savedReports = repository.saveAll(normalizedReports);
+        log.info("CSV job {} queued (file {})", batchId, file.getOriginalFilename());
+        return CsvUploadResponseDTO.builder()
+                .message("CSV recibido, el procesamiento continúa en segundo plano")
+                .totalRecords(0)
+                .normalizedRecords(0)
+                .recordsWithErros(0)
+                .batchId(batchId)
+                .processingStatus(JobStatus.EN_COLA.name())
+                .build();
+    }
 
-            int registrosConError = 0;
+    @Override
+    public CsvJobStatusDTO getJobStatus(String batchId) {
+        return jobRegistry
+                .find(batchId)
+                .orElseThrow(() -> new ComuniDataException(ApiError.JOB_NOT_FOUND));
+    }
 
-            // 3. Procesar con IA si se solicita
-            if (Boolean.TRUE.equals(procesarInmediatamente)) {
-                log.info("Processing reports with IBM Granite...");
+    @Override
+    public EmbeddingCacheStatsDTO getEmbeddingCacheStats() {
+        return embeddingCache.getStats();
+    }
 
-                // Procesar con Granite
-                List<CitizenReport> processedReports =
-                        graniteService.processReportsInBatches(savedReports, batchId);
+    @Override
+    public ReportStatistics getReportStatistics() {
+        return reportQueryService.statistics(ReportFilter.builder().build());
+    }
 
-                // Filtrar reportes válidos (sin errores)
-                List<CitizenReport> validReports =
-                        processedReports.stream()
-                                .filter(
-                                        r ->
-                                                !ProcessingStatus.ERROR.equals(
-                                                        r.getProcessingStatus()))
-                                .collect(Collectors.toList());
+    @Override
+    public LiveReportStatisticsDTO getLiveReportStatistics() {
+        return liveStatistics.getSnapshot();
+    }
 
-                registrosConError = processedReports.size() - validReports.size();
+    @Override
+    public List<CitizenReportResponseDTO> getAllProcessedReports() {
+        List<CitizenReportSummary> reports =
+                repository.findSummariesByProcessingStatus(ProcessingStatus.COMPLETADO);
+        return reports.stream().map(mapper::toResponseDTO).collect(Collectors.toList());
+    }
 
-                // Generar embeddings para reportes válidos
-                if (!validReports.isEmpty()) {
-                    log.info("Generating embeddings for {} valid reports", validReports.size());
-                    List<CitizenReport> reportsWithEmbeddings =
-                            embeddingService.generateEmbeddings(validReports);
+    @Override
+    public CursorPageDTO<CitizenReportResponseDTO> getProcessedReportsPage(
+            String cursor, Integer limit) {
+        int pageSize = limit != null ? limit : defaultPageSize;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new ComuniDataException(ApiError.INVALID_CURSOR);
+        }
 
-                    // Actualizar reportes en DB
-                    repository.saveAll(reportsWithEmbeddings);
-                }
+        // Se pide un reporte extra para saber si hay página siguiente sin contar la colección
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        List<CitizenReportSummary> reports =
+                cursor == null || cursor.isBlank()
+                        ? repository.findSummariesByProcessingStatusOrderByIdAsc(
+                                ProcessingStatus.COMPLETADO, fetchLimit)
+                        : repository.findSummariesByProcessingStatusAndIdGreaterThanOrderByIdAsc(
+                                ProcessingStatus.COMPLETADO, decodeCursor(cursor), fetchLimit);
 
-                // Guardar reportes con error también
-                if (registrosConError > 0) {
-                    List<CitizenReport> errorReports =
-                            processedReports.stream()
-                                    .filter(
-                                            r ->
-                                                    ProcessingStatus.ERROR.equals(
-                                                            r.getProcessingStatus()))
-                                    .collect(Collectors.toList());
-                    repository.saveAll(errorReports);
+        boolean hasMore = reports.size() > pageSize;
+        List<CitizenReportSummary> page = hasMore ? reports.subList(0, pageSize) : reports;
+        return CursorPageDTO.<CitizenReportResponseDTO>builder()
+                .items(page.stream().map(mapper::toResponseDTO).toList())
+                .nextCursor(hasMore ? encodeCursor(page.get(page.size() - 1).getId()) : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    @Override
+    public void writeProcessedReportsAsNdjson(OutputStream outputStream) throws IOException {
+        int written = 0;
+        try (Stream<CitizenReportSummary> reports =
+                repository.streamSummariesByProcessingStatusOrderByIdAsc(
+                        ProcessingStatus.COMPLETADO)) {
+            Iterator<CitizenReportSummary> iterator = reports.iterator();
+            while (iterator.hasNext()) {
+                CitizenReportResponseDTO dto = mapper.toResponseDTO(iterator.next());
+                outputStream.write(objectMapper.writeValueAsBytes(dto));
+                outputStream.write('\n');
+                if (++written % NDJSON_FLUSH_INTERVAL == 0) {
+                    outputStream.flush();
                 }
             }
-
-            return CsvUploadResponseDTO.builder()
-                    .message("CSV procesado exitosamente")
-                    .totalRecords(normalizedReports.size())
-                    .normalizedRecords(normalizedReports.size())
-                    .recordsWithErros(registrosConError)
-                    .batchId(batchId)
-                    .processingStatus(
-                            Boolean.TRUE.equals(procesarInmediatamente)
-                                    ? "PROCESAMIENTO_COMPLETO"
-                                    : "NORMALIZADO")
-                    .build();
-
-        } catch (IOException e) {
-            log.error("Error processing CSV file", e);
-            throw new RuntimeException("Error procesando archivo CSV: " + e.getMessage());
         }
+        outputStream.flush();
+        log.info("Streamed {} processed reports as NDJSON", written);
     }
 
     @Override
-    public List<CitizenReportResponseDTO> getAllProcessedReports() {
-        List<CitizenReport> reports = repository.findAllCompletedReports();
-        return reports.stream().map(mapper::toResponseDTO).collect(Collectors.toList());
+    public byte[] exportReportsAsCsv(List<String> reportIds) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            writeReportsAsCsv(reportIds, outputStream);
+        } catch (IOException e) {
+            throw new RuntimeException("Error generando CSV: " + e.getMessage(), e);
+        }
+        return outputStream.toByteArray();
     }
 
     @Override
-    public byte[] exportReportsAsCsv(List<String> reportIds) {
-        List<CitizenReport> reports;
+    public void writeReportsAsCsv(List<String> reportIds, OutputStream outputStream)
+            throws IOException {
+        // El writer no se cierra: el stream de la respuesta lo cierra el contenedor
+        BufferedWriter writer =
+                new BufferedWriter(
+                        new OutputStreamWriter(outputStream, StandardCharsets.UTF_8),
+                        CSV_BUFFER_SIZE);
+        int written = 0;
+
+        try (Stream<CitizenReportExportRow> rows =
+                reportIds == null || reportIds.isEmpty()
+                        ? repository.streamExportRowsByProcessingStatusAndBiasDetected(
+                                ProcessingStatus.COMPLETADO, false)
+                        : repository.streamExportRowsByIdIn(reportIds)) {
+            writer.write(CSV_HEADER);
+            writer.newLine();
 
-        if (reportIds == null || reportIds.isEmpty()) {
-            reports = repository.findAllValidReports();
-        } else {
-            reports = repository.findAllById(reportIds);
+            Iterator<CitizenReportExportRow> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writeCsvRow(writer, iterator.next());
+                written++;
+            }
         }
 
-        return generateCsvBytes(reports);
+        writer.flush();
+        log.info("Exported {} reports as CSV", written);
     }
 
     // ==================== Helper Methods ====================
 
-    private byte[] generateCsvBytes(List<CitizenReport> reports) {
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    /** El cursor es el último {@code _id} entregado, codificado para que el cliente no lo arme. */
+    private static String encodeCursor(String lastId) {
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString(lastId.getBytes(StandardCharsets.UTF_8));
+    }
 
-        try (PrintWriter writer = new PrintWriter(outputStream)) {
-            // Header
-            writer.println(
-                    "ID,Edad,Ciudad,Comentario,Categoría,Nivel Urgencia,Fecha Reporte,Atención Gobierno,Zona,Sesgo Detectado");
-
-            // Rows
-            for (CitizenReport report : reports) {
-                writer.printf(
-                        "%s,%s,%s,\"%s\",%s,%s,%s,%s,%s,%s%n",
-                        report.getId(),
-                        report.getAge() != null ? report.getAge() : "",
-                        report.getCity() != null ? report.getCity() : "",
-                        report.getComment() != null
-                                ? report.getComment().replace("\"", "\"\"")
-                                : "",
-                        report.getCategoryProblem() != null
-                                ? report.getCategoryProblem().getDisplayName()
-                                : "",
-                        report.getUrgencyLevel() != null
-                                ? report.getUrgencyLevel().getDisplayName()
-                                : "",
-                        report.getReportDate() != null
-                                ? report.getReportDate().format(DateTimeFormatter.ISO_LOCAL_DATE)
-                                : "",
-                        report.getGovernmentPreAttention() != null
-                                ? report.getGovernmentPreAttention()
-                                : "",
-                        report.getArea() != null ? report.getArea().getDisplayName() : "",
-                        report.getBiasDetected() != null ? report.getBiasDetected() : "");
+    private static String decodeCursor(String cursor) {
+        try {
+            byte[] decoded = Base64.getUrlDecoder().decode(cursor);
+            String lastId = new String(decoded, StandardCharsets.UTF_8);
+            if (ObjectId.isValid(lastId)) {
+                return lastId;
             }
+        } catch (IllegalArgumentException e) {
+            // Base64 inválido
+        }
+        throw new ComuniDataException(ApiError.INVALID_CURSOR);
+    }
 
-            writer.flush();
+    /** Ejecuta un trabajo encolado en el {@code csvJobExecutor} y actualiza su estado. */
+    private void runJob(Path tempFile, String batchId, boolean processWithAi) {
+        jobRegistry.markStarted(batchId);
+        try (InputStream inputStream = Files.newInputStream(tempFile)) {
+            CsvUploadResponseDTO result = runPipeline(inputStream, batchId, processWithAi);
+            jobRegistry.markCompleted(batchId);
+            log.info(
+                    "CSV job {} completed: {} records, {} errors",
+                    batchId,
+                    result.getTotalRecords(),
+                    result.getRecordsWithErros());
+        } catch (Exception e) {
+            log.error("CSV job {} failed", batchId, e);
+            jobRegistry.markFailed(batchId, e.getMessage());
+        } finally {
+            deleteQuietly(tempFile);
         }
+    }
 
-        return outputStream.toByteArray();
+    /** Pipeline completo: normaliza el CSV en chunks y procesa cada uno apenas está listo. */
+    private CsvUploadResponseDTO runPipeline(
+            InputStream inputStream, String batchId, boolean processWithAi) {
+        log.info("Starting CSV processing for batch {} (chunk size {})", batchId, chunkSize);
+
+        AtomicInteger chunkIndex = new AtomicInteger();
+        AtomicInteger registrosConError = new AtomicInteger();
+
+        // 1. Normalizar el CSV en chunks y procesar cada uno apenas está listo
+        int totalRecords =
+                normalizationService.streamAndNormalizeCsv(
+                        inputStream,
+                        batchId,
+                        chunkSize,
+                        chunk ->
+                                registrosConError.addAndGet(
+                                        processChunk(
+                                                chunk,
+                                                batchId,
+                                                chunkIndex.getAndIncrement(),
+                                                processWithAi)));
+
+        log.info("Normalized {} reports from CSV in {} chunks", totalRecords, chunkIndex.get());
+
+        return CsvUploadResponseDTO.builder()
+                .message("CSV procesado exitosamente")
+                .totalRecords(totalRecords)
+                .normalizedRecords(totalRecords)
+                .recordsWithErros(registrosConError.get())
+                .batchId(batchId)
+                .processingStatus(processWithAi ? "PROCESAMIENTO_COMPLETO" : "NORMALIZADO")
+                .build();
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete temporary file {}", file, e);
+        }
+    }
+
+    /**
+     * Procesa un chunk y, si falla, libera sus reclamos para que el worker de la cola lo retome
+     * (la renovación de reclamos de este nodo los mantendría tomados mientras el nodo viva).
+     *
+     * @return Cantidad de reportes del chunk que terminaron con error
+     */
+    private int processChunk(
+            List<CitizenReport> chunk, String batchId, int chunkIndex, boolean processWithAi) {
+        try {
+            return saveAndProcessChunk(chunk, batchId, chunkIndex, processWithAi);
+        } catch (RuntimeException e) {
+            if (processWithAi) {
+                workQueue.release(chunk);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Procesa un chunk normalizado: lo inserta en MongoDB con un bulk insert no ordenado, lo pasa
+     * opcionalmente por IBM Granite y OpenAI Embeddings, y publica el evento de progreso.
+     *
+     * @return Cantidad de reportes del chunk que terminaron con error
+     */
+    private int saveAndProcessChunk(
+            List<CitizenReport> chunk, String batchId, int chunkIndex, boolean processWithAi) {
+        // 2. Guardar reportes normalizados en MongoDB. Los IDs se asignan antes del insert porque
+        // el bulk insert no los propaga a las entidades y Granite los necesita en el prompt.
+        chunk.forEach(report -> report.setId(new ObjectId().toHexString()));
+        if (processWithAi) {
+            // Reclamados por este nodo: si el proceso cae, el reclamo vence y el worker los retoma
+            workQueue.assignLease(chunk);
+        }
+        mongoTemplate
+                .bulkOps(BulkOperations.BulkMode.UNORDERED, CitizenReport.class)
+                .insert(chunk)
+                .execute();
+
+        int validados = 0;
+        int conEmbedding = 0;
+        int registrosConError = 0;
+
+        // 3. Procesar con IA si se solicita
+        if (processWithAi) {
+            // Procesar con Granite
+            List<CitizenReport> processedReports =
+                    graniteService.processReportsInBatches(chunk, batchId);
+
+            // Filtrar reportes validados. Los que siguen en PENDIENTE (Granite sobrecargado) no son
+            // errores: la cola de trabajo los retoma
+            List<CitizenReport> validReports =
+                    processedReports.stream()
+                            .filter(
+                                    r ->
+                                            ProcessingStatus.PROCESANDO_IA.equals(
+                                                    r.getProcessingStatus()))
+                            .collect(Collectors.toList());
+
+            validados = validReports.size();
+            registrosConError =
+                    (int)
+                            processedReports.stream()
+                                    .filter(
+                                            r ->
+                                                    ProcessingStatus.ERROR.equals(
+                                                            r.getProcessingStatus()))
+                                    .count();
+
+            // Generar embeddings para reportes válidos
+            if (!validReports.isEmpty()) {
+                List<CitizenReport> reportsWithEmbeddings =
+                        embeddingService.generateEmbeddings(validReports);
+                conEmbedding =
+                        (int)
+                                reportsWithEmbeddings.stream()
+                                        .filter(
+                                                r ->
+                                                        ProcessingStatus.COMPLETADO.equals(
+                                                                r.getProcessingStatus()))
+                                        .count();
+                // Los que quedaron en PROCESANDO_IA (proveedor sobrecargado) los retoma la cola
+                registrosConError +=
+                        (int)
+                                reportsWithEmbeddings.stream()
+                                        .filter(
+                                                r ->
+                                                        ProcessingStatus.ERROR.equals(
+                                                                r.getProcessingStatus()))
+                                        .count();
+            }
+
+            // Actualizar en DB los reportes procesados (válidos y con error) y liberar reclamos
+            workQueue.complete(ProcessingStatus.PENDIENTE, processedReports);
+        }
+
+        log.debug(
+                "Chunk {} of batch {} processed: {} normalized, {} validated, {} embedded, {} errors",
+                chunkIndex,
+                batchId,
+                chunk.size(),
+                validados,
+                conEmbedding,
+                registrosConError);
+
+        eventPublisher.publishEvent(
+                new CsvChunkProcessedEvent(
+                        batchId,
+                        chunkIndex,
+                        chunk.size(),
+                        validados,
+                        conEmbedding,
+                        registrosConError));
+
+        return registrosConError;
+    }
+
+    private void writeCsvRow(BufferedWriter writer, CitizenReportExportRow report)
+            throws IOException {
+        writer.write(report.getId());
+        writer.write(',');
+        writer.write(report.getAge() != null ? report.getAge().toString() : "");
+        writer.write(',');
+        writer.write(report.getCity() != null ? report.getCity() : "");
+        writer.write(",\"");
+        writer.write(report.getComment() != null ? report.getComment().replace("\"", "\"\"") : "");
+        writer.write("\",");
+        writer.write(
+                report.getCategoryProblem() != null
+                        ? report.getCategoryProblem().getDisplayName()
+                        : "");
+        writer.write(',');
+        writer.write(
+                report.getUrgencyLevel() != null ? report.getUrgencyLevel().getDisplayName() : "");
+        writer.write(',');
+        writer.write(
+                report.getReportDate() != null
+                        ? report.getReportDate().format(DateTimeFormatter.ISO_LOCAL_DATE)
+                        : "");
+        writer.write(',');
+        writer.write(
+                report.getGovernmentPreAttention() != null
+                        ? report.getGovernmentPreAttention().toString()
+                        : "");
+        writer.write(',');
+        writer.write(report.getArea() != null ? report.getArea().getDisplayName() : "");
+        writer.write(',');
+        writer.write(report.getBiasDetected() != null ? report.getBiasDetected().toString() : "");
+        writer.newLine();
     }
 }
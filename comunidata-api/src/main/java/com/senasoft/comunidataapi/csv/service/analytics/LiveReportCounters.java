@@ -0,0 +1,198 @@
+package com.senasoft.comunidataapi.csv.service.analytics;
+
+import com.senasoft.comunidataapi.csv.enums.ProblemCategory;
+import com.senasoft.comunidataapi.csv.enums.UrgencyLevel;
+import com.senasoft.comunidataapi.csv.enums.Zone;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores en memoria de reportes completados por categoría, urgencia, zona y ciudad.
+ *
+ * <p>Cada contador es un {@link LongAdder}, que reparte los incrementos concurrentes en celdas
+ * separadas en lugar de competir por un solo valor. Los contadores de enums son arreglos indexados
+ * por {@code ordinal()}; los de ciudad, un {@link ConcurrentHashMap}. Leer un contador es O(1).
+ */
+public class LiveReportCounters {
+
+    private final LongAdder total = new LongAdder();
+    private final LongAdder[] byCategory = adders(ProblemCategory.values().length);
+    private final LongAdder[] byUrgency = adders(UrgencyLevel.values().length);
+    private final LongAdder[] byZone = adders(Zone.values().length);
+    private final Map<String, LongAdder> byCity = new ConcurrentHashMap<>();
+
+    /** Suma un reporte completado; los campos nulos no cuentan en su dimensión. */
+    public void increment(ProblemCategory category, UrgencyLevel urgency, Zone zone, String city) {
+        total.increment();
+        if (category != null) {
+            byCategory[category.ordinal()].increment();
+        }
+        if (urgency != null) {
+            byUrgency[urgency.ordinal()].increment();
+        }
+        if (zone != null) {
+            byZone[zone.ordinal()].increment();
+        }
+        if (city != null) {
+            byCity.computeIfAbsent(city, key -> new LongAdder()).increment();
+        }
+    }
+
+    public long total() {
+        return total.sum();
+    }
+
+    public long count(ProblemCategory category) {
+        return byCategory[category.ordinal()].sum();
+    }
+
+    public long count(UrgencyLevel urgency) {
+        return byUrgency[urgency.ordinal()].sum();
+    }
+
+    public long count(Zone zone) {
+        return byZone[zone.ordinal()].sum();
+    }
+
+    public long count(String city) {
+        LongAdder adder = byCity.get(city);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    public Map<ProblemCategory, Long> byCategory() {
+        return snapshot(ProblemCategory.class, byCategory);
+    }
+
+    public Map<UrgencyLevel, Long> byUrgency() {
+        return snapshot(UrgencyLevel.class, byUrgency);
+    }
+
+    public Map<Zone, Long> byZone() {
+        return snapshot(Zone.class, byZone);
+    }
+
+    /** Ciudades con al menos un reporte, en orden alfabético. */
+    public Map<String, Long> byCity() {
+        Map<String, Long> counts = new TreeMap<>();
+        byCity.forEach(
+                (city, adder) -> {
+                    long count = adder.sum();
+                    if (count > 0) {
+                        counts.put(city, count);
+                    }
+                });
+        return counts;
+    }
+
+    /**
+     * Valores actuales de todos los contadores, para reconciliar contra una agregación que empieza
+     * después.
+     */
+    public Checkpoint checkpoint() {
+        Map<String, Long> cities = new HashMap<>();
+        byCity.forEach((city, adder) -> cities.put(city, adder.sum()));
+        return new Checkpoint(
+                total.sum(), sums(byCategory), sums(byUrgency), sums(byZone), cities);
+    }
+
+    /**
+     * Ajusta cada contador a la agregación, conservando los incrementos recibidos desde el {@code
+     * since}. A cada contador se le suma {@code esperado - valor en since}, de modo que los
+     * incrementos que lleguen durante la agregación o durante el ajuste no se pierden.
+     *
+     * <p>El {@code since} se debe tomar antes de lanzar la agregación. Un reporte completado
+     * mientras corre puede quedar contado dos veces (en la agregación y en el incremento); la
+     * siguiente reconciliación lo corrige.
+     *
+     * @param since Valores de los contadores antes de lanzar la agregación
+     * @param expected Conteos calculados con la agregación, con todas las ciudades
+     * @return Suma de las diferencias absolutas que se corrigieron
+     */
+    public long reconcile(Checkpoint since, ReportStatistics expected) {
+        long drift = adjust(total, since.total(), expected.total());
+        for (ProblemCategory category : ProblemCategory.values()) {
+            int index = category.ordinal();
+            drift +=
+                    adjust(
+                            byCategory[index],
+                            since.byCategory()[index],
+                            expected.byCategory().getOrDefault(category, 0L));
+        }
+        for (UrgencyLevel urgency : UrgencyLevel.values()) {
+            int index = urgency.ordinal();
+            drift +=
+                    adjust(
+                            byUrgency[index],
+                            since.byUrgency()[index],
+                            expected.byUrgency().getOrDefault(urgency, 0L));
+        }
+        for (Zone zone : Zone.values()) {
+            int index = zone.ordinal();
+            drift +=
+                    adjust(
+                            byZone[index],
+                            since.byZone()[index],
+                            expected.byZone().getOrDefault(zone, 0L));
+        }
+        for (Map.Entry<String, Long> entry : since.byCity().entrySet()) {
+            if (!expected.topCities().containsKey(entry.getKey())) {
+                drift += adjust(byCity.get(entry.getKey()), entry.getValue(), 0);
+            }
+        }
+        for (Map.Entry<String, Long> entry : expected.topCities().entrySet()) {
+            LongAdder adder = byCity.computeIfAbsent(entry.getKey(), key -> new LongAdder());
+            long before = since.byCity().getOrDefault(entry.getKey(), 0L);
+            drift += adjust(adder, before, entry.getValue());
+        }
+        return drift;
+    }
+
+    /** Valores de los contadores en un momento dado; ver {@link #checkpoint()}. */
+    public record Checkpoint(
+            long total,
+            long[] byCategory,
+            long[] byUrgency,
+            long[] byZone,
+            Map<String, Long> byCity) {}
+
+    // ==================== Helper Methods ====================
+
+    private static long adjust(LongAdder adder, long since, long expected) {
+        long difference = expected - since;
+        if (difference != 0) {
+            adder.add(difference);
+        }
+        return Math.abs(difference);
+    }
+
+    private static long[] sums(LongAdder[] adders) {
+        long[] sums = new long[adders.length];
+        for (int i = 0; i < adders.length; i++) {
+            sums[i] = adders[i].sum();
+        }
+        return sums;
+    }
+
+    private static LongAdder[] adders(int size) {
+        LongAdder[] adders = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static <E extends Enum<E>> Map<E, Long> snapshot(Class<E> type, LongAdder[] adders) {
+        Map<E, Long> counts = new EnumMap<>(type);
+        for (E value : type.getEnumConstants()) {
+            long count = adders[value.ordinal()].sum();
+            if (count > 0) {
+                counts.put(value, count);
+            }
+        }
+        return counts;
+    }
+}
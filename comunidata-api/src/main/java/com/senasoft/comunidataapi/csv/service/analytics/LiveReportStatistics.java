@@ -0,0 +1,302 @@
+package com.senasoft.comunidataapi.csv.service.analytics;
+
+import static com.senasoft.comunidataapi.csv.util.EnumValues.parse;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.senasoft.comunidataapi.csv.dto.response.LiveReportStatisticsDTO;
+import com.senasoft.comunidataapi.csv.enums.ProblemCategory;
+import com.senasoft.comunidataapi.csv.enums.ProcessingStatus;
+import com.senasoft.comunidataapi.csv.enums.UrgencyLevel;
+import com.senasoft.comunidataapi.csv.enums.Zone;
+import com.senasoft.comunidataapi.csv.event.ReportsCompletedEvent;
+import com.senasoft.comunidataapi.csv.repository.ReportFilter;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Estadísticas en vivo de reportes completados, para ver el avance mientras corren las cargas.
+ *
+ * <p>Los {@link LiveReportCounters} se alimentan de un change stream sobre {@code citizen_reports},
+ * que ve los reportes completados por cualquier nodo. Si el servidor no soporta change streams
+ * (MongoDB standalone, como el de desarrollo o un Mongo embebido en pruebas) o {@code
+ * app.reports.live.change-stream} está desactivado, se alimentan de los {@link
+ * ReportsCompletedEvent} de este nodo.
+ *
+ * <p>Al iniciar y cada {@code app.reports.live.reconcile-interval-ms}, los contadores se ajustan a
+ * una agregación sobre {@code citizen_reports} (ver {@link
+ * ReportAnalyticsService#summarizeReports}), lo que corrige eventos perdidos, reinicios y los
+ * reportes de otros nodos en el modo de eventos.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LiveReportStatistics {
+
+    /** Origen de los incrementos de los contadores. */
+    public enum Source {
+        CHANGE_STREAM,
+        EVENTS
+    }
+
+    private static final String REPORTS_COLLECTION = "citizen_reports";
+
+    /** El servidor no es replica set ni cluster: no hay change streams. */
+    private static final int CHANGE_STREAM_NOT_SUPPORTED = 40573;
+
+    /** El resume token ya salió del oplog. */
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    private final MongoTemplate mongoTemplate;
+    private final ReportAnalyticsService analyticsService;
+
+    private final LiveReportCounters counters = new LiveReportCounters();
+    private final AtomicReference<Source> source = new AtomicReference<>(Source.EVENTS);
+
+    private volatile boolean running;
+    private volatile BsonDocument resumeToken;
+    private volatile MongoChangeStreamCursor<?> cursor;
+    private volatile LocalDateTime lastReconciledAt;
+    private volatile long lastDrift;
+    private Thread watcher;
+
+    @Value("${app.reports.live.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.reports.live.change-stream:true}")
+    private boolean useChangeStream;
+
+    @Value("${app.reports.live.retry-delay-ms:5000}")
+    private long retryDelayMs;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+
+        running = true;
+        reconcileQuietly();
+        if (useChangeStream) {
+            watcher = new Thread(this::watchLoop, "live-report-statistics");
+            watcher.setDaemon(true);
+            watcher.start();
+        } else {
+            log.info("Live report statistics fed by in-process events");
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        MongoChangeStreamCursor<?> current = cursor;
+        if (current != null) {
+            current.close();
+        }
+        if (watcher != null) {
+            watcher.interrupt();
+        }
+    }
+
+    @EventListener
+    public void onReportsCompleted(ReportsCompletedEvent event) {
+        if (!running || source.get() != Source.EVENTS) {
+            return;
+        }
+        event.reports()
+                .forEach(
+                        report ->
+                                counters.increment(
+                                        report.getCategoryProblem(),
+                                        report.getUrgencyLevel(),
+                                        report.getArea(),
+                                        report.getCity()));
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.reports.live.reconcile-interval-ms:300000}",
+            initialDelayString = "${app.reports.live.reconcile-interval-ms:300000}")
+    public void scheduledReconcile() {
+        if (running) {
+            reconcileQuietly();
+        }
+    }
+
+    /**
+     * Ajusta los contadores a una agregación sobre {@code citizen_reports} de todos los reportes
+     * completados, con todas las ciudades. No usa los rollups, que pueden ir atrasados. Los
+     * incrementos que lleguen mientras corre la agregación se conservan.
+     *
+     * @return Diferencia absoluta corregida
+     */
+    public long reconcile() {
+        LiveReportCounters.Checkpoint since = counters.checkpoint();
+        ReportStatistics expected =
+                analyticsService.summarizeReports(ReportFilter.builder().build(), 0);
+        long drift = counters.reconcile(since, expected);
+        lastDrift = drift;
+        lastReconciledAt = LocalDateTime.now();
+        if (drift > 0) {
+            log.info("Live report statistics reconciled, corrected a drift of {}", drift);
+        }
+        return drift;
+    }
+
+    /** Contadores individuales, para lecturas O(1) de una categoría, urgencia, zona o ciudad. */
+    public LiveReportCounters getCounters() {
+        return counters;
+    }
+
+    public LiveReportStatisticsDTO getSnapshot() {
+        return LiveReportStatisticsDTO.builder()
+                .total(counters.total())
+                .byCategory(counters.byCategory())
+                .byUrgency(counters.byUrgency())
+                .byZone(counters.byZone())
+                .byCity(counters.byCity())
+                .source(source.get().name())
+                .lastReconciledAt(lastReconciledAt)
+                .lastReconciliationDrift(lastDrift)
+                .build();
+    }
+
+    // ==================== Change Stream ====================
+
+    private void watchLoop() {
+        while (running) {
+            try {
+                watch();
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == CHANGE_STREAM_NOT_SUPPORTED) {
+                    log.info(
+                            "Change streams not available ({}), live report statistics fed by"
+                                    + " in-process events",
+                            e.getErrorMessage());
+                    source.set(Source.EVENTS);
+                    return;
+                }
+                if (e.getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+                    // Se retoma desde ahora; la reconciliación cubre lo que no se vio
+                    resumeToken = null;
+                    reconcileQuietly();
+                }
+                waitBeforeRetry(e);
+            } catch (MongoException e) {
+                waitBeforeRetry(e);
+            }
+        }
+    }
+
+    /**
+     * Lee el change stream hasta que se detenga el componente. Solo llegan inserciones y
+     * reemplazos (el {@code replaceOne} de la cola de trabajo) de reportes en COMPLETADO, con los
+     * cuatro campos que se cuentan.
+     */
+    private void watch() {
+        ChangeStreamIterable<Document> stream =
+                mongoTemplate
+                        .getCollection(REPORTS_COLLECTION)
+                        .watch(changeStreamPipeline())
+                        .maxAwaitTime(1, TimeUnit.SECONDS);
+        BsonDocument token = resumeToken;
+        if (token != null) {
+            stream = stream.resumeAfter(token);
+        }
+
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> opened = stream.cursor()) {
+            cursor = opened;
+            if (source.getAndSet(Source.CHANGE_STREAM) != Source.CHANGE_STREAM) {
+                log.info("Live report statistics fed by the citizen_reports change stream");
+            }
+
+            while (running) {
+                ChangeStreamDocument<Document> change = opened.tryNext();
+                if (change != null) {
+                    apply(change.getFullDocument());
+                }
+                // También avanza sin cambios, para no retomar desde un token viejo
+                if (opened.getResumeToken() != null) {
+                    resumeToken = opened.getResumeToken();
+                }
+            }
+        } finally {
+            cursor = null;
+        }
+    }
+
+    private static List<Bson> changeStreamPipeline() {
+        return List.of(
+                Aggregates.match(
+                        Filters.and(
+                                Filters.in("operationType", "insert", "replace"),
+                                Filters.eq(
+                                        "fullDocument.processingStatus",
+                                        ProcessingStatus.COMPLETADO.name()))),
+                Aggregates.project(
+                        Projections.include(
+                                "operationType",
+                                "ns",
+                                "documentKey",
+                                "fullDocument.categoryProblem",
+                                "fullDocument.urgencyLevel",
+                                "fullDocument.area",
+                                "fullDocument.city")));
+    }
+
+    private void apply(Document report) {
+        if (report == null) {
+            return;
+        }
+        counters.increment(
+                parse(ProblemCategory.class, report.getString("categoryProblem")),
+                parse(UrgencyLevel.class, report.getString("urgencyLevel")),
+                parse(Zone.class, report.getString("area")),
+                report.getString("city"));
+    }
+
+    // ==================== Helper Methods ====================
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            log.warn("Live report statistics reconciliation failed: {}", e.getMessage());
+        }
+    }
+
+    private void waitBeforeRetry(MongoException e) {
+        if (!running) {
+            return;
+        }
+        log.warn(
+                "Live report statistics change stream failed, retrying in {} ms: {}",
+                retryDelayMs,
+                e.getMessage());
+        try {
+            Thread.sleep(retryDelayMs);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.senasoft.comunidataapi.csv.service.analytics;
+
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BsonField;
+import com.mongodb.client.model.Facet;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Sorts;
+import com.senasoft.comunidataapi.csv.entity.CitizenReport;
+import com.senasoft.comunidataapi.csv.enums.ProblemCategory;
+import com.senasoft.comunidataapi.csv.enums.UrgencyLevel;
+import com.senasoft.comunidataapi.csv.enums.Zone;
+import com.senasoft.comunidataapi.csv.repository.ReportFilter;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+/**
+ * Estadísticas de reportes ciudadanos calculadas en MongoDB.
+ *
+ * <p>Una sola agregación ({@code $match} + {@code $facet}) cuenta por categoría, urgencia, zona,
+ * ciudad (top N), fecha, atención del gobierno y sesgo. El servidor solo retorna un documento con
+ * los grupos, en lugar de enviar todos los reportes para agruparlos en memoria.
+ *
+ * <p>Los filtros que los rollups pueden responder (ver {@link
+ * ReportRollupService#toRollupFilter}) se agregan sobre {@code report_rollups}, sumando los conteos
+ * de cada fila, en lugar de recorrer {@code citizen_reports}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReportAnalyticsService {
+
+    private static final String COUNT = "count";
+    private static final String TOTAL = "total";
+    private static final String BY_CATEGORY = "byCategory";
+    private static final String BY_URGENCY = "byUrgency";
+    private static final String BY_ZONE = "byZone";
+    private static final String TOP_CITIES = "topCities";
+    private static final String PER_DAY = "perDay";
+    private static final String FLAGS = "flags";
+    private static final String WITH_ATTENTION = "withAttention";
+    private static final String WITHOUT_ATTENTION = "withoutAttention";
+    private static final String WITH_BIAS = "withBias";
+
+    /** Colección y rutas de los campos sobre los que se agrega. */
+    private record Source(
+            String collection,
+            String category,
+            String urgency,
+            String zone,
+            String city,
+            String reportDate,
+            String attention,
+            String bias,
+            Object count) {}
+
+    private static final Source REPORTS =
+            new Source(
+                    "citizen_reports",
+                    "categoryProblem",
+                    "urgencyLevel",
+                    "area",
+                    "city",
+                    "reportDate",
+                    "governmentPreAttention",
+                    "biasDetected",
+                    1);
+
+    private static final Source ROLLUPS =
+            new Source(
+                    ReportRollupService.COLLECTION,
+                    ReportRollupService.keyPath(ReportRollupService.CATEGORY),
+                    ReportRollupService.keyPath(ReportRollupService.URGENCY),
+                    ReportRollupService.keyPath(ReportRollupService.ZONE),
+                    ReportRollupService.keyPath(ReportRollupService.CITY),
+                    ReportRollupService.keyPath(ReportRollupService.DATE),
+                    ReportRollupService.keyPath(ReportRollupService.ATTENTION),
+                    ReportRollupService.keyPath(ReportRollupService.BIAS),
+                    "$" + ReportRollupService.COUNT);
+
+    private final MongoTemplate mongoTemplate;
+    private final ReportRollupService rollupService;
+
+    @Value("${app.reports.analytics.top-cities:10}")
+    private int topCities;
+
+    /** Estadísticas de los reportes que cumplen el filtro, desde los rollups si es posible. */
+    public ReportStatistics summarize(ReportFilter filter) {
+        return summarize(filter, topCities);
+    }
+
+    /**
+     * Igual que {@link #summarize(ReportFilter)}, con otro límite de ciudades.
+     *
+     * @param cityLimit Máximo de ciudades en {@code topCities}; 0 = todas
+     */
+    public ReportStatistics summarize(ReportFilter filter, int cityLimit) {
+        return rollupService
+                .toRollupFilter(filter)
+                .map(rollupFilter -> aggregate(ROLLUPS, rollupFilter, cityLimit))
+                .orElseGet(() -> aggregate(REPORTS, mapFilter(filter.toQuery()), cityLimit));
+    }
+
+    /**
+     * Igual que {@link #summarize(ReportFilter, int)}, pero siempre sobre {@code citizen_reports}.
+     * Para comparar contra los datos de origen, sin el desfase que puedan tener los rollups.
+     */
+    public ReportStatistics summarizeReports(ReportFilter filter, int cityLimit) {
+        return aggregate(REPORTS, mapFilter(filter.toQuery()), cityLimit);
+    }
+
+    // ==================== Helper Methods ====================
+
+    private ReportStatistics aggregate(Source source, Bson filter, int cityLimit) {
+        List<Bson> cities =
+                new ArrayList<>(
+                        List.of(
+                                Aggregates.match(Filters.ne(source.city(), null)),
+                                countBy(source.city(), source),
+                                Aggregates.sort(
+                                        Sorts.orderBy(
+                                                Sorts.descending(COUNT), Sorts.ascending("_id")))));
+        if (cityLimit > 0) {
+            cities.add(Aggregates.limit(cityLimit));
+        }
+
+        List<Bson> pipeline =
+                List.of(
+                        Aggregates.match(filter),
+                        Aggregates.facet(
+                                new Facet(
+                                        TOTAL,
+                                        Aggregates.group(
+                                                null, Accumulators.sum(COUNT, source.count()))),
+                                new Facet(BY_CATEGORY, countBy(source.category(), source)),
+                                new Facet(BY_URGENCY, countBy(source.urgency(), source)),
+                                new Facet(BY_ZONE, countBy(source.zone(), source)),
+                                new Facet(TOP_CITIES, cities),
+                                new Facet(
+                                        PER_DAY,
+                                        countBy(source.reportDate(), source),
+                                        Aggregates.sort(Sorts.ascending("_id"))),
+                                new Facet(
+                                        FLAGS,
+                                        Aggregates.group(
+                                                null,
+                                                countWhere(
+                                                        WITH_ATTENTION,
+                                                        source.attention(),
+                                                        true,
+                                                        source),
+                                                countWhere(
+                                                        WITHOUT_ATTENTION,
+                                                        source.attention(),
+                                                        false,
+                                                        source),
+                                                countWhere(
+                                                        WITH_BIAS, source.bias(), true, source)))));
+
+        Document result =
+                mongoTemplate.getCollection(source.collection()).aggregate(pipeline).first();
+        if (result == null) {
+            return ReportStatistics.empty();
+        }
+
+        Document flags = first(result, FLAGS);
+        return new ReportStatistics(
+                longValue(first(result, TOTAL), COUNT),
+                enumCounts(result.getList(BY_CATEGORY, Document.class), ProblemCategory.class),
+                enumCounts(result.getList(BY_URGENCY, Document.class), UrgencyLevel.class),
+                enumCounts(result.getList(BY_ZONE, Document.class), Zone.class),
+                cityCounts(result.getList(TOP_CITIES, Document.class)),
+                dayCounts(result.getList(PER_DAY, Document.class)),
+                longValue(flags, WITH_ATTENTION),
+                longValue(flags, WITHOUT_ATTENTION),
+                longValue(flags, WITH_BIAS));
+    }
+
+    /** Filtro con nombres y valores convertidos igual que en el repository. */
+    private Document mapFilter(Query query) {
+        MongoPersistentEntity<?> entity =
+                mongoTemplate
+                        .getConverter()
+                        .getMappingContext()
+                        .getRequiredPersistentEntity(CitizenReport.class);
+        return new QueryMapper(mongoTemplate.getConverter())
+                .getMappedObject(query.getQueryObject(), entity);
+    }
+
+    private static Bson countBy(String field, Source source) {
+        return Aggregates.group("$" + field, Accumulators.sum(COUNT, source.count()));
+    }
+
+    private static BsonField countWhere(String name, String field, Object value, Source source) {
+        Document matches = new Document("$eq", List.of("$" + field, value));
+        return Accumulators.sum(
+                name, new Document("$cond", List.of(matches, source.count(), 0)));
+    }
+
+    private static <E extends Enum<E>> Map<E, Long> enumCounts(
+            List<Document> groups, Class<E> type) {
+        Map<E, Long> counts = new EnumMap<>(type);
+        for (Document group : groups) {
+            if (group.get("_id") instanceof String name) {
+                try {
+                    counts.put(Enum.valueOf(type, name), longValue(group, COUNT));
+                } catch (IllegalArgumentException e) {
+                    log.debug("Ignoring unknown {} value '{}'", type.getSimpleName(), name);
+                }
+            }
+        }
+        return counts;
+    }
+
+    private static Map<String, Long> cityCounts(List<Document> groups) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Document group : groups) {
+            counts.put(group.getString("_id"), longValue(group, COUNT));
+        }
+        return counts;
+    }
+
+    /** {@code LocalDate} se guarda como la medianoche en la zona del servidor. */
+    private static Map<LocalDate, Long> dayCounts(List<Document> groups) {
+        Map<LocalDate, Long> counts = new TreeMap<>();
+        for (Document group : groups) {
+            if (group.get("_id") instanceof Date date) {
+                LocalDate day = LocalDate.ofInstant(date.toInstant(), ZoneId.systemDefault());
+                counts.merge(day, longValue(group, COUNT), Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    private static Document first(Document result, String facet) {
+        List<Document> documents = result.getList(facet, Document.class);
+        return documents == null || documents.isEmpty() ? null : documents.get(0);
+    }
+
+    private static long longValue(Document document, String key) {
+        if (document == null || !(document.get(key) instanceof Number number)) {
+            return 0;
+        }
+        return number.longValue();
+    }
+}
@@ -0,0 +1,284 @@
+package com.senasoft.comunidataapi.csv.service.analytics;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import com.senasoft.comunidataapi.csv.entity.CitizenReport;
+import com.senasoft.comunidataapi.csv.enums.ProcessingStatus;
+import com.senasoft.comunidataapi.csv.repository.ReportFilter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Conteos precalculados de reportes completados en la colección {@code report_rollups}.
+ *
+ * <p>Cada documento cuenta los reportes COMPLETADO que comparten fecha, ciudad, categoría,
+ * urgencia, zona, atención del gobierno y sesgo; la combinación es el {@code _id}. Cuando la cola
+ * de trabajo guarda reportes que llegaron a COMPLETADO, sus conteos se suman con upserts {@code
+ * $inc}, de modo que las estadísticas leen unos cientos de filas en lugar de recorrer todos los
+ * reportes.
+ *
+ * <p>La reconstrucción ({@link #rebuild()}) recalcula la colección desde {@code citizen_reports}
+ * con {@code $out}. Corre al iniciar si la colección está vacía y según {@code
+ * app.reports.rollups.rebuild-cron}, y corrige cualquier desvío de los incrementos (p. ej. un
+ * incremento que falló). Cuando se sabe que los incrementos quedaron incompletos, {@link
+ * #requestRebuild()} adelanta la reconstrucción al siguiente ciclo de {@code
+ * app.reports.rollups.pending-rebuild-check-ms} en lugar de esperar al cron.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReportRollupService {
+
+    public static final String COLLECTION = "report_rollups";
+
+    // Campos del _id de cada fila, en el orden en que se escriben
+    static final String DATE = "date";
+    static final String CITY = "city";
+    static final String CATEGORY = "category";
+    static final String URGENCY = "urgency";
+    static final String ZONE = "zone";
+    static final String ATTENTION = "attention";
+    static final String BIAS = "bias";
+    static final String COUNT = "count";
+
+    private static final String REPORTS_COLLECTION = "citizen_reports";
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.reports.rollups.enabled:true}")
+    private boolean enabled;
+
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+
+    /**
+     * Suma a los rollups los reportes que quedaron en COMPLETADO; el resto se ignora. Un fallo no
+     * interrumpe el procesamiento: la siguiente reconstrucción corrige los conteos.
+     */
+    public void recordCompleted(Collection<CitizenReport> reports) {
+        if (!enabled) {
+            return;
+        }
+
+        Map<Document, Long> increments = new LinkedHashMap<>();
+        for (CitizenReport report : reports) {
+            if (ProcessingStatus.COMPLETADO.equals(report.getProcessingStatus())) {
+                increments.merge(keyOf(report), 1L, Long::sum);
+            }
+        }
+        if (increments.isEmpty()) {
+            return;
+        }
+
+        List<WriteModel<Document>> updates = new ArrayList<>(increments.size());
+        UpdateOptions upsert = new UpdateOptions().upsert(true);
+        increments.forEach(
+                (key, count) ->
+                        updates.add(
+                                new UpdateOneModel<>(
+                                        Filters.eq("_id", key),
+                                        Updates.inc(COUNT, count),
+                                        upsert)));
+        try {
+            rollups().bulkWrite(updates, new BulkWriteOptions().ordered(false));
+        } catch (MongoException e) {
+            log.error(
+                    "Could not update {} rollup rows, requesting a rebuild", updates.size(), e);
+            requestRebuild();
+        }
+    }
+
+    /**
+     * Pide una reconstrucción en el siguiente ciclo, p. ej. porque no se sabe qué reportes de un
+     * lote llegaron a guardarse. Varias solicitudes seguidas se atienden con una sola.
+     */
+    public void requestRebuild() {
+        if (enabled) {
+            rebuildRequested.set(true);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.reports.rollups.pending-rebuild-check-ms:60000}")
+    public void rebuildIfRequested() {
+        if (!rebuildRequested.getAndSet(false)) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Requested rollup rebuild failed, retrying on the next check", e);
+            rebuildRequested.set(true);
+        }
+    }
+
+    /**
+     * Recalcula todos los rollups desde {@code citizen_reports}. {@code $out} reemplaza la
+     * colección de forma atómica al terminar; los incrementos que lleguen mientras se ejecuta
+     * pueden perderse hasta la siguiente reconstrucción.
+     *
+     * @return Filas de rollup generadas
+     */
+    public long rebuild() {
+        long start = System.currentTimeMillis();
+        List<Bson> pipeline =
+                List.of(
+                        Aggregates.match(
+                                Filters.eq("processingStatus", ProcessingStatus.COMPLETADO.name())),
+                        Aggregates.group(groupKey(), Accumulators.sum(COUNT, 1)),
+                        Aggregates.out(COLLECTION));
+        mongoTemplate
+                .getCollection(REPORTS_COLLECTION)
+                .aggregate(pipeline)
+                .allowDiskUse(true)
+                .toCollection();
+
+        long rows = rollups().countDocuments();
+        log.info("Rebuilt {} rollup rows in {} ms", rows, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    @Scheduled(cron = "${app.reports.rollups.rebuild-cron:0 0 3 * * *}")
+    public void scheduledRebuild() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.error("Scheduled rollup rebuild failed", e);
+        }
+    }
+
+    /** Construye los rollups la primera vez, o si la colección se eliminó. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfMissing() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (rollups().estimatedDocumentCount() == 0
+                    && mongoTemplate.getCollection(REPORTS_COLLECTION).estimatedDocumentCount()
+                            > 0) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.error("Initial rollup rebuild failed", e);
+        }
+    }
+
+    /**
+     * Traduce un {@link ReportFilter} a un filtro sobre las filas del rollup.
+     *
+     * @return Vacío si el filtro no se puede responder con los rollups: otro estado distinto de
+     *     COMPLETADO o un rango de edad, que el rollup no conserva
+     */
+    public Optional<Bson> toRollupFilter(ReportFilter filter) {
+        if (!enabled
+                || !ProcessingStatus.COMPLETADO.equals(filter.getProcessingStatus())
+                || filter.getMinAge() != null
+                || filter.getMaxAge() != null) {
+            return Optional.empty();
+        }
+
+        List<Bson> conditions = new ArrayList<>();
+        if (filter.getArea() != null) {
+            conditions.add(Filters.eq(keyPath(ZONE), toMongo(filter.getArea())));
+        }
+        addIn(conditions, CITY, filter.getCities());
+        addIn(conditions, CATEGORY, filter.getCategories());
+        addIn(conditions, URGENCY, filter.getUrgencyLevels());
+        if (filter.getGovernmentPreAttention() != null) {
+            conditions.add(Filters.eq(keyPath(ATTENTION), filter.getGovernmentPreAttention()));
+        }
+        if (filter.getBiasDetected() != null) {
+            conditions.add(Filters.eq(keyPath(BIAS), filter.getBiasDetected()));
+        }
+        if (filter.getStartDate() != null) {
+            conditions.add(Filters.gte(keyPath(DATE), toMongo(filter.getStartDate())));
+        }
+        if (filter.getEndDate() != null) {
+            conditions.add(Filters.lte(keyPath(DATE), toMongo(filter.getEndDate())));
+        }
+
+        return Optional.of(conditions.isEmpty() ? new Document() : Filters.and(conditions));
+    }
+
+    /** Ruta de un campo de la llave dentro de las filas del rollup. */
+    static String keyPath(String field) {
+        return "_id." + field;
+    }
+
+    // ==================== Helper Methods ====================
+
+    private MongoCollection<Document> rollups() {
+        return mongoTemplate.getCollection(COLLECTION);
+    }
+
+    /**
+     * Llave de un reporte con los valores tal como los guarda Spring Data ({@code LocalDate} como
+     * fecha, enums como nombre). Los campos nulos se conservan para que la suma de todas las filas
+     * sea el total de reportes completados.
+     */
+    private Document keyOf(CitizenReport report) {
+        return new Document(DATE, toMongo(report.getReportDate()))
+                .append(CITY, report.getCity())
+                .append(CATEGORY, toMongo(report.getCategoryProblem()))
+                .append(URGENCY, toMongo(report.getUrgencyLevel()))
+                .append(ZONE, toMongo(report.getArea()))
+                .append(ATTENTION, report.getGovernmentPreAttention())
+                .append(BIAS, report.getBiasDetected());
+    }
+
+    /**
+     * La misma llave como expresión de {@code $group}, en el mismo orden de campos que {@link
+     * #keyOf}: MongoDB compara los {@code _id} de tipo documento campo por campo y en orden.
+     */
+    private static Document groupKey() {
+        return new Document(DATE, orNull("$reportDate"))
+                .append(CITY, orNull("$city"))
+                .append(CATEGORY, orNull("$categoryProblem"))
+                .append(URGENCY, orNull("$urgencyLevel"))
+                .append(ZONE, orNull("$area"))
+                .append(ATTENTION, orNull("$governmentPreAttention"))
+                .append(BIAS, orNull("$biasDetected"));
+    }
+
+    /** Sin {@code $ifNull}, un campo ausente desaparecería de la llave en lugar de quedar nulo. */
+    private static Document orNull(String field) {
+        return new Document("$ifNull", Arrays.asList(field, null));
+    }
+
+    private void addIn(List<Bson> conditions, String field, List<?> values) {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        conditions.add(Filters.in(keyPath(field), values.stream().map(this::toMongo).toList()));
+    }
+
+    private Object toMongo(Object value) {
+        return value == null ? null : mongoTemplate.getConverter().convertToMongoType(value);
+    }
+}
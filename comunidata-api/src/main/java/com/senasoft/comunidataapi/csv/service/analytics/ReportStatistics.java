@@ -0,0 +1,120 @@
+package com.senasoft.comunidataapi.csv.service.analytics;
+
+import com.senasoft.comunidataapi.csv.entity.CitizenReport;
+import com.senasoft.comunidataapi.csv.enums.ProblemCategory;
+import com.senasoft.comunidataapi.csv.enums.UrgencyLevel;
+import com.senasoft.comunidataapi.csv.enums.Zone;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Conteos agregados de un conjunto de reportes ciudadanos.
+ *
+ * <p>Los mapas por enum siguen el orden de declaración del enum, {@code topCities} va de mayor a
+ * menor cantidad y {@code perDay} en orden cronológico. Los reportes sin valor en un campo no
+ * aparecen en el mapa de ese campo.
+ *
+ * @param total Reportes que cumplen el filtro
+ * @param byCategory Reportes por categoría
+ * @param byUrgency Reportes por nivel de urgencia
+ * @param byZone Reportes por zona
+ * @param topCities Ciudades con más reportes
+ * @param perDay Reportes por fecha de reporte
+ * @param withAttention Reportes con atención previa del gobierno
+ * @param withoutAttention Reportes sin atención previa del gobierno
+ * @param withBias Reportes con sesgo detectado por la IA
+ */
+public record ReportStatistics(
+        long total,
+        Map<ProblemCategory, Long> byCategory,
+        Map<UrgencyLevel, Long> byUrgency,
+        Map<Zone, Long> byZone,
+        Map<String, Long> topCities,
+        Map<LocalDate, Long> perDay,
+        long withAttention,
+        long withoutAttention,
+        long withBias) {
+
+    public static ReportStatistics empty() {
+        return new ReportStatistics(
+                0,
+                new EnumMap<>(ProblemCategory.class),
+                new EnumMap<>(UrgencyLevel.class),
+                new EnumMap<>(Zone.class),
+                new LinkedHashMap<>(),
+                new TreeMap<>(),
+                0,
+                0,
+                0);
+    }
+
+    /**
+     * Estadísticas de reportes que ya están en memoria, contadas en una sola pasada y sin consultar
+     * MongoDB.
+     *
+     * @param cityLimit Máximo de ciudades en {@code topCities}; 0 = todas
+     */
+    public static ReportStatistics of(Collection<CitizenReport> reports, int cityLimit) {
+        Map<ProblemCategory, Long> byCategory = new EnumMap<>(ProblemCategory.class);
+        Map<UrgencyLevel, Long> byUrgency = new EnumMap<>(UrgencyLevel.class);
+        Map<Zone, Long> byZone = new EnumMap<>(Zone.class);
+        Map<String, Long> byCity = new HashMap<>();
+        Map<LocalDate, Long> perDay = new TreeMap<>();
+        long withAttention = 0;
+        long withoutAttention = 0;
+        long withBias = 0;
+
+        for (CitizenReport report : reports) {
+            countIfPresent(byCategory, report.getCategoryProblem());
+            countIfPresent(byUrgency, report.getUrgencyLevel());
+            countIfPresent(byZone, report.getArea());
+            countIfPresent(byCity, report.getCity());
+            countIfPresent(perDay, report.getReportDate());
+            if (Boolean.TRUE.equals(report.getGovernmentPreAttention())) {
+                withAttention++;
+            } else if (Boolean.FALSE.equals(report.getGovernmentPreAttention())) {
+                withoutAttention++;
+            }
+            if (Boolean.TRUE.equals(report.getBiasDetected())) {
+                withBias++;
+            }
+        }
+
+        // Mismo orden que la agregación: mayor cantidad primero, empates por nombre
+        Map<String, Long> topCities = new LinkedHashMap<>();
+        byCity.entrySet().stream()
+                .sorted(
+                        Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                                .thenComparing(Map.Entry.comparingByKey()))
+                .limit(cityLimit > 0 ? cityLimit : Long.MAX_VALUE)
+                .forEach(entry -> topCities.put(entry.getKey(), entry.getValue()));
+
+        return new ReportStatistics(
+                reports.size(),
+                byCategory,
+                byUrgency,
+                byZone,
+                topCities,
+                perDay,
+                withAttention,
+                withoutAttention,
+                withBias);
+    }
+
+    /** Reportes con fecha de reporte conocida. */
+    public long datedReports() {
+        return perDay.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private static <K> void countIfPresent(Map<K, Long> counts, K key) {
+        if (key != null) {
+            counts.merge(key, 1L, Long::sum);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.senasoft.comunidataapi.csv.service.index;
+
+import com.mongodb.ExplainVerbosity;
+import com.senasoft.comunidataapi.csv.entity.CitizenReport;
+import com.senasoft.comunidataapi.csv.enums.ProblemCategory;
+import com.senasoft.comunidataapi.csv.enums.ProcessingStatus;
+import com.senasoft.comunidataapi.csv.enums.UrgencyLevel;
+import com.senasoft.comunidataapi.csv.enums.Zone;
+import com.senasoft.comunidataapi.csv.repository.ReportFilter;
+import com.senasoft.comunidataapi.csv.service.queue.ReportWorkQueue;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verifica al iniciar que cada forma de consulta sobre {@code citizen_reports} use un índice.
+ *
+ * <p>Ejecuta {@code explain} (solo planificación, sin leer documentos) sobre las consultas que
+ * hacen la cola de trabajo, el listado, la exportación y las herramientas del chat. Si el plan
+ * ganador de alguna contiene un COLLSCAN, lo registra como advertencia o, con {@code
+ * app.mongo.index-advisor.fail-on-collscan}, detiene el arranque. Al agregar una consulta nueva,
+ * su forma debe registrarse en {@link #queryShapes()}.
+ *
+ * <p>También elimina los índices de un solo campo que declaraba antes {@link CitizenReport}:
+ * {@code auto-index-creation} crea los índices nuevos pero no borra los que ya no están en la
+ * entidad, y ninguna consulta los usa (todas filtran por {@code processingStatus}), así que solo
+ * encarecían los inserts.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReportIndexAdvisor {
+
+    private static final String COLLSCAN = "COLLSCAN";
+
+    /** Índices de un solo campo que ya no declara la entidad. */
+    private static final List<String> OBSOLETE_INDEXES =
+            List.of("city", "categoryProblem", "reportDate", "area", "biasDetected", "importDate");
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.mongo.index-advisor.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.mongo.index-advisor.fail-on-collscan:false}")
+    private boolean failOnCollscan;
+
+    @Value("${app.mongo.index-advisor.drop-obsolete:true}")
+    private boolean dropObsolete;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyIndexes() {
+        if (!enabled) {
+            return;
+        }
+        if (dropObsolete) {
+            dropObsoleteIndexes();
+        }
+
+        Map<String, Query> shapes = queryShapes();
+        List<String> collscans = new ArrayList<>();
+        for (Map.Entry<String, Query> shape : shapes.entrySet()) {
+            try {
+                Document winningPlan = explain(shape.getValue());
+                if (containsStage(winningPlan, COLLSCAN)) {
+                    collscans.add(shape.getKey());
+                    log.warn(
+                            "Query shape '{}' does a COLLSCAN: {}",
+                            shape.getKey(),
+                            shape.getValue());
+                } else {
+                    log.debug("Query shape '{}' plan: {}", shape.getKey(), winningPlan);
+                }
+            } catch (Exception e) {
+                log.warn("Could not explain query shape '{}': {}", shape.getKey(), e.getMessage());
+            }
+        }
+
+        if (collscans.isEmpty()) {
+            log.info("Index advisor: all {} query shapes use an index", shapes.size());
+        } else if (failOnCollscan) {
+            throw new IllegalStateException("Query shapes without index: " + collscans);
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    private void dropObsoleteIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(CitizenReport.class);
+        for (IndexInfo index : indexOps.getIndexInfo()) {
+            // Spring los nombra como el campo; creados a mano quedan como "<campo>_1"
+            if (OBSOLETE_INDEXES.contains(index.getName().replaceFirst("_1$", ""))) {
+                indexOps.dropIndex(index.getName());
+                log.info("Dropped obsolete index '{}' on citizen_reports", index.getName());
+            }
+        }
+    }
+
+    /** Formas de consulta reales, con valores de ejemplo. */
+    private Map<String, Query> queryShapes() {
+        Map<String, Query> shapes = new LinkedHashMap<>();
+
+        // Cola de trabajo: la misma consulta que arma ReportWorkQueue.claim
+        shapes.put(
+                "work-queue-claim",
+                ReportWorkQueue.claimableQuery(ProcessingStatus.PENDIENTE, LocalDateTime.now()));
+        shapes.put(
+                "work-queue-claimed",
+                new Query(Criteria.where("claimToken").is("token"))
+                        .with(Sort.by(Sort.Direction.ASC, "_id")));
+
+        // Listado paginado y exportación
+        shapes.put(
+                "listing-page",
+                new Query(Criteria.where("processingStatus").is(ProcessingStatus.COMPLETADO))
+                        .with(Sort.by(Sort.Direction.ASC, "_id")));
+        shapes.put("export-valid", ReportFilter.builder().biasDetected(false).build().toQuery());
+        shapes.put(
+                "batch-reports",
+                new Query(Criteria.where("batchId").is("batch"))
+                        .with(Sort.by(Sort.Direction.ASC, "batchIndex")));
+
+        // Herramientas del chat y combinaciones de ReportFilter
+        shapes.put("filter-age", ReportFilter.builder().minAge(18).maxAge(30).build().toQuery());
+        shapes.put(
+                "filter-city",
+                ReportFilter.builder().cities(List.of("Manizales")).build().toQuery());
+        shapes.put(
+                "filter-category",
+                ReportFilter.builder()
+                        .categories(List.of(ProblemCategory.SALUD))
+                        .build()
+                        .toQuery());
+        shapes.put(
+                "filter-urgency",
+                ReportFilter.builder()
+                        .urgencyLevels(List.of(UrgencyLevel.URGENTE))
+                        .build()
+                        .toQuery());
+        shapes.put(
+                "filter-attention",
+                ReportFilter.builder().governmentPreAttention(false).build().toQuery());
+        shapes.put(
+                "filter-date",
+                ReportFilter.builder()
+                        .startDate(LocalDate.now().minusMonths(1))
+                        .endDate(LocalDate.now())
+                        .build()
+                        .toQuery());
+        shapes.put("filter-zone", ReportFilter.builder().area(Zone.RURAL).build().toQuery());
+        shapes.put(
+                "filter-city-category",
+                ReportFilter.builder()
+                        .cities(List.of("Manizales"))
+                        .categories(List.of(ProblemCategory.SALUD))
+                        .build()
+                        .toQuery());
+        shapes.put(
+                "filter-zone-urgency",
+                ReportFilter.builder()
+                        .area(Zone.URBANA)
+                        .urgencyLevels(List.of(UrgencyLevel.ALTA, UrgencyLevel.URGENTE))
+                        .build()
+                        .toQuery());
+
+        return shapes;
+    }
+
+    /** Plan ganador de la consulta, con los valores convertidos igual que en el repository. */
+    private Document explain(Query query) {
+        MongoPersistentEntity<?> entity =
+                mongoTemplate
+                        .getConverter()
+                        .getMappingContext()
+                        .getRequiredPersistentEntity(CitizenReport.class);
+        QueryMapper queryMapper = new QueryMapper(mongoTemplate.getConverter());
+        Document filter = queryMapper.getMappedObject(query.getQueryObject(), entity);
+        Document sort = queryMapper.getMappedSort(query.getSortObject(), entity);
+
+        Document explanation =
+                mongoTemplate
+                        .getCollection(mongoTemplate.getCollectionName(CitizenReport.class))
+                        .find(filter)
+                        .sort(sort)
+                        .explain(ExplainVerbosity.QUERY_PLANNER);
+        Document queryPlanner = explanation.get("queryPlanner", Document.class);
+        return queryPlanner != null ? queryPlanner.get("winningPlan", Document.class) : explanation;
+    }
+
+    /**
+     * Busca una etapa en el plan, recorriendo {@code inputStage}, {@code inputStages} y los planes
+     * anidados de los motores de ejecución más recientes (SBE) y de clusters con shards.
+     */
+    private static boolean containsStage(Object node, String stage) {
+        if (node instanceof Document document) {
+            if (stage.equals(document.getString("stage"))) {
+                return true;
+            }
+            return document.values().stream().anyMatch(value -> containsStage(value, stage));
+        }
+        if (node instanceof List<?> list) {
+            return list.stream().anyMatch(value -> containsStage(value, stage));
+        }
+        return false;
+    }
+}
@@ -0,0 +1,175 @@
+package com.senasoft.comunidataapi.csv.service.job;
+
+import com.senasoft.comunidataapi.csv.dto.response.CsvJobStatusDTO;
+import com.senasoft.comunidataapi.csv.enums.JobStatus;
+import com.senasoft.comunidataapi.csv.event.CsvChunkProcessedEvent;
+import com.senasoft.comunidataapi.csv.event.ReportsProcessedEvent;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registro en memoria de los trabajos de carga de CSV y su progreso.
+ *
+ * <p>El progreso por etapa se acumula escuchando los {@link CsvChunkProcessedEvent} que publica el
+ * orquestador por cada chunk terminado, y los {@link ReportsProcessedEvent} del worker de la cola
+ * cuando la IA se procesa de forma diferida. Los trabajos finalizados se conservan durante {@code
+ * app.csv.jobs.retention-hours} para poder consultarlos y luego se eliminan.
+ *
+ * <p>El registro es local a cada nodo: un trabajo solo se puede consultar en el nodo que recibió
+ * la carga, y los reportes que la cola completa en otros nodos no suman a sus contadores. Con
+ * varias instancias detrás de un balanceador, {@code GET /csv/jobs/{batchId}} necesita afinidad de
+ * sesión hacia ese nodo; en otro nodo responde 404.
+ */
+@Slf4j
+@Component
+public class CsvJobRegistry {
+
+    private final Map<String, JobProgress> jobs = new ConcurrentHashMap<>();
+
+    @Value("${app.csv.jobs.retention-hours:24}")
+    private long retentionHours;
+
+    /** Registra un trabajo recién encolado. */
+    public void register(String batchId, String fileName, boolean processWithAi) {
+        jobs.put(batchId, new JobProgress(batchId, fileName, processWithAi));
+    }
+
+    public void markStarted(String batchId) {
+        JobProgress job = jobs.get(batchId);
+        if (job != null) {
+            job.startedAt = LocalDateTime.now();
+            job.startedNanos = System.nanoTime();
+            job.status = JobStatus.EN_PROCESO;
+        }
+    }
+
+    public void markCompleted(String batchId) {
+        finish(batchId, JobStatus.COMPLETADO, null);
+    }
+
+    public void markFailed(String batchId, String errorMessage) {
+        finish(batchId, JobStatus.ERROR, errorMessage);
+    }
+
+    /**
+     * Obtiene el estado actual de un trabajo.
+     *
+     * @param batchId ID del batch retornado al cargar el CSV
+     * @return Estado del trabajo, o vacío si no existe o ya expiró
+     */
+    public Optional<CsvJobStatusDTO> find(String batchId) {
+        return Optional.ofNullable(jobs.get(batchId)).map(JobProgress::toDTO);
+    }
+
+    @EventListener
+    public void onChunkProcessed(CsvChunkProcessedEvent event) {
+        JobProgress job = jobs.get(event.batchId());
+        if (job == null) {
+            return; // Carga síncrona o trabajo ya expirado
+        }
+        job.processedChunks.incrementAndGet();
+        job.normalizedRecords.addAndGet(event.normalizedRecords());
+        job.validatedRecords.addAndGet(event.validatedRecords());
+        job.embeddedRecords.addAndGet(event.embeddedRecords());
+        job.errorRecords.addAndGet(event.errorRecords());
+    }
+
+    @EventListener
+    public void onReportsProcessed(ReportsProcessedEvent event) {
+        JobProgress job = jobs.get(event.batchId());
+        if (job == null) {
+            return;
+        }
+        job.validatedRecords.addAndGet(event.validatedRecords());
+        job.embeddedRecords.addAndGet(event.embeddedRecords());
+        job.errorRecords.addAndGet(event.errorRecords());
+    }
+
+    /** Elimina los trabajos finalizados que superaron el tiempo de retención. */
+    @Scheduled(fixedDelayString = "${app.csv.jobs.cleanup-interval-ms:3600000}")
+    public void evictExpiredJobs() {
+        LocalDateTime threshold = LocalDateTime.now().minusHours(retentionHours);
+        int before = jobs.size();
+        jobs.values()
+                .removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(threshold));
+        int removed = before - jobs.size();
+        if (removed > 0) {
+            log.info("Evicted {} expired CSV jobs", removed);
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    private void finish(String batchId, JobStatus status, String errorMessage) {
+        JobProgress job = jobs.get(batchId);
+        if (job != null) {
+            job.errorMessage = errorMessage;
+            job.finishedNanos = System.nanoTime();
+            job.finishedAt = LocalDateTime.now();
+            job.status = status;
+        }
+    }
+
+    /** Estado mutable de un trabajo; los contadores se actualizan desde el hilo del trabajo. */
+    private static final class JobProgress {
+        private final String batchId;
+        private final String fileName;
+        private final boolean processWithAi;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private final AtomicInteger processedChunks = new AtomicInteger();
+        private final AtomicInteger normalizedRecords = new AtomicInteger();
+        private final AtomicInteger validatedRecords = new AtomicInteger();
+        private final AtomicInteger embeddedRecords = new AtomicInteger();
+        private final AtomicInteger errorRecords = new AtomicInteger();
+
+        private volatile JobStatus status = JobStatus.EN_COLA;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile long startedNanos;
+        private volatile long finishedNanos;
+        private volatile String errorMessage;
+
+        private JobProgress(String batchId, String fileName, boolean processWithAi) {
+            this.batchId = batchId;
+            this.fileName = fileName;
+            this.processWithAi = processWithAi;
+        }
+
+        private CsvJobStatusDTO toDTO() {
+            return CsvJobStatusDTO.builder()
+                    .batchId(batchId)
+                    .fileName(fileName)
+                    .status(status)
+                    .processWithAi(processWithAi)
+                    .processedChunks(processedChunks.get())
+                    .normalizedRecords(normalizedRecords.get())
+                    .validatedRecords(validatedRecords.get())
+                    .embeddedRecords(embeddedRecords.get())
+                    .errorRecords(errorRecords.get())
+                    .recordsPerSecond(recordsPerSecond())
+                    .submittedAt(submittedAt)
+                    .startedAt(startedAt)
+                    .finishedAt(finishedAt)
+                    .errorMessage(errorMessage)
+                    .build();
+        }
+
+        private Double recordsPerSecond() {
+            if (startedAt == null) {
+                return 0.0;
+            }
+            long end = finishedAt != null ? finishedNanos : System.nanoTime();
+            double seconds = Duration.ofNanos(end - startedNanos).toMillis() / 1000.0;
+            return seconds > 0 ? normalizedRecords.get() / seconds : 0.0;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.senasoft.comunidataapi.csv.service.migration;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import com.senasoft.comunidataapi.csv.config.MongoConversionConfig;
+import com.senasoft.comunidataapi.csv.entity.EmbeddingVector;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Migración de embeddings guardados como arreglo de doubles al formato BSON vector float32.
+ *
+ * <p>Se ejecuta al iniciar la aplicación si {@code app.embedding.migration.enabled} está activo.
+ * Procesa lotes de {@code app.embedding.migration.batch-size} documentos cuyo campo sigue siendo un
+ * arreglo, por lo que es idempotente y puede interrumpirse y retomarse en el siguiente arranque.
+ * Mientras tanto, los documentos sin migrar se leen igual gracias al convertidor de arreglos.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmbeddingVectorMigration {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.embedding.migration.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.embedding.migration.batch-size:500}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            migrateField("citizen_reports", "embedding");
+            migrateField("embedding_cache", "vector");
+        } catch (Exception e) {
+            log.error("Embedding vector migration failed, it will resume on next startup", e);
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    private void migrateField(String collectionName, String field) {
+        MongoCollection<Document> collection = mongoTemplate.getCollection(collectionName);
+        Bson legacyFormat = Filters.type(field, BsonType.ARRAY);
+        long migrated = 0;
+
+        while (true) {
+            List<Document> batch =
+                    collection
+                            .find(legacyFormat)
+                            .projection(Projections.include(field))
+                            .limit(batchSize)
+                            .into(new ArrayList<>(batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            List<WriteModel<Document>> updates = new ArrayList<>(batch.size());
+            for (Document document : batch) {
+                Bson byId = Filters.eq("_id", document.get("_id"));
+                List<?> values = document.getList(field, Object.class);
+                updates.add(new UpdateOneModel<>(byId, toBinaryUpdate(field, values)));
+            }
+            collection.bulkWrite(updates);
+            migrated += batch.size();
+        }
+
+        if (migrated > 0) {
+            log.info("Migrated {} {}.{} values to float32 vectors", migrated, collectionName, field);
+        }
+    }
+
+    /** Un arreglo vacío o con valores no numéricos no es un embedding válido: se elimina. */
+    private Bson toBinaryUpdate(String field, List<?> values) {
+        if (values.isEmpty() || !values.stream().allMatch(Number.class::isInstance)) {
+            return Updates.unset(field);
+        }
+
+        @SuppressWarnings("unchecked")
+        EmbeddingVector vector = EmbeddingVector.fromNumbers((List<Number>) values);
+        return Updates.set(field, MongoConversionConfig.toBinary(vector.toFloatArray()));
+    }
+}
@@ -0,0 +1,284 @@
+package com.senasoft.comunidataapi.csv.service.normalization;
+
+import com.senasoft.comunidataapi.csv.entity.LearnedCity;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Diccionario de ciudades canónicas usado durante la normalización del CSV.
+ *
+ * <p>Cada variante de escritura ("bogota", "BOGOTÁ", "Bogotá D.C.", "Bogta") se resuelve a un único
+ * nombre canónico ("Bogotá"), y todas las filas de esa ciudad comparten la misma instancia de
+ * {@code String}. Así se reduce la memoria por chunk, la cardinalidad del índice {@code city} y se
+ * corrigen los agrupamientos por ciudad en reportes y gráficas.
+ *
+ * <p>Resolución:
+ *
+ * <ul>
+ *   <li>Caché acotada texto original → canónico (sin trabajo para valores repetidos)
+ *   <li>Clave sin acentos ni puntuación contra el diccionario (ciudades semilla, alias y errores
+ *       de tipeo conocidos)
+ *   <li>Clave exacta contra las ciudades aprendidas ("CHIQUINQUIRA" y "Chiquinquirá" comparten
+ *       nombre)
+ *   <li>Si nada coincide, la ciudad se capitaliza y se aprende con esa clave
+ * </ul>
+ *
+ * <p>No hay coincidencia aproximada: municipios distintos difieren en una letra (Soacha/Socha,
+ * Ciénaga/Ciénega), así que los errores de tipeo se agregan explícitamente en {@link
+ * #COMMON_TYPOS}. Las ciudades aprendidas se guardan en la colección {@code learned_cities} con
+ * {@code $setOnInsert}: la primera escritura gana y todos los nodos y reinicios usan el mismo
+ * nombre canónico.
+ *
+ * <p>Es thread-safe: se consulta desde los hilos de normalización en paralelo.
+ */
+@Slf4j
+@Component
+public class CityDictionary {
+
+    /** Ciudades semilla: el primer valor es el nombre canónico, el resto son alias. */
+    private static final String[][] SEED_CITIES = {
+        {
+            "Bogotá",
+            "Bogotá D.C.",
+            "Bogotá Distrito Capital",
+            "Santafé de Bogotá",
+            "Santa Fe de Bogotá"
+        },
+        {"Medellín"},
+        {"Cali", "Santiago de Cali"},
+        {"Barranquilla"},
+        {"Cartagena", "Cartagena de Indias"},
+        {"Cúcuta", "San José de Cúcuta"},
+        {"Bucaramanga"},
+        {"Pereira"},
+        {"Santa Marta"},
+        {"Ibagué"},
+        {"Pasto", "San Juan de Pasto"},
+        {"Manizales"},
+        {"Neiva"},
+        {"Villavicencio"},
+        {"Armenia"},
+        {"Valledupar"},
+        {"Montería"},
+        {"Sincelejo"},
+        {"Popayán"},
+        {"Tunja"},
+        {"Riohacha"},
+        {"Quibdó"},
+        {"Florencia"},
+        {"Yopal"},
+        {"Leticia"},
+        {"Mocoa"},
+        {"San Andrés", "San Andrés Isla"},
+        {"Arauca"},
+        {"Inírida", "Puerto Inírida"},
+        {"Mitú"},
+        {"Puerto Carreño"},
+        {"San José del Guaviare"},
+        {"Soacha"},
+        {"Bello"},
+        {"Itagüí"},
+        {"Envigado"},
+        {"Soledad"},
+        {"Palmira"},
+        {"Buenaventura"},
+        {"Dosquebradas"},
+        {"Tuluá"},
+        {"Girardot"},
+        {"Barrancabermeja"},
+        {"Floridablanca"},
+        {"Rionegro"},
+        {"Sogamoso"},
+        {"Duitama"},
+        {"Zipaquirá"},
+        {"Facatativá"},
+        {"Chía"}
+    };
+
+    /** Errores de tipeo vistos en los CSV: el primer valor es el nombre canónico. */
+    private static final String[][] COMMON_TYPOS = {
+        {"Bogotá", "Bogta", "Bogot", "Bgotá", "Bogtoá"},
+        {"Medellín", "Medelin", "Medelín"},
+        {"Barranquilla", "Barranquila", "Baranquilla"},
+        {"Cartagena", "Cartajena"},
+        {"Bucaramanga", "Bucaramnga"},
+        {"Villavicencio", "Villavicencion", "Villavisencio"},
+        {"Valledupar", "Valedupar"},
+        {"Zipaquirá", "Sipaquirá"}
+    };
+
+    private final TextNormalizer textNormalizer;
+    private final MongoTemplate mongoTemplate;
+    private final int maxCacheSize;
+    private final int maxLearned;
+
+    /** Clave normalizada → nombre canónico (semilla, alias y errores de tipeo). Inmutable. */
+    private final Map<String, String> canonicalByKey;
+
+    /** Texto original tal cual llega en el CSV → nombre canónico. */
+    private final Map<String, String> resolvedCache = new ConcurrentHashMap<>();
+
+    /** Clave normalizada → nombre canónico de las ciudades aprendidas (copia de MongoDB). */
+    private final Map<String, String> learnedByKey = new ConcurrentHashMap<>();
+
+    public CityDictionary(
+            TextNormalizer textNormalizer,
+            MongoTemplate mongoTemplate,
+            @Value("${app.csv.cities.cache-size:20000}") int maxCacheSize,
+            @Value("${app.csv.cities.max-learned:5000}") int maxLearned) {
+        this.textNormalizer = textNormalizer;
+        this.mongoTemplate = mongoTemplate;
+        this.maxCacheSize = maxCacheSize;
+        this.maxLearned = maxLearned;
+
+        Map<String, String> dictionary = new HashMap<>();
+        for (String[][] table : new String[][][] {SEED_CITIES, COMMON_TYPOS}) {
+            for (String[] names : table) {
+                String canonical = names[0];
+                for (String name : names) {
+                    dictionary.putIfAbsent(key(name), canonical);
+                }
+            }
+        }
+        this.canonicalByKey = Map.copyOf(dictionary);
+        log.info("City dictionary initialized with {} canonical cities", SEED_CITIES.length);
+    }
+
+    /** Carga las ciudades aprendidas por cualquier nodo antes de la primera normalización. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadLearnedCities() {
+        try {
+            Query query = new Query().limit(maxLearned);
+            for (LearnedCity city : mongoTemplate.find(query, LearnedCity.class)) {
+                learnedByKey.putIfAbsent(city.getId(), city.getName());
+            }
+            log.info("Loaded {} learned cities", learnedByKey.size());
+        } catch (Exception e) {
+            log.warn("Could not load learned cities: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Resuelve una ciudad del CSV a su nombre canónico compartido.
+     *
+     * @param city Ciudad tal como viene en el CSV
+     * @return Nombre canónico, o null si el valor está vacío
+     */
+    public String canonicalize(String city) {
+        if (city == null) {
+            return null;
+        }
+
+        String cached = resolvedCache.get(city);
+        if (cached != null) {
+            return cached;
+        }
+
+        String key = key(city);
+        if (key.isEmpty()) {
+            return null;
+        }
+        String canonical = known(key);
+        if (canonical == null) {
+            canonical = learn(key, textNormalizer.capitalizeWords(city));
+        }
+        if (resolvedCache.size() < maxCacheSize) {
+            resolvedCache.putIfAbsent(city, canonical);
+        }
+        return canonical;
+    }
+
+    /**
+     * Resuelve una ciudad de una consulta sin tocar la caché de la normalización, para que el
+     * texto libre del chat no ocupe entradas.
+     *
+     * @param city Ciudad tal como la escribe el usuario
+     * @return El mismo nombre que {@link #canonicalize} daría al valor en un CSV, o null si está
+     *     vacío
+     */
+    public String lookup(String city) {
+        if (city == null) {
+            return null;
+        }
+        String key = key(city);
+        if (key.isEmpty()) {
+            return null;
+        }
+        String canonical = known(key);
+        return canonical != null ? canonical : textNormalizer.capitalizeWords(city);
+    }
+
+    // ==================== Helper Methods ====================
+
+    private String known(String key) {
+        String canonical = canonicalByKey.get(key);
+        return canonical != null ? canonical : learnedByKey.get(key);
+    }
+
+    /**
+     * Registra una ciudad nueva en MongoDB y devuelve el nombre guardado, que es el de la primera
+     * escritura con esa clave aunque la haya insertado otro nodo.
+     */
+    private String learn(String key, String candidate) {
+        String canonical;
+        try {
+            canonical = persist(key, candidate);
+        } catch (Exception e) {
+            log.warn("Could not persist learned city '{}': {}", candidate, e.getMessage());
+            return candidate;
+        }
+
+        if (learnedByKey.size() < maxLearned) {
+            String previous = learnedByKey.putIfAbsent(key, canonical);
+            return previous != null ? previous : canonical;
+        }
+        return canonical;
+    }
+
+    private String persist(String key, String candidate) {
+        try {
+            return upsert(key, candidate);
+        } catch (DuplicateKeyException e) {
+            // Otro nodo insertó la misma clave a la vez: el upsert ahora encuentra su documento
+            return upsert(key, candidate);
+        }
+    }
+
+    private String upsert(String key, String candidate) {
+        LearnedCity stored =
+                mongoTemplate.findAndModify(
+                        new Query(Criteria.where("_id").is(key)),
+                        new Update()
+                                .setOnInsert("name", candidate)
+                                .setOnInsert("createdAt", LocalDateTime.now()),
+                        FindAndModifyOptions.options().upsert(true).returnNew(true),
+                        LearnedCity.class);
+        return stored != null && stored.getName() != null ? stored.getName() : candidate;
+    }
+
+    /** Clave de búsqueda: sin acentos, en minúsculas y solo letras y dígitos. */
+    private String key(String city) {
+        String withoutAccents = textNormalizer.removeAccents(city);
+        StringBuilder key = new StringBuilder(withoutAccents.length());
+        for (int i = 0; i < withoutAccents.length(); i++) {
+            char c = withoutAccents.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                key.append(Character.toLowerCase(c));
+            }
+        }
+        return key.toString();
+    }
+}
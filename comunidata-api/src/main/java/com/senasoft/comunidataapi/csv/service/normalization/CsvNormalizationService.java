@@ -4,6 +4,7 @@ import com.senasoft.comunidataapi.csv.dto.request.RawCsvRowDTO;
 import com.senasoft.comunidataapi.csv.entity.CitizenReport;
 import java.io.InputStream;
 import java.util.List;
+import java.util.function.Consumer;
 
 /** Servicio para normalización de datos CSV de reportes ciudadanos. */
 public interface CsvNormalizationService {
@@ -17,6 +18,22 @@ public interface CsvNormalizationService {
      */
     List<CitizenReport> parseAndNormalizeCsv(InputStream inputStream, String batchId);
 
+    /**
+     * Parsea y normaliza un archivo CSV en modo streaming, entregando los reportes en chunks de
+     * tamaño fijo para que la memoria usada no dependa del tamaño del archivo.
+     *
+     * @param inputStream Stream del archivo CSV
+     * @param batchId ID del batch para tracking
+     * @param chunkSize Cantidad máxima de reportes por chunk
+     * @param chunkConsumer Consumidor que recibe cada chunk normalizado (en orden)
+     * @return Cantidad total de reportes normalizados
+     */
+    int streamAndNormalizeCsv(
+            InputStream inputStream,
+            String batchId,
+            int chunkSize,
+            Consumer<List<CitizenReport>> chunkConsumer);
+
     /**
      * Normaliza una fila individual del CSV.
      *
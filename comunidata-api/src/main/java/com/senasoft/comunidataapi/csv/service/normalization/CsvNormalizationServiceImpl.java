@@ -6,18 +6,23 @@ import com.senasoft.comunidataapi.csv.enums.ProblemCategory;
 import com.senasoft.comunidataapi.csv.enums.ProcessingStatus;
 import com.senasoft.comunidataapi.csv.enums.UrgencyLevel;
 import com.senasoft.comunidataapi.csv.enums.Zone;
-import java.io.BufferedReader;
+import jakarta.annotation.PreDestroy;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.text.Normalizer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
@@ -31,46 +36,120 @@ import org.springframework.stereotype.Service;
 @Service
 public class CsvNormalizationServiceImpl implements CsvNormalizationService {
 
-    private static final DateTimeFormatter[] DATE_FORMATTERS = {
-        DateTimeFormatter.ofPattern("yyyy-MM-dd"),
-        DateTimeFormatter.ofPattern("dd/MM/yyyy"),
-        DateTimeFormatter.ofPattern("MM/dd/yyyy"),
-        DateTimeFormatter.ofPattern("yyyy/MM/dd")
-    };
+    private static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    /** Pool donde se normalizan los chunks en paralelo (la lectura ocurre en el hilo llamador). */
+    private final ForkJoinPool normalizationPool;
+
+    /** Máximo de chunks en vuelo: acota la memoria mientras se mantiene el orden de entrega. */
+    private final int maxChunksInFlight;
+
+    private final TextNormalizer textNormalizer;
+
+    private final CityDictionary cityDictionary;
+
+    public CsvNormalizationServiceImpl(
+            TextNormalizer textNormalizer,
+            CityDictionary cityDictionary,
+            @Value("${app.csv.normalization.parallelism:0}") int parallelism) {
+        this.textNormalizer = textNormalizer;
+        this.cityDictionary = cityDictionary;
+        int effectiveParallelism =
+                parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.normalizationPool = new ForkJoinPool(effectiveParallelism);
+        this.maxChunksInFlight = effectiveParallelism * 2;
+        log.info("CSV normalization parallelism set to {}", effectiveParallelism);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        normalizationPool.shutdown();
+    }
 
     @Override
     public List<CitizenReport> parseAndNormalizeCsv(InputStream inputStream, String batchId) {
         List<CitizenReport> reports = new ArrayList<>();
+        streamAndNormalizeCsv(inputStream, batchId, DEFAULT_CHUNK_SIZE, reports::addAll);
+        return reports;
+    }
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-            String headerLine = reader.readLine(); // Skip header
-            if (headerLine == null) {
+    /**
+     * Pipeline de normalización: un único hilo lee y tokeniza el CSV en chunks de filas crudas,
+     * cada chunk se normaliza en el {@link ForkJoinPool}, y los resultados se entregan al
+     * consumidor en el mismo orden del archivo para que {@code batchIndex} siga siendo correcto.
+     */
+    @Override
+    public int streamAndNormalizeCsv(
+            InputStream inputStream,
+            String batchId,
+            int chunkSize,
+            Consumer<List<CitizenReport>> chunkConsumer) {
+        int normalizedCount = 0;
+        Deque<Future<List<CitizenReport>>> pendingChunks = new ArrayDeque<>();
+        FastDateParser dateParser = new FastDateParser();
+        List<RawCsvRowDTO> rawChunk = new ArrayList<>(chunkSize);
+
+        try (CsvRecordTokenizer tokenizer =
+                new CsvRecordTokenizer(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            if (!tokenizer.nextRecord()) { // Skip header
                 log.warn("CSV file is empty for batch {}", batchId);
-                return reports;
+                return 0;
             }
 
-            String line;
             int batchIndex = 0;
-            while ((line = reader.readLine()) != null) {
+            int chunkStartIndex = 0;
+            while (tokenizer.nextRecord()) {
                 try {
-                    RawCsvRowDTO rawRow = parseCsvLine(line);
-                    CitizenReport normalizedReport = normalizeRow(rawRow, batchId, batchIndex++);
-                    reports.add(normalizedReport);
+                    rawChunk.add(toRawRow(tokenizer));
+                    batchIndex++;
                 } catch (Exception e) {
-                    log.error("Error parsing CSV line at index {}: {}", batchIndex, line, e);
+                    log.error(
+                            "Error parsing CSV record at index {} (line {})",
+                            batchIndex,
+                            tokenizer.recordLineNumber(),
+                            e);
                 }
+
+                if (rawChunk.size() >= chunkSize) {
+                    pendingChunks.add(submitChunk(rawChunk, batchId, chunkStartIndex, dateParser));
+                    rawChunk = new ArrayList<>(chunkSize);
+                    chunkStartIndex = batchIndex;
+
+                    // Entregar en orden los chunks más antiguos si se alcanzó el límite en vuelo
+                    while (pendingChunks.size() >= maxChunksInFlight) {
+                        normalizedCount += deliverNext(pendingChunks, chunkConsumer);
+                    }
+                }
+            }
+
+            if (!rawChunk.isEmpty()) {
+                pendingChunks.add(submitChunk(rawChunk, batchId, chunkStartIndex, dateParser));
+            }
+            while (!pendingChunks.isEmpty()) {
+                normalizedCount += deliverNext(pendingChunks, chunkConsumer);
             }
         } catch (IOException e) {
             log.error("Error reading CSV file for batch {}", batchId, e);
             throw new RuntimeException("Failed to parse CSV file", e);
+        } finally {
+            pendingChunks.forEach(future -> future.cancel(true));
         }
 
-        log.info("Parsed and normalized {} reports from CSV for batch {}", reports.size(), batchId);
-        return reports;
+        log.info(
+                "Parsed and normalized {} reports from CSV for batch {}",
+                normalizedCount,
+                batchId);
+        return normalizedCount;
     }
 
     @Override
     public CitizenReport normalizeRow(RawCsvRowDTO rawRow, String batchId, Integer batchIndex) {
+        return normalizeRow(rawRow, batchId, batchIndex, new FastDateParser());
+    }
+
+    /** Normaliza una fila reutilizando el parser de fechas del lote. */
+    CitizenReport normalizeRow(
+            RawCsvRowDTO rawRow, String batchId, Integer batchIndex, FastDateParser dateParser) {
         return CitizenReport.builder()
                 .age(normalizeEdad(rawRow.getAge()))
                 .city(normalizeCiudad(rawRow.getCity()))
@@ -79,7 +158,7 @@ public class CsvNormalizationServiceImpl implements CsvNormalizationService {
                 .categoryProblem(ProblemCategory.fromString(rawRow.getCategoryProblem()))
                 .originalCategory(rawRow.getCategoryProblem())
                 .urgencyLevel(UrgencyLevel.fromString(rawRow.getUrgencyLevel()))
-                .reportDate(normalizeFecha(rawRow.getDateReport()))
+                .reportDate(normalizeFecha(rawRow.getDateReport(), dateParser))
                 .governmentPreAttention(normalizeBoolean(rawRow.getGovernmentPreAttention()))
                 .area(normalizeZona(rawRow.getRuralArea()))
                 .processingStatus(ProcessingStatus.PENDIENTE)
@@ -115,28 +194,12 @@ public class CsvNormalizationServiceImpl implements CsvNormalizationService {
     }
 
     /**
-     * Normaliza ciudad: - Capitaliza correctamente: "manizales" → "Manizales" - Normaliza acentos
-     * si es necesario - Trim espacios
+     * Normaliza ciudad: - Resuelve alias y variantes de acentos al nombre canónico ("bogota",
+     * "Bogotá D.C." → "Bogotá") - Capitaliza las ciudades nuevas: "manizales" → "Manizales" - Trim
+     * espacios
      */
     private String normalizeCiudad(String ciudad) {
-        if (ciudad == null || ciudad.trim().isEmpty()) {
-            return null;
-        }
-
-        String normalized = ciudad.trim();
-
-        // Capitalizar cada palabra
-        String[] words = normalized.split("\\s+");
-        StringBuilder result = new StringBuilder();
-        for (String word : words) {
-            if (!word.isEmpty()) {
-                result.append(Character.toUpperCase(word.charAt(0)))
-                        .append(word.substring(1).toLowerCase())
-                        .append(" ");
-            }
-        }
-
-        return result.toString().trim();
+        return cityDictionary.canonicalize(ciudad);
     }
 
     /**
@@ -144,48 +207,23 @@ public class CsvNormalizationServiceImpl implements CsvNormalizationService {
      * Normaliza múltiples espacios a uno solo - Mantiene puntuación básica (. , ! ?)
      */
     private String normalizeComentario(String comentario) {
-        if (comentario == null || comentario.trim().isEmpty()) {
-            return null;
-        }
-
-        String normalized = comentario.trim();
-
-        // Eliminar caracteres especiales repetitivos (###, @@@, etc.)
-        normalized = normalized.replaceAll("([#@*_=+\\-]{2,})", "");
-
-        // Normalizar múltiples espacios a uno solo
-        normalized = normalized.replaceAll("\\s+", " ");
-
-        // Normalizar múltiples puntos/exclamaciones/interrogaciones
-        normalized = normalized.replaceAll("\\.{2,}", ".");
-        normalized = normalized.replaceAll("!{2,}", "!");
-        normalized = normalized.replaceAll("\\?{2,}", "?");
-
-        return normalized.trim();
+        return textNormalizer.normalizeComment(comentario);
     }
 
     /**
      * Normaliza fecha: - Convierte a formato ISO: "11/08/2023" → "2023-08-11" - Valida que sea
-     * fecha válida - Soporta múltiples formatos de entrada
+     * fecha válida - Soporta múltiples formatos de entrada (ver {@link FastDateParser})
      */
-    private LocalDate normalizeFecha(String fecha) {
+    private LocalDate normalizeFecha(String fecha, FastDateParser dateParser) {
         if (fecha == null || fecha.trim().isEmpty()) {
             return null;
         }
 
-        String trimmedFecha = fecha.trim();
-
-        // Intentar parsear con diferentes formatos
-        for (DateTimeFormatter formatter : DATE_FORMATTERS) {
-            try {
-                return LocalDate.parse(trimmedFecha, formatter);
-            } catch (DateTimeParseException e) {
-                // Intentar siguiente formato
-            }
+        LocalDate parsed = dateParser.parse(fecha.trim());
+        if (parsed == null) {
+            log.warn("Could not parse fecha: {}", fecha);
         }
-
-        log.warn("Could not parse fecha: {}", fecha);
-        return null;
+        return parsed;
     }
 
     /**
@@ -224,45 +262,66 @@ public class CsvNormalizationServiceImpl implements CsvNormalizationService {
 
     // ==================== Helper Methods ====================
 
+    private Future<List<CitizenReport>> submitChunk(
+            List<RawCsvRowDTO> rawChunk,
+            String batchId,
+            int chunkStartIndex,
+            FastDateParser dateParser) {
+        return normalizationPool.submit(
+                () -> {
+                    List<CitizenReport> normalized = new ArrayList<>(rawChunk.size());
+                    for (int i = 0; i < rawChunk.size(); i++) {
+                        int batchIndex = chunkStartIndex + i;
+                        try {
+                            normalized.add(
+                                    normalizeRow(rawChunk.get(i), batchId, batchIndex, dateParser));
+                        } catch (Exception e) {
+                            log.error("Error normalizing CSV row at index {}", batchIndex, e);
+                        }
+                    }
+                    return normalized;
+                });
+    }
+
+    /** Espera el chunk más antiguo en vuelo y lo entrega al consumidor. */
+    private int deliverNext(
+            Deque<Future<List<CitizenReport>>> pendingChunks,
+            Consumer<List<CitizenReport>> chunkConsumer) {
+        try {
+            List<CitizenReport> chunk = pendingChunks.poll().get();
+            if (!chunk.isEmpty()) {
+                chunkConsumer.accept(chunk);
+            }
+            return chunk.size();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("CSV normalization interrupted", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to normalize CSV chunk", e.getCause());
+        }
+    }
+
     /**
-     * Parsea una línea del CSV en un objeto RawCsvRowDTO.
+     * Convierte el registro actual del tokenizador en un objeto RawCsvRowDTO.
      *
      * <p>Estructura esperada: ID, Nombre, Edad, Género, Ciudad, Comentario, Categoría del problema,
      * Nivel de urgencia, Fecha del reporte, Acceso a internet, Atención previa del gobierno, Zona
      * rural
      */
-    private RawCsvRowDTO parseCsvLine(String line) {
-        // Split considerando que puede haber comas dentro de campos entre comillas
-        String[] fields = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)", -1);
-
-        // Limpiar comillas de los campos
-        for (int i = 0; i < fields.length; i++) {
-            fields[i] = fields[i].trim().replaceAll("^\"|\"$", "");
-        }
-
+    private RawCsvRowDTO toRawRow(CsvRecordTokenizer tokenizer) {
         return RawCsvRowDTO.builder()
-                .id(getField(fields, 0))
-                .name(getField(fields, 1))
-                .age(getField(fields, 2))
-                .gender(getField(fields, 3))
-                .city(getField(fields, 4))
-                .comment(getField(fields, 5))
-                .categoryProblem(getField(fields, 6))
-                .urgencyLevel(getField(fields, 7))
-                .dateReport(getField(fields, 8))
-                .internetAccess(getField(fields, 9))
-                .governmentPreAttention(getField(fields, 10))
-                .ruralArea(getField(fields, 11))
+                .id(tokenizer.field(0))
+                .name(tokenizer.field(1))
+                .age(tokenizer.field(2))
+                .gender(tokenizer.field(3))
+                .city(tokenizer.field(4))
+                .comment(tokenizer.field(5))
+                .categoryProblem(tokenizer.field(6))
+                .urgencyLevel(tokenizer.field(7))
+                .dateReport(tokenizer.field(8))
+                .internetAccess(tokenizer.field(9))
+                .governmentPreAttention(tokenizer.field(10))
+                .ruralArea(tokenizer.field(11))
                 .build();
     }
-
-    private String getField(String[] fields, int index) {
-        return index < fields.length ? fields[index] : null;
-    }
-
-    /** Normaliza texto removiendo acentos (útil para búsquedas). */
-    private String removeAccents(String text) {
-        if (text == null) return null;
-        return Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
-    }
 }
@@ -0,0 +1,261 @@
+package com.senasoft.comunidataapi.csv.service.normalization;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Tokenizador CSV de una sola pasada basado en una máquina de estados (RFC 4180).
+ *
+ * <p>Lee directamente sobre un buffer de caracteres propio, sin {@code BufferedReader} ni
+ * expresiones regulares, y soporta: - Campos entre comillas con comas internas - Comillas escapadas
+ * ({@code ""}) - Campos entre comillas que contienen saltos de línea - Finales de línea {@code \n},
+ * {@code \r\n} y {@code \r}
+ *
+ * <p>Los buffers de los campos se reutilizan entre registros, por lo que tokenizar no asigna
+ * memoria por fila; solo se crea un {@code String} cuando se consulta un campo con {@link
+ * #field(int)}. Los campos sin comillas se recortan (trim) igual que el parser anterior; el
+ * contenido de los campos entre comillas se respeta tal cual.
+ *
+ * <p>No es thread-safe: se crea una instancia por archivo.
+ */
+public final class CsvRecordTokenizer implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int INITIAL_FIELDS = 16;
+    private static final int INITIAL_FIELD_CAPACITY = 64;
+    private static final int EOF = -1;
+
+    // Estados de la máquina
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3;
+    private static final int AFTER_QUOTED = 4;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+
+    private StringBuilder[] fields = new StringBuilder[INITIAL_FIELDS];
+    private boolean[] quotedFields = new boolean[INITIAL_FIELDS];
+    private int fieldCount;
+
+    private long lineNumber = 1;
+    private long recordLineNumber;
+
+    public CsvRecordTokenizer(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Avanza al siguiente registro del archivo. Las líneas completamente vacías se omiten.
+     *
+     * @return true si se leyó un registro, false si se llegó al final del archivo
+     */
+    public boolean nextRecord() throws IOException {
+        while (readRecord()) {
+            if (fieldCount > 1 || quotedFields[0] || fields[0].length() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Cantidad de campos del registro actual. */
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Retorna el campo en la posición indicada del registro actual.
+     *
+     * @return Valor del campo, o null si el registro no tiene esa columna
+     */
+    public String field(int index) {
+        return index < fieldCount ? fields[index].toString() : null;
+    }
+
+    /** Número de línea física (empezando en 1) donde inicia el registro actual. */
+    public long recordLineNumber() {
+        return recordLineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // ==================== Máquina de estados ====================
+
+    private boolean readRecord() throws IOException {
+        int c = read();
+        if (c == EOF) {
+            return false;
+        }
+
+        recordLineNumber = lineNumber;
+        fieldCount = 0;
+        StringBuilder field = startField();
+        int state = FIELD_START;
+
+        while (true) {
+            switch (state) {
+                case FIELD_START:
+                    if (c == '"') {
+                        quotedFields[fieldCount - 1] = true;
+                        state = QUOTED;
+                    } else if (c == ',') {
+                        field = startField();
+                    } else if (c == '\n' || c == '\r' || c == EOF) {
+                        consumeLineEnd(c);
+                        return true;
+                    } else if (c > ' ') {
+                        field.append((char) c);
+                        state = UNQUOTED;
+                    }
+                    // Espacios iniciales se ignoran (equivalente al trim anterior)
+                    break;
+
+                case UNQUOTED:
+                    if (c == ',') {
+                        trimTrailing(field);
+                        field = startField();
+                        state = FIELD_START;
+                    } else if (c == '\n' || c == '\r' || c == EOF) {
+                        trimTrailing(field);
+                        consumeLineEnd(c);
+                        return true;
+                    } else {
+                        field.append((char) c);
+                    }
+                    break;
+
+                case QUOTED:
+                    if (c == '"') {
+                        state = QUOTE_IN_QUOTED;
+                    } else if (c == EOF) {
+                        // Comilla sin cerrar al final del archivo: se conserva lo leído
+                        return true;
+                    } else {
+                        if (c == '\n' || (c == '\r' && peek() != '\n')) {
+                            lineNumber++;
+                        }
+                        field.append((char) c);
+                    }
+                    break;
+
+                case QUOTE_IN_QUOTED:
+                    if (c == '"') {
+                        field.append('"');
+                        state = QUOTED;
+                    } else if (c == ',') {
+                        field = startField();
+                        state = FIELD_START;
+                    } else if (c == '\n' || c == '\r' || c == EOF) {
+                        consumeLineEnd(c);
+                        return true;
+                    } else if (c <= ' ') {
+                        state = AFTER_QUOTED;
+                    } else {
+                        // Texto después de la comilla de cierre: se acepta de forma tolerante
+                        field.append((char) c);
+                        state = UNQUOTED;
+                    }
+                    break;
+
+                case AFTER_QUOTED:
+                    if (c == ',') {
+                        field = startField();
+                        state = FIELD_START;
+                    } else if (c == '\n' || c == '\r' || c == EOF) {
+                        consumeLineEnd(c);
+                        return true;
+                    } else if (c > ' ') {
+                        field.append((char) c);
+                        state = UNQUOTED;
+                    }
+                    break;
+
+                default:
+                    throw new IllegalStateException("Estado de tokenizador inválido: " + state);
+            }
+            c = read();
+        }
+    }
+
+    /** Prepara (reutilizando si existe) el buffer del siguiente campo del registro. */
+    private StringBuilder startField() {
+        if (fieldCount == fields.length) {
+            StringBuilder[] grownFields = new StringBuilder[fields.length * 2];
+            System.arraycopy(fields, 0, grownFields, 0, fields.length);
+            fields = grownFields;
+            boolean[] grownQuoted = new boolean[quotedFields.length * 2];
+            System.arraycopy(quotedFields, 0, grownQuoted, 0, quotedFields.length);
+            quotedFields = grownQuoted;
+        }
+
+        StringBuilder field = fields[fieldCount];
+        if (field == null) {
+            field = new StringBuilder(INITIAL_FIELD_CAPACITY);
+            fields[fieldCount] = field;
+        } else {
+            field.setLength(0);
+        }
+        quotedFields[fieldCount] = false;
+        fieldCount++;
+        return field;
+    }
+
+    private void trimTrailing(StringBuilder field) {
+        int length = field.length();
+        while (length > 0 && field.charAt(length - 1) <= ' ') {
+            length--;
+        }
+        field.setLength(length);
+    }
+
+    private void consumeLineEnd(int c) throws IOException {
+        if (c == EOF) {
+            return;
+        }
+        if (c == '\r' && peek() == '\n') {
+            position++;
+        }
+        lineNumber++;
+    }
+
+    // ==================== Buffer de lectura ====================
+
+    private int read() throws IOException {
+        if (position >= limit && !fill()) {
+            return EOF;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position >= limit && !fill()) {
+            return EOF;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        if (endOfInput) {
+            return false;
+        }
+        int read = reader.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            endOfInput = true;
+            position = 0;
+            limit = 0;
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
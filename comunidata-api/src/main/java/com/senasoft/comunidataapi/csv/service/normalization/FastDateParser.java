@@ -0,0 +1,134 @@
+package com.senasoft.comunidataapi.csv.service.normalization;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Parser de fechas del CSV que detecta el formato por la posición de los separadores y convierte
+ * los dígitos directamente, sin usar excepciones como control de flujo.
+ *
+ * <p>Mantiene la semántica de los formatos anteriores, en el mismo orden de prioridad: {@code
+ * yyyy-MM-dd}, {@code dd/MM/yyyy}, {@code MM/dd/yyyy} y {@code yyyy/MM/dd}. Igual que el resolver
+ * SMART de {@link DateTimeFormatter}, un día 29-31 inexistente en el mes se ajusta al último día
+ * ("31/02/2023" → 2023-02-28). Las entradas que no encajan en ninguna forma conocida se delegan a
+ * los {@link DateTimeFormatter} originales.
+ *
+ * <p>Se crea una instancia por lote: recuerda la última forma reconocida para probarla primero en
+ * las filas siguientes. Puede compartirse entre los hilos del lote porque la forma recordada es
+ * solo una pista.
+ */
+final class FastDateParser {
+
+    private static final DateTimeFormatter[] FALLBACK_FORMATTERS = {
+        DateTimeFormatter.ofPattern("yyyy-MM-dd"),
+        DateTimeFormatter.ofPattern("dd/MM/yyyy"),
+        DateTimeFormatter.ofPattern("MM/dd/yyyy"),
+        DateTimeFormatter.ofPattern("yyyy/MM/dd")
+    };
+
+    private static final int DATE_LENGTH = 10;
+
+    /** Formas reconocidas por posición de separadores (son mutuamente excluyentes). */
+    private enum Shape {
+        /** {@code yyyy-MM-dd} o {@code yyyy/MM/dd}. */
+        YEAR_FIRST,
+        /** {@code dd/MM/yyyy}, o {@code MM/dd/yyyy} si la primera interpretación no es válida. */
+        YEAR_LAST
+    }
+
+    private volatile Shape lastShape = Shape.YEAR_LAST;
+
+    /**
+     * Convierte una fecha en texto a {@link LocalDate}.
+     *
+     * @param text Fecha ya recortada (trim)
+     * @return Fecha resultante, o null si no es válida en ningún formato soportado
+     */
+    LocalDate parse(String text) {
+        Shape first = lastShape;
+        Shape second = first == Shape.YEAR_LAST ? Shape.YEAR_FIRST : Shape.YEAR_LAST;
+
+        if (matches(first, text)) {
+            return parse(first, text);
+        }
+        if (matches(second, text)) {
+            lastShape = second;
+            return parse(second, text);
+        }
+        return parseWithFormatters(text);
+    }
+
+    // ==================== Helper Methods ====================
+
+    private static boolean matches(Shape shape, String text) {
+        if (text.length() != DATE_LENGTH) {
+            return false;
+        }
+        if (shape == Shape.YEAR_FIRST) {
+            char separator = text.charAt(4);
+            return (separator == '-' || separator == '/')
+                    && text.charAt(7) == separator
+                    && areDigits(text, 0, 4)
+                    && areDigits(text, 5, 7)
+                    && areDigits(text, 8, 10);
+        }
+        return text.charAt(2) == '/'
+                && text.charAt(5) == '/'
+                && areDigits(text, 0, 2)
+                && areDigits(text, 3, 5)
+                && areDigits(text, 6, 10);
+    }
+
+    private static LocalDate parse(Shape shape, String text) {
+        if (shape == Shape.YEAR_FIRST) {
+            return resolve(number(text, 0, 4), number(text, 5, 7), number(text, 8, 10));
+        }
+
+        int first = number(text, 0, 2);
+        int second = number(text, 3, 5);
+        int year = number(text, 6, 10);
+        LocalDate dayFirst = resolve(year, second, first);
+        return dayFirst != null ? dayFirst : resolve(year, first, second);
+    }
+
+    /** Valida rangos y ajusta el día al último del mes, como el resolver SMART. */
+    private static LocalDate resolve(int year, int month, int day) {
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return null;
+        }
+        int monthLength = Month.of(month).length(Year.isLeap(year));
+        return LocalDate.of(year, month, Math.min(day, monthLength));
+    }
+
+    private static LocalDate parseWithFormatters(String text) {
+        for (DateTimeFormatter formatter : FALLBACK_FORMATTERS) {
+            try {
+                return LocalDate.parse(text, formatter);
+            } catch (DateTimeParseException e) {
+                // Intentar siguiente formato
+            }
+        }
+        return null;
+    }
+
+    private static boolean areDigits(String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int number(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,182 @@
+package com.senasoft.comunidataapi.csv.service.normalization;
+
+import java.text.Normalizer;
+import java.util.regex.Pattern;
+import org.springframework.stereotype.Component;
+
+/**
+ * Normalizadores de texto de bajo costo para comentarios y ciudades.
+ *
+ * <p>Reemplaza las cadenas de {@code String.replaceAll} (que recompilaban su regex en cada
+ * llamada) por un recorrido de una sola pasada sobre los caracteres. Cada método asigna como máximo
+ * un {@code char[]} de trabajo y el {@code String} resultante; si el texto ya está normalizado se
+ * retorna la misma instancia recibida.
+ *
+ * <p>Es stateless y thread-safe: se comparte entre los hilos de normalización.
+ */
+@Component
+public class TextNormalizer {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    /**
+     * Normaliza un comentario en una sola pasada, con el mismo resultado que la versión anterior
+     * basada en regex: - Elimina secuencias de 2+ símbolos {@code # @ * _ = + -} - Colapsa espacios
+     * en blanco consecutivos a uno solo - Colapsa {@code ..}, {@code !!} y {@code ??} repetidos -
+     * Trim de los extremos
+     *
+     * @return Comentario normalizado, o null si está vacío
+     */
+    public String normalizeComment(String comment) {
+        if (isBlank(comment)) {
+            return null;
+        }
+
+        int length = comment.length();
+        char[] out = new char[length];
+        int size = 0;
+        boolean modified = false;
+
+        int i = 0;
+        while (i < length) {
+            char c = comment.charAt(i);
+
+            if (isNoiseSymbol(c)) {
+                int runEnd = i + 1;
+                while (runEnd < length && isNoiseSymbol(comment.charAt(runEnd))) {
+                    runEnd++;
+                }
+                if (runEnd - i >= 2) {
+                    // Secuencia de símbolos (###, @@@, -=-=): se descarta completa
+                    modified = true;
+                } else {
+                    out[size++] = c;
+                }
+                i = runEnd;
+                continue;
+            }
+
+            char previous = size > 0 ? out[size - 1] : 0;
+            if (isRegexWhitespace(c)) {
+                if (previous == ' ') {
+                    modified = true;
+                } else {
+                    out[size++] = ' ';
+                    modified |= c != ' ';
+                }
+            } else if ((c == '.' || c == '!' || c == '?') && previous == c) {
+                modified = true;
+            } else {
+                out[size++] = c;
+            }
+            i++;
+        }
+
+        int start = 0;
+        while (start < size && out[start] <= ' ') {
+            start++;
+        }
+        int end = size;
+        while (end > start && out[end - 1] <= ' ') {
+            end--;
+        }
+
+        if (!modified && start == 0 && end == length) {
+            return comment;
+        }
+        return new String(out, start, end - start);
+    }
+
+    /**
+     * Capitaliza cada palabra de una ciudad en un solo recorrido: "san JOSÉ  del guaviare" → "San
+     * José Del Guaviare". Colapsa los espacios entre palabras y hace trim.
+     *
+     * @return Ciudad capitalizada, o null si está vacía
+     */
+    public String capitalizeWords(String text) {
+        if (isBlank(text)) {
+            return null;
+        }
+
+        int start = 0;
+        int end = text.length();
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        char[] out = new char[end - start];
+        int size = 0;
+        boolean wordStart = true;
+        boolean modified = start != 0 || end != text.length();
+
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            char mapped;
+            if (isRegexWhitespace(c)) {
+                if (wordStart) {
+                    modified = true;
+                    continue;
+                }
+                mapped = ' ';
+                wordStart = true;
+            } else if (wordStart) {
+                mapped = Character.toUpperCase(c);
+                wordStart = false;
+            } else {
+                mapped = Character.toLowerCase(c);
+            }
+            modified |= mapped != c;
+            out[size++] = mapped;
+        }
+
+        return modified ? new String(out, 0, size) : text;
+    }
+
+    /**
+     * Remueve acentos y demás marcas diacríticas ("Bogotá" → "Bogota"). Los textos ASCII se
+     * retornan sin pasar por {@link Normalizer}.
+     */
+    public String removeAccents(String text) {
+        if (text == null || isAscii(text)) {
+            return text;
+        }
+        return COMBINING_MARKS
+                .matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("");
+    }
+
+    // ==================== Helper Methods ====================
+
+    private static boolean isNoiseSymbol(char c) {
+        return c == '#' || c == '@' || c == '*' || c == '_' || c == '=' || c == '+' || c == '-';
+    }
+
+    /** Mismo conjunto que {@code \s} en {@link Pattern} (sin UNICODE_CHARACTER_CLASS). */
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isBlank(String text) {
+        if (text == null) {
+            return true;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,157 @@
+package com.senasoft.comunidataapi.csv.service.processing;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Límite de llamadas simultáneas que se ajusta con AIMD (aumento aditivo, disminución
+ * multiplicativa).
+ *
+ * <p>Cada llamada exitosa suma {@code 1 / límite}, es decir, un permiso más por cada "ronda" de
+ * llamadas completas. Una respuesta 429/5xx, un timeout o una latencia por unidad de trabajo mayor
+ * a {@code latencyTolerance} veces el promedio multiplican el límite por {@code backoffRatio}. La
+ * latencia se compara por unidad (p. ej. por reporte) para que una llamada más grande que las
+ * anteriores no parezca sobrecarga. Las señales de sobrecarga que llegan dentro de la misma ronda
+ * (una latencia promedio de llamada desde la última disminución) cuentan una sola vez, porque suelen
+ * ser la misma congestión vista por varias llamadas.
+ *
+ * <p>No depende de Spring, por lo que se puede probar de forma aislada.
+ */
+public class AimdConcurrencyLimiter {
+
+    /** Peso de cada latencia nueva en el promedio móvil. */
+    private static final double LATENCY_SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition permitReleased = lock.newCondition();
+
+    private double limit;
+    private int inFlight;
+    private double averageCallNanos;
+    private double averageUnitNanos;
+    private long lastDecreaseNanos;
+
+    /**
+     * @param initialLimit Llamadas simultáneas al iniciar
+     * @param minLimit Mínimo al que puede bajar el límite
+     * @param maxLimit Máximo al que puede subir el límite
+     * @param backoffRatio Factor que se aplica al límite ante sobrecarga (p. ej. 0.5)
+     * @param latencyTolerance Veces la latencia promedio por unidad que ya se considera sobrecarga
+     */
+    public AimdConcurrencyLimiter(
+            int initialLimit,
+            int minLimit,
+            int maxLimit,
+            double backoffRatio,
+            double latencyTolerance) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException(
+                    "Invalid concurrency bounds: min " + minLimit + ", max " + maxLimit);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /** Espera hasta que haya un permiso libre según el límite actual. */
+    public void acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            while (inFlight >= (int) limit) {
+                permitReleased.await();
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Libera el permiso de una llamada que terminó, con o sin éxito. */
+    public void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Registra una llamada exitosa y su latencia.
+     *
+     * @param workUnits Trabajo que hizo la llamada (p. ej. reportes del lote); la latencia se
+     *     compara dividida por este valor
+     */
+    public void onSuccess(long latency, TimeUnit unit, int workUnits) {
+        long latencyNanos = unit.toNanos(latency);
+        double unitNanos = (double) latencyNanos / Math.max(1, workUnits);
+        lock.lock();
+        try {
+            boolean slow = averageUnitNanos > 0 && unitNanos > averageUnitNanos * latencyTolerance;
+            averageCallNanos = smooth(averageCallNanos, latencyNanos);
+            averageUnitNanos = smooth(averageUnitNanos, unitNanos);
+            if (slow) {
+                decrease();
+            } else {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+                permitReleased.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Registra una respuesta de sobrecarga: 429, 5xx o timeout. */
+    public void onOverload() {
+        lock.lock();
+        try {
+            decrease();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Límite actual de llamadas simultáneas. */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    /** Disminuye el límite, como máximo una vez por latencia promedio de llamada. */
+    private void decrease() {
+        long now = System.nanoTime();
+        if (lastDecreaseNanos != 0 && now - lastDecreaseNanos < averageCallNanos) {
+            return;
+        }
+        lastDecreaseNanos = now;
+        limit = Math.max(minLimit, Math.floor(limit * backoffRatio));
+    }
+
+    private static double smooth(double average, double sample) {
+        return average == 0 ? sample : average + LATENCY_SMOOTHING * (sample - average);
+    }
+}
@@ -0,0 +1,98 @@
+package com.senasoft.comunidataapi.csv.service.processing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * Executors para tareas que pasan casi todo su tiempo bloqueadas en I/O: llamadas a IBM Granite,
+ * OpenAI y MongoDB.
+ *
+ * <p>Con {@code spring.threads.virtual.enabled} cada tarea corre en su propio hilo virtual, que se
+ * desmonta del hilo de plataforma mientras espera la respuesta; sin él, en un pool fijo de hilos de
+ * plataforma. En ambos casos la concurrencia hacia el proveedor la acota quien envía las tareas
+ * (un {@link Semaphore} en {@link #fanOut} o el {@link AimdConcurrencyLimiter}), no el tamaño del
+ * pool.
+ */
+public final class BlockingTaskExecutors {
+
+    private BlockingTaskExecutors() {}
+
+    /**
+     * Crea el executor de un servicio.
+     *
+     * @param name Prefijo de los nombres de hilo
+     * @param platformThreads Tamaño del pool cuando no se usan hilos virtuales
+     * @param virtualThreads Si cada tarea corre en un hilo virtual
+     */
+    public static ExecutorService newExecutor(
+            String name, int platformThreads, boolean virtualThreads) {
+        if (virtualThreads) {
+            return Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name(name + "-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(
+                platformThreads, Thread.ofPlatform().name(name + "-", 0).factory());
+    }
+
+    /**
+     * Ejecuta {@code task} para cada elemento, con como máximo {@code maxConcurrency} a la vez, y
+     * espera a que terminen todas.
+     *
+     * <p>Las subtareas no sobreviven a la llamada: si una falla, o si el hilo que espera se
+     * interrumpe, se cancelan las pendientes antes de retornar, igual que un {@code
+     * StructuredTaskScope.ShutdownOnFailure} (que en Java 21 todavía es preview).
+     *
+     * @return Resultados en el orden de {@code items}
+     * @throws CompletionException Con la causa de la primera subtarea que falló
+     */
+    public static <T, R> List<R> fanOut(
+            ExecutorService executor, List<T> items, int maxConcurrency, Function<T, R> task)
+            throws InterruptedException {
+        Semaphore permits = new Semaphore(Math.max(1, maxConcurrency));
+        CompletionService<R> completionService = new ExecutorCompletionService<>(executor);
+        Map<Future<R>, Integer> positions = new IdentityHashMap<>(items.size());
+
+        try {
+            for (int i = 0; i < items.size(); i++) {
+                T item = items.get(i);
+                Future<R> future =
+                        completionService.submit(
+                                () -> {
+                                    permits.acquire();
+                                    try {
+                                        return task.apply(item);
+                                    } finally {
+                                        permits.release();
+                                    }
+                                });
+                positions.put(future, i);
+            }
+
+            List<R> results = new ArrayList<>(Collections.nCopies(items.size(), null));
+            for (int i = 0; i < items.size(); i++) {
+                Future<R> done = completionService.take();
+                try {
+                    results.set(positions.get(done), done.get());
+                } catch (ExecutionException e) {
+                    throw new CompletionException(e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            // No-op para las que ya terminaron
+            positions.keySet().forEach(future -> future.cancel(true));
+        }
+    }
+}
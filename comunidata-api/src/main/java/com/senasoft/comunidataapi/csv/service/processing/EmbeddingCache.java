@@ -0,0 +1,202 @@
+package com.senasoft.comunidataapi.csv.service.processing;
+
+import com.senasoft.comunidataapi.csv.config.MongoVectorStoreConfig;
+import com.senasoft.comunidataapi.csv.dto.response.EmbeddingCacheStatsDTO;
+import com.senasoft.comunidataapi.csv.entity.EmbeddingCacheEntry;
+import com.senasoft.comunidataapi.csv.entity.EmbeddingVector;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+/**
+ * Caché de embeddings por contenido, en dos niveles.
+ *
+ * <p>La clave es el SHA-256 de {@code modelo + texto a embeber}: comentarios duplicados y
+ * recargas del mismo CSV reutilizan el vector ya calculado. Niveles: - Memoria: LRU acotada por
+ * {@code app.embedding.cache.max-entries} - MongoDB: colección {@code embedding_cache}, compartida
+ * entre nodos y persistente entre reinicios (TTL de 90 días)
+ *
+ * <p>Una falla del nivel persistente solo se registra: nunca impide generar el embedding.
+ */
+@Slf4j
+@Component
+public class EmbeddingCache {
+
+    private static final String MODEL = MongoVectorStoreConfig.EMBEDDING_MODEL;
+    private static final int CHARS_PER_TOKEN = 3;
+
+    private final MongoTemplate mongoTemplate;
+    private final int maxEntries;
+    private final Map<String, float[]> memory;
+
+    private final LongAdder memoryHits = new LongAdder();
+    private final LongAdder persistentHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder savedTokens = new LongAdder();
+
+    public EmbeddingCache(
+            MongoTemplate mongoTemplate,
+            @Value("${app.embedding.cache.max-entries:5000}") int maxEntries) {
+        this.mongoTemplate = mongoTemplate;
+        this.maxEntries = maxEntries;
+        this.memory =
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+                        return size() > EmbeddingCache.this.maxEntries;
+                    }
+                };
+    }
+
+    /** Busca el embedding de un texto. */
+    public float[] get(String text) {
+        return lookup(List.of(text))[0];
+    }
+
+    /**
+     * Busca los embeddings de varios textos con una sola consulta al nivel persistente.
+     *
+     * @return Arreglo alineado con {@code texts}; las posiciones sin embedding en caché son null
+     */
+    public float[][] lookup(List<String> texts) {
+        float[][] vectors = new float[texts.size()][];
+        Map<String, List<Integer>> missingPositions = new HashMap<>();
+        String[] keys = texts.stream().map(EmbeddingCache::key).toArray(String[]::new);
+
+        synchronized (memory) {
+            for (int i = 0; i < texts.size(); i++) {
+                String key = keys[i];
+                float[] vector = memory.get(key);
+                if (vector != null) {
+                    vectors[i] = vector;
+                    memoryHits.increment();
+                    savedTokens.add(estimateTokens(texts.get(i)));
+                } else {
+                    missingPositions.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+                }
+            }
+        }
+
+        if (!missingPositions.isEmpty()) {
+            for (EmbeddingCacheEntry entry : findPersisted(missingPositions.keySet())) {
+                float[] vector = entry.getVector().toFloatArray();
+                rememberInMemory(entry.getId(), vector);
+                for (int position : missingPositions.remove(entry.getId())) {
+                    vectors[position] = vector;
+                    persistentHits.increment();
+                    savedTokens.add(estimateTokens(texts.get(position)));
+                }
+            }
+            missingPositions.values().forEach(positions -> misses.add(positions.size()));
+        }
+        return vectors;
+    }
+
+    /** Guarda el embedding de un texto en ambos niveles. */
+    public void put(String text, float[] vector) {
+        putAll(List.of(text), List.of(vector));
+    }
+
+    /** Guarda varios embeddings en ambos niveles con un solo bulk write. */
+    public void putAll(List<String> texts, List<float[]> vectors) {
+        if (texts.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulkOps =
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, EmbeddingCacheEntry.class);
+        for (int i = 0; i < texts.size(); i++) {
+            String key = key(texts.get(i));
+            rememberInMemory(key, vectors.get(i));
+            bulkOps.upsert(
+                    new Query(Criteria.where("_id").is(key)),
+                    new Update()
+                            .setOnInsert("model", MODEL)
+                            .setOnInsert("vector", EmbeddingVector.of(vectors.get(i)))
+                            .setOnInsert("createdAt", now));
+        }
+
+        try {
+            bulkOps.execute();
+        } catch (Exception e) {
+            log.warn("Could not persist {} embeddings in cache: {}", texts.size(), e.getMessage());
+        }
+    }
+
+    /** Métricas acumuladas desde el inicio del nodo. */
+    public EmbeddingCacheStatsDTO getStats() {
+        long fromMemory = memoryHits.sum();
+        long fromMongo = persistentHits.sum();
+        long missed = misses.sum();
+        long lookups = fromMemory + fromMongo + missed;
+        int entries;
+        synchronized (memory) {
+            entries = memory.size();
+        }
+
+        return EmbeddingCacheStatsDTO.builder()
+                .model(MODEL)
+                .memoryHits(fromMemory)
+                .persistentHits(fromMongo)
+                .misses(missed)
+                .hitRate(lookups > 0 ? (double) (fromMemory + fromMongo) / lookups : 0.0)
+                .savedTokens(savedTokens.sum())
+                .memoryEntries(entries)
+                .memoryCapacity(maxEntries)
+                .build();
+    }
+
+    // ==================== Helper Methods ====================
+
+    private List<EmbeddingCacheEntry> findPersisted(Collection<String> keys) {
+        try {
+            return mongoTemplate.find(
+                            new Query(Criteria.where("_id").in(keys)), EmbeddingCacheEntry.class)
+                    .stream()
+                    .filter(entry -> entry.getVector() != null)
+                    .toList();
+        } catch (Exception e) {
+            log.warn("Could not read embedding cache from MongoDB: {}", e.getMessage());
+            return List.of();
+        }
+    }
+
+    private void rememberInMemory(String key, float[] vector) {
+        synchronized (memory) {
+            memory.put(key, vector);
+        }
+    }
+
+    private static String key(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(MODEL.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static long estimateTokens(String text) {
+        return text.length() / CHARS_PER_TOKEN + 1;
+    }
+}
@@ -1,15 +1,24 @@
 package com.senasoft.comunidataapi.csv.service.processing;
 
 import com.senasoft.comunidataapi.csv.entity.CitizenReport;
+import com.senasoft.comunidataapi.csv.entity.EmbeddingVector;
 import com.senasoft.comunidataapi.csv.enums.ProcessingStatus;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.embedding.Embedding;
 import org.springframework.ai.embedding.EmbeddingModel;
 import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
@@ -17,49 +26,143 @@ import org.springframework.stereotype.Service;
  *
  * <p>Usa OpenAI text-embedding-3-small (1536 dimensiones) para generar embeddings vectoriales de
  * los comentarios de reportes ciudadanos.
+ *
+ * <p>Los reportes se agrupan en requests de varios inputs, acotados por cantidad ({@code
+ * app.embedding.batch.max-inputs}) y por tokens estimados ({@code app.embedding.batch.max-tokens}),
+ * y hasta {@code app.embedding.batch.concurrency} requests se ejecutan en paralelo (en hilos
+ * virtuales con {@code spring.threads.virtual.enabled}). Si el proveedor rechaza un request por un
+ * input inválido (400) o no retorna algún índice, esos reportes se reintentan uno a uno para aislar
+ * el error. Ante sobrecarga (429, 5xx, timeout) no se reintenta aquí: los reportes quedan en
+ * PROCESANDO_IA y la cola de trabajo los retoma en un ciclo posterior.
+ *
+ * <p>Antes de llamar al proveedor se consulta la {@link EmbeddingCache}, y los textos repetidos
+ * dentro de la misma llamada se envían una sola vez.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class EmbeddingGenerationServiceImpl implements EmbeddingGenerationService {
 
+    /** Estimación conservadora para español: ~3 caracteres por token. */
+    private static final int CHARS_PER_TOKEN = 3;
+
     private final EmbeddingModel embeddingModel;
+    private final EmbeddingCache embeddingCache;
+
+    @Value("${app.embedding.batch.max-inputs:256}")
+    private int maxInputsPerRequest;
+
+    @Value("${app.embedding.batch.max-tokens:100000}")
+    private int maxTokensPerRequest;
+
+    @Value("${app.embedding.batch.concurrency:4}")
+    private int concurrency;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ExecutorService executorService;
+
+    @PostConstruct
+    void initExecutor() {
+        executorService =
+                BlockingTaskExecutors.newExecutor("embedding", concurrency, virtualThreads);
+    }
+
+    @PreDestroy
+    void shutdownExecutor() {
+        executorService.shutdown();
+    }
 
     @Override
     public List<CitizenReport> generateEmbeddings(List<CitizenReport> reports) {
         log.info("Generating embeddings for {} reports", reports.size());
 
-        List<CitizenReport> processedReports = new ArrayList<>();
-
+        List<CitizenReport> embeddable = new ArrayList<>(reports.size());
+        List<String> texts = new ArrayList<>(reports.size());
         for (CitizenReport report : reports) {
-            try {
-                CitizenReport processedReport = generateEmbedding(report);
-                processedReports.add(processedReport);
-            } catch (Exception e) {
-                log.error("Error generating embedding for report {}", report.getId(), e);
-                report.setProcessingStatus(ProcessingStatus.ERROR);
-                report.setErrorMessage("Error generando embedding: " + e.getMessage());
-                processedReports.add(report);
+            if (hasComment(report)) {
+                embeddable.add(report);
+                texts.add(buildEmbeddingText(report));
+            } else {
+                markWithoutComment(report);
             }
         }
 
+        // Resolver desde la caché y agrupar los faltantes por texto para enviar cada uno una vez
+        float[][] cachedVectors = embeddingCache.lookup(texts);
+        Map<String, List<CitizenReport>> pendingByText = new LinkedHashMap<>();
+        for (int i = 0; i < embeddable.size(); i++) {
+            if (cachedVectors[i] != null) {
+                applyEmbedding(embeddable.get(i), cachedVectors[i]);
+            } else {
+                pendingByText
+                        .computeIfAbsent(texts.get(i), k -> new ArrayList<>())
+                        .add(embeddable.get(i));
+            }
+        }
+
+        // Un request por rango [desde, hasta) de los textos pendientes, ejecutados en paralelo
+        List<String> pendingTexts = new ArrayList<>(pendingByText.keySet());
+        List<int[]> requestRanges = planRequests(pendingTexts);
+        AtomicBoolean providerOverloaded = new AtomicBoolean();
+        try {
+            BlockingTaskExecutors.fanOut(
+                    executorService,
+                    requestRanges,
+                    concurrency,
+                    range -> {
+                        // Un error inesperado en un request no cancela los demás; sus reportes
+                        // vuelven a la cola en vez de quedar en GENERANDO_EMBEDDINGS
+                        List<String> requestTexts = pendingTexts.subList(range[0], range[1]);
+                        try {
+                            embedRequest(requestTexts, pendingByText, providerOverloaded);
+                        } catch (RuntimeException e) {
+                            log.error("Unexpected error in embedding request", e);
+                            deferToQueue(requestTexts, pendingByText);
+                        }
+                        return null;
+                    });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Embedding generation interrupted", e);
+        }
+
         log.info(
-                "Successfully generated embeddings for {}/{} reports",
-                processedReports.stream().filter(r -> r.getEmbedding() != null).count(),
-                reports.size());
+                "Successfully generated embeddings for {}/{} reports in {} requests",
+                reports.stream().filter(r -> r.getEmbedding() != null).count(),
+                reports.size(),
+                requestRanges.size());
 
-        return processedReports;
+        return reports;
     }
 
     @Override
     @CircuitBreaker(name = "app-resilience-config", fallbackMethod = "generateEmbeddingFallback")
     @Retry(name = "app-resilience-config")
     public CitizenReport generateEmbedding(CitizenReport report) {
+        return embedOne(report);
+    }
+
+    // ==================== Fallback Methods ====================
+
+    public CitizenReport generateEmbeddingFallback(CitizenReport report, Exception e) {
+        log.error("Circuit breaker activated for embedding generation. Fallback method called.", e);
+        report.setProcessingStatus(ProcessingStatus.ERROR);
+        report.setErrorMessage("Servicio de embeddings temporalmente no disponible");
+        return report;
+    }
+
+    // ==================== Helper Methods ====================
+
+    /**
+     * Genera el embedding de un solo reporte. Ante sobrecarga del proveedor el reporte queda en
+     * PROCESANDO_IA para que la cola lo reintente, no en ERROR.
+     */
+    private CitizenReport embedOne(CitizenReport report) {
         // Validar que el comentario existe
-        if (report.getComment() == null || report.getComment().trim().isEmpty()) {
-            log.warn("Report {} has no comment, skipping embedding generation", report.getId());
-            report.setProcessingStatus(ProcessingStatus.ERROR);
-            report.setErrorMessage("No hay comentario para generar embedding");
+        if (!hasComment(report)) {
+            markWithoutComment(report);
             return report;
         }
 
@@ -70,30 +173,29 @@ public class EmbeddingGenerationServiceImpl implements EmbeddingGenerationServic
             // Crear documento con metadatos para mejor contexto
             String textToEmbed = buildEmbeddingText(report);
 
+            float[] cachedVector = embeddingCache.get(textToEmbed);
+            if (cachedVector != null) {
+                applyEmbedding(report, cachedVector);
+                return report;
+            }
+
             // Generar embedding
             EmbeddingResponse response = embeddingModel.embedForResponse(List.of(textToEmbed));
 
             if (response != null && !response.getResults().isEmpty()) {
-                // Convertir float[] a List<Double>
-                float[] embeddingArray = response.getResults().get(0).getOutput();
-                List<Double> embedding = new ArrayList<>();
-                for (float value : embeddingArray) {
-                    embedding.add((double) value);
-                }
-
-                // Guardar embedding en el reporte
-                report.setEmbedding(embedding);
-                report.setProcessingStatus(ProcessingStatus.COMPLETADO);
-
-                log.debug(
-                        "Generated embedding for report {} with {} dimensions",
-                        report.getId(),
-                        embedding.size());
+                float[] vector = response.getResults().get(0).getOutput();
+                applyEmbedding(report, vector);
+                embeddingCache.put(textToEmbed, vector);
             } else {
                 throw new RuntimeException("Empty embedding response from OpenAI");
             }
 
         } catch (Exception e) {
+            if (ProviderErrors.isTransient(e)) {
+                log.warn("Embedding provider overloaded for report {}", report.getId());
+                report.setProcessingStatus(ProcessingStatus.PROCESANDO_IA);
+                return report;
+            }
             log.error("Error generating embedding for report {}", report.getId(), e);
             report.setProcessingStatus(ProcessingStatus.ERROR);
             report.setErrorMessage("Error generando embedding: " + e.getMessage());
@@ -102,16 +204,144 @@ public class EmbeddingGenerationServiceImpl implements EmbeddingGenerationServic
         return report;
     }
 
-    // ==================== Fallback Methods ====================
+    /**
+     * Agrupa los textos en rangos consecutivos que respetan el máximo de inputs y de tokens
+     * estimados por request. Un texto que por sí solo supera el máximo de tokens va en su propio
+     * request.
+     */
+    private List<int[]> planRequests(List<String> texts) {
+        List<int[]> ranges = new ArrayList<>();
+        int from = 0;
+        long tokens = 0;
+        for (int i = 0; i < texts.size(); i++) {
+            int textTokens = texts.get(i).length() / CHARS_PER_TOKEN + 1;
+            boolean full =
+                    i - from >= maxInputsPerRequest || tokens + textTokens > maxTokensPerRequest;
+            if (i > from && full) {
+                ranges.add(new int[] {from, i});
+                from = i;
+                tokens = 0;
+            }
+            tokens += textTokens;
+        }
+        if (from < texts.size()) {
+            ranges.add(new int[] {from, texts.size()});
+        }
+        return ranges;
+    }
 
-    public CitizenReport generateEmbeddingFallback(CitizenReport report, Exception e) {
-        log.error("Circuit breaker activated for embedding generation. Fallback method called.", e);
-        report.setProcessingStatus(ProcessingStatus.ERROR);
-        report.setErrorMessage("Servicio de embeddings temporalmente no disponible");
-        return report;
+    /**
+     * Ejecuta un request con varios inputs y asigna cada resultado a los reportes de ese texto por
+     * el índice que retorna el proveedor.
+     *
+     * <p>Los índices que no vuelven, y todos los del request si el proveedor lo rechaza con 400, se
+     * procesan uno a uno. Si el proveedor está sobrecargado, los reportes vuelven a PROCESANDO_IA
+     * y los requests de la misma llamada que aún no salieron ya no se envían.
+     */
+    private void embedRequest(
+            List<String> texts,
+            Map<String, List<CitizenReport>> reportsByText,
+            AtomicBoolean providerOverloaded) {
+        if (providerOverloaded.get()) {
+            deferToQueue(texts, reportsByText);
+            return;
+        }
+
+        for (String text : texts) {
+            reportsByText
+                    .get(text)
+                    .forEach(r -> r.setProcessingStatus(ProcessingStatus.GENERANDO_EMBEDDINGS));
+        }
+
+        boolean[] embedded = new boolean[texts.size()];
+        List<String> embeddedTexts = new ArrayList<>(texts.size());
+        List<float[]> vectors = new ArrayList<>(texts.size());
+        try {
+            EmbeddingResponse response = embeddingModel.embedForResponse(texts);
+            if (response != null) {
+                for (Embedding result : response.getResults()) {
+                    Integer index = result.getIndex();
+                    if (index != null && index >= 0 && index < texts.size() && !embedded[index]) {
+                        String text = texts.get(index);
+                        float[] vector = result.getOutput();
+                        reportsByText.get(text).forEach(r -> applyEmbedding(r, vector));
+                        embedded[index] = true;
+                        embeddedTexts.add(text);
+                        vectors.add(vector);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            if (ProviderErrors.isTransient(e)) {
+                log.warn(
+                        "Embedding provider overloaded, leaving {} inputs for the work queue: {}",
+                        texts.size(),
+                        e.getMessage());
+                providerOverloaded.set(true);
+                deferToQueue(texts, reportsByText);
+                return;
+            }
+            if (!ProviderErrors.isBadRequest(e)) {
+                log.error("Embedding request with {} inputs failed", texts.size(), e);
+                for (String text : texts) {
+                    reportsByText
+                            .get(text)
+                            .forEach(
+                                    r -> {
+                                        r.setProcessingStatus(ProcessingStatus.ERROR);
+                                        r.setErrorMessage(
+                                                "Error generando embedding: " + e.getMessage());
+                                    });
+                }
+                return;
+            }
+            log.warn(
+                    "Embedding request with {} inputs rejected, retrying one by one: {}",
+                    texts.size(),
+                    e.getMessage());
+        }
+
+        embeddingCache.putAll(embeddedTexts, vectors);
+
+        for (int i = 0; i < texts.size(); i++) {
+            if (!embedded[i]) {
+                reportsByText.get(texts.get(i)).forEach(this::embedOne);
+            }
+        }
     }
 
-    // ==================== Helper Methods ====================
+    /** Devuelve los reportes a la etapa de embeddings para que la cola los reintente. */
+    private void deferToQueue(List<String> texts, Map<String, List<CitizenReport>> reportsByText) {
+        for (String text : texts) {
+            reportsByText
+                    .get(text)
+                    .forEach(r -> r.setProcessingStatus(ProcessingStatus.PROCESANDO_IA));
+        }
+    }
+
+    /**
+     * Guarda el vector en el reporte y lo marca como completado. El {@code float[]} del modelo se
+     * usa tal cual, sin convertirlo a objetos.
+     */
+    private void applyEmbedding(CitizenReport report, float[] embeddingArray) {
+        report.setEmbedding(EmbeddingVector.of(embeddingArray));
+        report.setProcessingStatus(ProcessingStatus.COMPLETADO);
+
+        log.debug(
+                "Generated embedding for report {} with {} dimensions",
+                report.getId(),
+                embeddingArray.length);
+    }
+
+    private boolean hasComment(CitizenReport report) {
+        return report.getComment() != null && !report.getComment().trim().isEmpty();
+    }
+
+    private void markWithoutComment(CitizenReport report) {
+        log.warn("Report {} has no comment, skipping embedding generation", report.getId());
+        report.setProcessingStatus(ProcessingStatus.ERROR);
+        report.setErrorMessage("No hay comentario para generar embedding");
+    }
 
     /**
      * Construye el texto para embedding incluyendo contexto del reporte.
@@ -0,0 +1,124 @@
+package com.senasoft.comunidataapi.csv.service.processing;
+
+import com.senasoft.comunidataapi.csv.entity.CitizenReport;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Arma los batches de validación con IBM Granite a partir de un presupuesto de tokens.
+ *
+ * <p>Cada reporte suma los tokens estimados de su bloque en el prompt y los de su veredicto JSON en
+ * la respuesta. Un batch se cierra cuando agregar el siguiente reporte haría que la respuesta
+ * supere {@code app.granite.max-new-tokens-limit} o que prompt + respuesta superen {@code
+ * app.granite.context-window}. Llenar cada batch en orden hasta ese límite da la menor cantidad
+ * de llamadas posible para la lista, y cada batch lleva el {@code max-new-tokens} que necesita su
+ * respuesta, para que no se trunque.
+ */
+@Slf4j
+@Component
+public class GraniteBatchPlanner {
+
+    /** Estimación conservadora para español: ~3 caracteres por token. */
+    private static final int CHARS_PER_TOKEN = 3;
+
+    /** Corchetes del arreglo JSON y el texto que el modelo agregue alrededor. */
+    private static final int RESPONSE_OVERHEAD_TOKENS = 32;
+
+    @Value("${app.granite.context-window:131072}")
+    private int contextWindow;
+
+    @Value("${app.granite.max-new-tokens-limit:8192}")
+    private int maxNewTokensLimit;
+
+    @Value("${app.granite.output-tokens-per-report:96}")
+    private int outputTokensPerReport;
+
+    @Value("${app.granite.max-reports-per-batch:200}")
+    private int maxReportsPerBatch;
+
+    @Value("${app.granite.token-margin:0.2}")
+    private double tokenMargin;
+
+    /**
+     * Un batch planificado.
+     *
+     * @param reports Reportes del batch, en el orden original
+     * @param maxNewTokens Tokens de respuesta que se piden para el batch
+     */
+    public record GraniteBatch(List<CitizenReport> reports, int maxNewTokens) {}
+
+    /**
+     * Divide los reportes en batches consecutivos que caben en el presupuesto de tokens.
+     *
+     * @param reports Reportes a validar
+     * @param instructionTokens Tokens de la parte fija del prompt
+     * @param reportTokens Tokens del bloque de cada reporte en el prompt
+     * @return Batches en orden, sin reportes repetidos ni omitidos
+     */
+    public List<GraniteBatch> plan(
+            List<CitizenReport> reports,
+            int instructionTokens,
+            ToIntFunction<CitizenReport> reportTokens) {
+        int outputPerReport = withMargin(outputTokensPerReport);
+        List<GraniteBatch> batches = new ArrayList<>();
+        int from = 0;
+        long promptTokens = instructionTokens;
+        for (int i = 0; i < reports.size(); i++) {
+            int nextPromptTokens = withMargin(reportTokens.applyAsInt(reports.get(i)));
+            long nextOutputTokens = outputTokens(i - from + 1, outputPerReport);
+            boolean full =
+                    i - from >= maxReportsPerBatch
+                            || nextOutputTokens > maxNewTokensLimit
+                            || promptTokens + nextPromptTokens + nextOutputTokens > contextWindow;
+            if (i > from && full) {
+                batches.add(batch(reports, from, i));
+                from = i;
+                promptTokens = instructionTokens;
+            }
+            if (i == from
+                    && promptTokens + nextPromptTokens + outputTokens(1, outputPerReport)
+                            > contextWindow) {
+                log.warn(
+                        "Report {} alone needs ~{} prompt tokens, over the context window of {}",
+                        reports.get(i).getId(),
+                        promptTokens + nextPromptTokens,
+                        contextWindow);
+            }
+            promptTokens += nextPromptTokens;
+        }
+        if (from < reports.size()) {
+            batches.add(batch(reports, from, reports.size()));
+        }
+        return batches;
+    }
+
+    /** {@code max-new-tokens} para un batch de {@code reportCount} reportes. */
+    public int maxNewTokens(int reportCount) {
+        long tokens = outputTokens(reportCount, withMargin(outputTokensPerReport));
+        return (int) Math.min(maxNewTokensLimit, tokens);
+    }
+
+    /** Tokens estimados de un texto. */
+    public static int estimateTokens(String text) {
+        return text == null ? 0 : text.length() / CHARS_PER_TOKEN + 1;
+    }
+
+    // ==================== Helper Methods ====================
+
+    private GraniteBatch batch(List<CitizenReport> reports, int from, int to) {
+        List<CitizenReport> batch = new ArrayList<>(reports.subList(from, to));
+        return new GraniteBatch(batch, maxNewTokens(batch.size()));
+    }
+
+    private static long outputTokens(int reportCount, int outputPerReport) {
+        return RESPONSE_OVERHEAD_TOKENS + (long) reportCount * outputPerReport;
+    }
+
+    private int withMargin(int tokens) {
+        return (int) Math.ceil(tokens * (1 + tokenMargin));
+    }
+}
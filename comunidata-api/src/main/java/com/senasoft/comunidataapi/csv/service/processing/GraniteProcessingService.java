@@ -6,8 +6,8 @@ import java.util.List;
 /**
  * Servicio para procesamiento de reportes ciudadanos con IBM Granite.
  *
- * <p>Procesa reportes en batches de 50, validando categorías y detectando sesgos usando IBM Granite
- * 3.3-8B-Instruct.
+ * <p>Procesa reportes en batches armados según un presupuesto de tokens, validando categorías y
+ * detectando sesgos usando IBM Granite 3.3-8B-Instruct.
  */
 public interface GraniteProcessingService {
 
@@ -16,14 +16,15 @@ public interface GraniteProcessingService {
      *
      * @param reports Lista de reportes normalizados
      * @param batchId ID del batch para tracking
-     * @return Lista de reportes procesados y validados por IA
+     * @return Todos los reportes recibidos: validados (PROCESANDO_IA), con error (ERROR) o, si
+     *     su batch no terminó, de vuelta en PENDIENTE para que la cola de trabajo los retome
      */
     List<CitizenReport> processReportsInBatches(List<CitizenReport> reports, String batchId);
 
     /**
-     * Procesa un batch individual de hasta 50 reportes.
+     * Procesa un batch individual, pidiendo los tokens de respuesta que necesita su tamaño.
      *
-     * @param reportBatch Batch de reportes (máximo 50)
+     * @param reportBatch Batch de reportes (ver {@link GraniteBatchPlanner})
      * @return Batch procesado con validaciones de IA
      */
     List<CitizenReport> processSingleBatch(List<CitizenReport> reportBatch);
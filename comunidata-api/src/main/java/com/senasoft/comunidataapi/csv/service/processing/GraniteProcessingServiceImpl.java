@@ -1,29 +1,54 @@
 package com.senasoft.comunidataapi.csv.service.processing;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.senasoft.comunidataapi.csv.entity.CitizenReport;
 import com.senasoft.comunidataapi.csv.enums.ProblemCategory;
 import com.senasoft.comunidataapi.csv.enums.ProcessingStatus;
+import com.senasoft.comunidataapi.csv.service.processing.GraniteBatchPlanner.GraniteBatch;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.watsonx.WatsonxAiChatModel;
+import org.springframework.ai.watsonx.WatsonxAiChatOptions;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
  * Implementación del servicio de procesamiento con IBM Granite.
  *
- * <p>Características: - Procesamiento en batches de 50 reportes - Paralelización con 3 batches
- * simultáneos usando ExecutorService - Retry logic con exponential backoff - Circuit breaker para
- * resiliencia - Validación de categorías y detección de sesgos
+ * <p>Características: - Batches armados por {@link GraniteBatchPlanner} según un presupuesto de
+ * tokens, con el {@code max-new-tokens} que necesita cada respuesta - Batches en paralelo, con
+ * tantas llamadas en curso como permita el {@link AimdConcurrencyLimiter} - Retry logic con
+ * exponential backoff - Circuit breaker para resiliencia - Validación de categorías y detección de
+ * sesgos
+ *
+ * <p>Cada batch se envía en cuanto se libera un permiso, sin esperar al resto de su grupo. El
+ * límite sube de a un permiso por ronda de llamadas exitosas y baja a la mitad ante un 429, un 5xx,
+ * un timeout o una latencia muy por encima del promedio, para aprovechar la cuota de watsonx sin
+ * disparar el circuit breaker.
+ *
+ * <p>La recuperación es por reporte: los reportes cuya validación no viene en la respuesta (JSON
+ * truncado o mal formado a partir de algún objeto) se reenvían solos, sin repetir los ya
+ * validados. Si un grupo falla {@code app.granite.recovery.max-attempts} veces seguidas se divide
+ * en dos mitades, hasta aislar al reporte que lo provoca; ante sobrecarga no se divide, porque un
+ * batch más chico no la resuelve.
  */
 @Slf4j
 @Service
@@ -34,106 +59,291 @@ public class GraniteProcessingServiceImpl implements GraniteProcessingService {
     private final WatsonxAiChatModel watsonxChatModel;
 
     private final ObjectMapper objectMapper;
+    private final GraniteBatchPlanner batchPlanner;
+
+    @Value("${app.granite.concurrency.initial:3}")
+    private int initialConcurrency;
+
+    @Value("${app.granite.concurrency.min:1}")
+    private int minConcurrency;
+
+    @Value("${app.granite.concurrency.max:16}")
+    private int maxConcurrency;
+
+    @Value("${app.granite.concurrency.backoff-ratio:0.5}")
+    private double backoffRatio;
+
+    @Value("${app.granite.concurrency.latency-tolerance:2.0}")
+    private double latencyTolerance;
 
-    private static final int BATCH_SIZE = 50;
-    private static final int PARALLEL_BATCHES = 3;
-    private static final int THREAD_POOL_SIZE = 3;
+    @Value("${app.granite.batch-timeout-minutes:10}")
+    private long batchTimeoutMinutes;
 
-    private final ExecutorService executorService = Executors.newFixedThreadPool(THREAD_POOL_SIZE);
+    @Value("${app.granite.recovery.max-attempts:2}")
+    private int maxAttempts;
+
+    @Value("${app.granite.recovery.max-calls-per-batch:16}")
+    private int maxCallsPerBatch;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private ExecutorService executorService;
+    private AimdConcurrencyLimiter concurrencyLimiter;
+
+    @PostConstruct
+    void initExecutor() {
+        concurrencyLimiter =
+                new AimdConcurrencyLimiter(
+                        initialConcurrency,
+                        minConcurrency,
+                        maxConcurrency,
+                        backoffRatio,
+                        latencyTolerance);
+        executorService =
+                BlockingTaskExecutors.newExecutor("granite", maxConcurrency, virtualThreads);
+    }
+
+    @PreDestroy
+    void shutdownExecutor() {
+        executorService.shutdown();
+    }
 
     @Override
     public List<CitizenReport> processReportsInBatches(
             List<CitizenReport> reports, String batchId) {
         log.info("Starting batch processing for {} reports in batch {}", reports.size(), batchId);
 
-        // Dividir en batches de 50
-        List<List<CitizenReport>> batches = partitionList(reports, BATCH_SIZE);
-        log.info("Created {} batches of max {} reports each", batches.size(), BATCH_SIZE);
+        // Dividir según el presupuesto de tokens de prompt y respuesta
+        List<GraniteBatch> batches =
+                batchPlanner.plan(
+                        reports,
+                        GraniteBatchPlanner.estimateTokens(buildBatchValidationPrompt(List.of())),
+                        report -> GraniteBatchPlanner.estimateTokens(reportBlock(0, report)));
+        log.info("Created {} batches for {} reports", batches.size(), reports.size());
+
+        CompletionService<List<CitizenReport>> completionService =
+                new ExecutorCompletionService<>(executorService);
+        // Un future por batch enviado, en el orden de batches
+        List<Future<List<CitizenReport>>> futures = new ArrayList<>(batches.size());
+        Set<Future<List<CitizenReport>>> finished = new HashSet<>();
+        int collected = 0;
+
+        try {
+            // Cada batch sale en cuanto el limitador da un permiso, sin esperar a los anteriores
+            for (int i = 0; i < batches.size(); i++) {
+                final GraniteBatch batch = batches.get(i);
+                final int batchNumber = i + 1;
+
+                concurrencyLimiter.acquire();
+                futures.add(
+                        completionService.submit(
+                                () -> runBatch(batch, batchNumber, batches.size())));
+
+                // Recoger los que ya terminaron, sin bloquear
+                for (Future<List<CitizenReport>> done = completionService.poll();
+                        done != null;
+                        done = completionService.poll()) {
+                    collect(done, finished);
+                    collected++;
+                }
+            }
 
-        List<CitizenReport> processedReports = new ArrayList<>();
-        List<Future<List<CitizenReport>>> futures = new ArrayList<>();
+            while (collected < futures.size()) {
+                Future<List<CitizenReport>> done =
+                        completionService.poll(batchTimeoutMinutes, TimeUnit.MINUTES);
+                if (done == null) {
+                    log.error(
+                            "Timed out waiting for {} Granite batches",
+                            futures.size() - collected);
+                    break;
+                }
+                collect(done, finished);
+                collected++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while processing Granite batches", e);
+        }
 
-        // Procesar batches en paralelo (max 3 simultáneos)
+        // Los batches sin resultado (timeout, error o sin enviar) vuelven a PENDIENTE para que la
+        // cola de trabajo los retome; se retornan igual para que el llamador libere sus reclamos
+        List<CitizenReport> unfinished = new ArrayList<>();
         for (int i = 0; i < batches.size(); i++) {
-            final List<CitizenReport> batch = batches.get(i);
-            final int batchNumber = i + 1;
-
-            Future<List<CitizenReport>> future =
-                    executorService.submit(
-                            () -> {
-                                log.info(
-                                        "Processing batch {}/{} with {} reports",
-                                        batchNumber,
-                                        batches.size(),
-                                        batch.size());
-                                return processSingleBatch(batch);
-                            });
-
-            futures.add(future);
-
-            // Limitar a 3 batches paralelos
-            if (futures.size() >= PARALLEL_BATCHES || i == batches.size() - 1) {
-                // Esperar a que terminen los batches actuales
-                for (Future<List<CitizenReport>> f : futures) {
-                    try {
-                        processedReports.addAll(f.get(10, TimeUnit.MINUTES));
-                    } catch (InterruptedException | ExecutionException | TimeoutException e) {
-                        log.error("Error processing batch", e);
-                    }
+            Future<List<CitizenReport>> future = i < futures.size() ? futures.get(i) : null;
+            if (future == null || !finished.contains(future)) {
+                if (future != null) {
+                    future.cancel(true);
                 }
-                futures.clear();
+                unfinished.addAll(batches.get(i).reports());
             }
         }
+        if (!unfinished.isEmpty()) {
+            log.warn(
+                    "Returning {} reports without a Granite result to the work queue",
+                    unfinished.size());
+            unfinished.forEach(report -> report.setProcessingStatus(ProcessingStatus.PENDIENTE));
+        }
 
+        List<CitizenReport> processedReports = new ArrayList<>(reports.size());
+        batches.forEach(batch -> processedReports.addAll(batch.reports()));
         log.info(
-                "Completed batch processing. Processed {}/{} reports successfully",
-                processedReports.size(),
+                "Completed batch processing. Validated {}/{} reports",
+                processedReports.stream()
+                        .filter(r -> ProcessingStatus.PROCESANDO_IA.equals(r.getProcessingStatus()))
+                        .count(),
                 reports.size());
 
         return processedReports;
     }
 
+    private List<CitizenReport> runBatch(GraniteBatch batch, int batchNumber, int batchCount) {
+        try {
+            log.info(
+                    "Processing batch {}/{}: {} reports, {} max new tokens, concurrency limit {}",
+                    batchNumber,
+                    batchCount,
+                    batch.reports().size(),
+                    batch.maxNewTokens(),
+                    concurrencyLimiter.getLimit());
+            return processBatch(batch.reports(), batch.maxNewTokens());
+        } finally {
+            concurrencyLimiter.release();
+        }
+    }
+
     @Override
     @CircuitBreaker(name = "app-resilience-config", fallbackMethod = "processSingleBatchFallback")
     @Retry(name = "app-resilience-config")
     public List<CitizenReport> processSingleBatch(List<CitizenReport> reportBatch) {
+        return processBatch(reportBatch, batchPlanner.maxNewTokens(reportBatch.size()));
+    }
+
+    /**
+     * Valida un batch pidiendo a Granite como máximo {@code maxNewTokens} tokens de respuesta.
+     *
+     * <p>Los reportes sin validación se reenvían hasta agotar los intentos o las llamadas del
+     * batch; los que quedan se marcan con error. Si Granite está sobrecargado (429, 5xx, timeout)
+     * no se reintenta en esta llamada: los reportes que faltan vuelven a PENDIENTE y la cola de
+     * trabajo los retoma después de una espera.
+     */
+    private List<CitizenReport> processBatch(List<CitizenReport> reportBatch, int maxNewTokens) {
         if (reportBatch.isEmpty()) {
             return reportBatch;
         }
 
-        log.debug("Processing batch of {} reports with IBM Granite", reportBatch.size());
+        Deque<PendingReports> pending = new ArrayDeque<>();
+        pending.push(new PendingReports(reportBatch, maxNewTokens, 0));
+        int calls = 0;
 
-        try {
-            // Construir el prompt para el batch
-            String batchPrompt = buildBatchValidationPrompt(reportBatch);
+        while (!pending.isEmpty()) {
+            PendingReports attempt = pending.pop();
+            if (calls == maxCallsPerBatch) {
+                markFailed(attempt.reports(), "se agotaron los reintentos del batch");
+                continue;
+            }
+            calls++;
+
+            List<CitizenReport> missing;
+            Exception error = null;
+            try {
+                missing = validateOnce(attempt.reports(), attempt.maxNewTokens());
+            } catch (Exception e) {
+                log.error(
+                        "Error processing batch of {} reports with IBM Granite",
+                        attempt.reports().size(),
+                        e);
+                missing = attempt.reports();
+                error = e;
+            }
 
-            // Llamar a IBM Granite
-            Prompt prompt = new Prompt(batchPrompt);
-            String response = watsonxChatModel.call(prompt).getResult().getOutput().getText();
+            if (missing.isEmpty()) {
+                continue;
+            }
+            if (error != null && ProviderErrors.isTransient(error)) {
+                // Más llamadas solo agravan la sobrecarga: todo lo pendiente vuelve a la cola
+                List<CitizenReport> deferred = new ArrayList<>(missing);
+                pending.forEach(remaining -> deferred.addAll(remaining.reports()));
+                deferToQueue(deferred);
+                break;
+            }
+            if (missing.size() < attempt.reports().size()) {
+                // Hubo avance: reenviar solo los que faltan
+                log.warn(
+                        "Granite returned no validation for {} of {} reports, resubmitting them",
+                        missing.size(),
+                        attempt.reports().size());
+                pending.push(retry(missing, 0));
+            } else if (attempt.failures() + 1 < maxAttempts) {
+                pending.push(retry(missing, attempt.failures() + 1));
+            } else if (missing.size() > 1) {
+                int half = missing.size() / 2;
+                log.warn("Splitting {} reports after repeated Granite failures", missing.size());
+                pending.push(retry(missing.subList(half, missing.size()), 0));
+                pending.push(retry(missing.subList(0, half), 0));
+            } else {
+                markFailed(
+                        missing,
+                        error != null
+                                ? error.getMessage()
+                                : "Granite no retornó validación para el reporte");
+            }
+        }
+
+        return reportBatch;
+    }
 
-            log.debug("Received response from IBM Granite: {}", response);
+    /**
+     * Envía los reportes a Granite en una sola llamada y aplica las validaciones recibidas.
+     *
+     * @return Reportes que quedaron sin validación
+     */
+    private List<CitizenReport> validateOnce(List<CitizenReport> reports, int maxNewTokens) {
+        log.debug(
+                "Processing batch of {} reports with IBM Granite, max {} new tokens",
+                reports.size(),
+                maxNewTokens);
 
-            // Parsear respuesta JSON
-            List<Map<String, Object>> validations = parseGraniteResponse(response);
+        // Construir el prompt para el batch
+        String batchPrompt = buildBatchValidationPrompt(reports);
 
-            // Actualizar reportes con validaciones
-            updateReportsWithValidations(reportBatch, validations);
+        // Llamar a IBM Granite
+        Prompt prompt =
+                new Prompt(
+                        batchPrompt,
+                        WatsonxAiChatOptions.builder().maxNewTokens(maxNewTokens).build());
+        String response = callGranite(prompt, reports.size());
 
-            // Marcar como procesados
-            reportBatch.forEach(
-                    report -> report.setProcessingStatus(ProcessingStatus.PROCESANDO_IA));
+        log.debug("Received response from IBM Granite: {}", response);
 
-            return reportBatch;
+        // Parsear respuesta JSON
+        List<Map<String, Object>> validations = parseGraniteResponse(response);
 
-        } catch (Exception e) {
-            log.error("Error processing batch with IBM Granite", e);
-            // Marcar reportes con error
-            reportBatch.forEach(
-                    report -> {
-                        report.setProcessingStatus(ProcessingStatus.ERROR);
-                        report.setErrorMessage("Error en procesamiento IA: " + e.getMessage());
-                    });
-            return reportBatch;
+        // Actualizar reportes con validaciones
+        return updateReportsWithValidations(reports, validations);
+    }
+
+    /**
+     * Llama a Granite y le informa al limitador la latencia por reporte o la sobrecarga. Los lotes
+     * cambian de tamaño (los reintentos y las divisiones son más chicos), por lo que la latencia
+     * total no sirve para comparar llamadas.
+     */
+    private String callGranite(Prompt prompt, int reportCount) {
+        long start = System.nanoTime();
+        try {
+            String response = watsonxChatModel.call(prompt).getResult().getOutput().getText();
+            concurrencyLimiter.onSuccess(
+                    System.nanoTime() - start, TimeUnit.NANOSECONDS, reportCount);
+            return response;
+        } catch (RuntimeException e) {
+            if (ProviderErrors.isTransient(e)) {
+                concurrencyLimiter.onOverload();
+                log.warn(
+                        "Granite overloaded ({}), concurrency limit is now {}",
+                        e.getMessage(),
+                        concurrencyLimiter.getLimit());
+            }
+            throw e;
         }
     }
 
@@ -149,12 +359,8 @@ public class GraniteProcessingServiceImpl implements GraniteProcessingService {
     public List<CitizenReport> processSingleBatchFallback(
             List<CitizenReport> reportBatch, Exception e) {
         log.error("Circuit breaker activated. Fallback method called.", e);
-        reportBatch.forEach(
-                report -> {
-                    report.setProcessingStatus(ProcessingStatus.ERROR);
-                    report.setErrorMessage(
-                            "Servicio de IA temporalmente no disponible. Reintentando...");
-                });
+        // Servicio de IA temporalmente no disponible: la cola de trabajo los reintenta
+        deferToQueue(reportBatch);
         return reportBatch;
     }
 
@@ -196,17 +402,7 @@ public class GraniteProcessingServiceImpl implements GraniteProcessingService {
 
         prompt.append("REPORTES A ANALIZAR:\n");
         for (int i = 0; i < reports.size(); i++) {
-            CitizenReport report = reports.get(i);
-            prompt.append(String.format("%d. ID: %s\n", i + 1, report.getId()));
-            prompt.append(String.format("   Comentario: %s\n", report.getComment()));
-            prompt.append(
-                    String.format(
-                            "   Categoría sugerida: %s\n",
-                            report.getCategoryProblem() != null
-                                    ? report.getCategoryProblem().getDisplayName()
-                                    : "No especificada"));
-            prompt.append(String.format("   Ciudad: %s\n", report.getCity()));
-            prompt.append("\n");
+            prompt.append(reportBlock(i + 1, reports.get(i)));
         }
 
         prompt.append(
@@ -215,20 +411,46 @@ public class GraniteProcessingServiceImpl implements GraniteProcessingService {
         return prompt.toString();
     }
 
+    /** Bloque de un reporte dentro del prompt. */
+    private String reportBlock(int number, CitizenReport report) {
+        return String.format("%d. ID: %s\n", number, report.getId())
+                + String.format("   Comentario: %s\n", report.getComment())
+                + String.format(
+                        "   Categoría sugerida: %s\n",
+                        report.getCategoryProblem() != null
+                                ? report.getCategoryProblem().getDisplayName()
+                                : "No especificada")
+                + String.format("   Ciudad: %s\n", report.getCity())
+                + "\n";
+    }
+
     // ==================== Response Parsing ====================
 
-    /** Parsea la respuesta JSON de IBM Granite. */
+    /**
+     * Parsea la respuesta JSON de IBM Granite.
+     *
+     * <p>Lee el array objeto por objeto: si la respuesta se corta o un objeto está mal formado, se
+     * conservan las validaciones anteriores y los reportes restantes quedan sin validación.
+     */
     private List<Map<String, Object>> parseGraniteResponse(String response) {
-        try {
-            // Limpiar la respuesta de posible texto adicional
-            String cleanedResponse = extractJsonArray(response);
-
-            return objectMapper.readValue(
-                    cleanedResponse, new TypeReference<List<Map<String, Object>>>() {});
+        List<Map<String, Object>> validations = new ArrayList<>();
+        // Limpiar la respuesta de posible texto adicional
+        try (JsonParser parser = objectMapper.createParser(extractJsonArray(response))) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                log.error("Granite response is not a JSON array: {}", response);
+                return validations;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                validations.add(parser.readValueAs(new TypeReference<Map<String, Object>>() {}));
+            }
         } catch (Exception e) {
-            log.error("Error parsing Granite response: {}", response, e);
-            return new ArrayList<>();
+            log.error(
+                    "Error parsing Granite response after {} validations: {}",
+                    validations.size(),
+                    response,
+                    e);
         }
+        return validations;
     }
 
     /** Extrae el array JSON de la respuesta, ignorando texto adicional. */
@@ -240,60 +462,108 @@ public class GraniteProcessingServiceImpl implements GraniteProcessingService {
             return response.substring(startIndex, endIndex + 1);
         }
 
+        // Sin corchete de cierre (respuesta truncada): desde el de apertura
+        if (startIndex >= 0) {
+            return response.substring(startIndex);
+        }
+
         // Si no encuentra corchetes, intentar con todo el string
         return response.trim();
     }
 
-    /** Actualiza los reportes con las validaciones de Granite. */
-    private void updateReportsWithValidations(
+    /**
+     * Actualiza los reportes con las validaciones de Granite.
+     *
+     * @return Reportes sin validación en la respuesta
+     */
+    private List<CitizenReport> updateReportsWithValidations(
             List<CitizenReport> reports, List<Map<String, Object>> validations) {
 
+        Map<String, Map<String, Object>> validationsById = new HashMap<>();
+        for (Map<String, Object> validation : validations) {
+            if (validation.get("id") != null) {
+                validationsById.putIfAbsent(String.valueOf(validation.get("id")), validation);
+            }
+        }
+
+        List<CitizenReport> missing = new ArrayList<>();
         for (CitizenReport report : reports) {
             // Buscar la validación correspondiente por ID
-            validations.stream()
-                    .filter(v -> v.get("id") != null && v.get("id").equals(report.getId()))
-                    .findFirst()
-                    .ifPresent(
-                            validation -> {
-                                // Actualizar sesgo
-                                Boolean sesgoDetectado = (Boolean) validation.get("sesgoDetectado");
-                                report.setBiasDetected(
-                                        sesgoDetectado != null ? sesgoDetectado : false);
-
-                                String descripcionSesgo =
-                                        (String) validation.get("descripcionSesgo");
-                                report.setDescriptionBias(descripcionSesgo);
-
-                                // Actualizar categoría validada
-                                String categoriaValidada =
-                                        (String) validation.get("categoriaValidada");
-                                if (categoriaValidada != null) {
-                                    ProblemCategory categoria =
-                                            ProblemCategory.fromString(categoriaValidada);
-                                    if (categoria != null) {
-                                        report.setCategoryProblem(categoria);
-                                    }
-                                }
-
-                                // Verificar legitimidad
-                                Boolean esLegitimo = (Boolean) validation.get("esReporteLegitimo");
-                                if (esLegitimo != null && !esLegitimo) {
-                                    report.setProcessingStatus(ProcessingStatus.ERROR);
-                                    report.setErrorMessage("Reporte marcado como no legítimo");
-                                }
-                            });
+            Map<String, Object> validation = validationsById.get(report.getId());
+            if (validation == null) {
+                missing.add(report);
+                continue;
+            }
+
+            // Actualizar sesgo
+            Boolean sesgoDetectado = (Boolean) validation.get("sesgoDetectado");
+            report.setBiasDetected(sesgoDetectado != null ? sesgoDetectado : false);
+
+            String descripcionSesgo = (String) validation.get("descripcionSesgo");
+            report.setDescriptionBias(descripcionSesgo);
+
+            // Actualizar categoría validada
+            String categoriaValidada = (String) validation.get("categoriaValidada");
+            if (categoriaValidada != null) {
+                ProblemCategory categoria = ProblemCategory.fromString(categoriaValidada);
+                if (categoria != null) {
+                    report.setCategoryProblem(categoria);
+                }
+            }
+
+            // Verificar legitimidad
+            Boolean esLegitimo = (Boolean) validation.get("esReporteLegitimo");
+            if (esLegitimo != null && !esLegitimo) {
+                report.setProcessingStatus(ProcessingStatus.ERROR);
+                report.setErrorMessage("Reporte marcado como no legítimo");
+            } else {
+                // Marcar como procesado
+                report.setProcessingStatus(ProcessingStatus.PROCESANDO_IA);
+            }
         }
+        return missing;
     }
 
     // ==================== Utility Methods ====================
 
-    /** Divide una lista en sublistas de tamaño específico. */
-    private <T> List<List<T>> partitionList(List<T> list, int partitionSize) {
-        List<List<T>> partitions = new ArrayList<>();
-        for (int i = 0; i < list.size(); i += partitionSize) {
-            partitions.add(
-                    new ArrayList<>(list.subList(i, Math.min(i + partitionSize, list.size()))));
+    /**
+     * Reportes que falta validar.
+     *
+     * @param reports Reportes a enviar juntos
+     * @param maxNewTokens Tokens de respuesta que se piden
+     * @param failures Llamadas seguidas que fallaron sin validar ninguno
+     */
+    private record PendingReports(List<CitizenReport> reports, int maxNewTokens, int failures) {}
+
+    private PendingReports retry(List<CitizenReport> reports, int failures) {
+        return new PendingReports(
+                new ArrayList<>(reports), batchPlanner.maxNewTokens(reports.size()), failures);
+    }
+
+    /** Devuelve los reportes a PENDIENTE, sin error, para que la cola de trabajo los retome. */
+    private static void deferToQueue(List<CitizenReport> reports) {
+        log.warn("Granite overloaded, returning {} reports to the work queue", reports.size());
+        reports.forEach(report -> report.setProcessingStatus(ProcessingStatus.PENDIENTE));
+    }
+
+    private static void markFailed(List<CitizenReport> reports, String reason) {
+        log.error("Giving up Granite validation for {} reports: {}", reports.size(), reason);
+        reports.forEach(
+                report -> {
+                    report.setProcessingStatus(ProcessingStatus.ERROR);
+                    report.setErrorMessage("Error en procesamiento IA: " + reason);
+                });
+    }
+
+    /** Registra un batch terminado; si falló, queda fuera de {@code finished}. */
+    private static void collect(
+            Future<List<CitizenReport>> done, Set<Future<List<CitizenReport>>> finished)
+            throws InterruptedException {
+        try {
+            done.get();
+            finished.add(done);
+        } catch (ExecutionException e) {
+            log.error("Error processing batch", e.getCause());
         }
-        return partitions;
     }
 }
@@ -0,0 +1,50 @@
+package com.senasoft.comunidataapi.csv.service.processing;
+
+import java.net.SocketTimeoutException;
+import org.springframework.ai.retry.TransientAiException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+
+/**
+ * Clasificación de los errores de los proveedores de IA (IBM watsonx y OpenAI).
+ *
+ * <p>Un error transitorio (429, 5xx, timeout) indica que el proveedor no da abasto: hay que bajar
+ * el ritmo y reintentar más tarde, no multiplicar las llamadas ni marcar los reportes como ERROR.
+ */
+final class ProviderErrors {
+
+    private ProviderErrors() {}
+
+    /** 429, 5xx o timeout. */
+    static boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RestClientResponseException response) {
+                return response.getStatusCode().value() == 429
+                        || response.getStatusCode().is5xxServerError();
+            }
+            if (cause instanceof TransientAiException
+                    || cause instanceof ResourceAccessException
+                    || cause instanceof SocketTimeoutException) {
+                return true;
+            }
+            // Los errores 4xx de Spring AI llegan como "<status> - <cuerpo>"
+            if (cause.getMessage() != null && cause.getMessage().startsWith("429")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** 400: el request tiene un input que el proveedor rechaza. */
+    static boolean isBadRequest(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RestClientResponseException response) {
+                return response.getStatusCode().value() == 400;
+            }
+            if (cause.getMessage() != null && cause.getMessage().startsWith("400")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,645 @@
+package com.senasoft.comunidataapi.csv.service.query;
+
+import static com.senasoft.comunidataapi.csv.util.EnumValues.parse;
+
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.senasoft.comunidataapi.csv.entity.CitizenReport;
+import com.senasoft.comunidataapi.csv.enums.ProblemCategory;
+import com.senasoft.comunidataapi.csv.enums.ProcessingStatus;
+import com.senasoft.comunidataapi.csv.enums.UrgencyLevel;
+import com.senasoft.comunidataapi.csv.enums.Zone;
+import com.senasoft.comunidataapi.csv.event.ReportsCompletedEvent;
+import com.senasoft.comunidataapi.csv.repository.ReportFilter;
+import com.senasoft.comunidataapi.csv.service.analytics.ReportStatistics;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Snapshot columnar en memoria de los campos analíticos de los reportes completados.
+ *
+ * <p>Cada campo es un arreglo primitivo: edad y fecha (días desde epoch) como {@code int[]}, los
+ * enums y booleanos como ordinales en {@code byte[]} y la ciudad como código de un diccionario en
+ * {@code int[]}; el {@code _id} se guarda en una {@link ReportRowIds}. No incluye comentarios ni
+ * embeddings, por lo que un millón de reportes ocupa unos 40 MB.
+ *
+ * <p>Un filtro se evalúa columna por columna sobre un bitset de filas seleccionadas: cada
+ * predicado recorre su arreglo en bloques de 64 filas, sin ramas, y combina el resultado con un
+ * AND de palabras. Los conteos agrupados recorren solo las filas seleccionadas.
+ *
+ * <p>Se carga al iniciar y se recarga cada {@code app.reports.snapshot.refresh-interval-ms}; entre
+ * recargas se agregan los reportes de cada {@link ReportsCompletedEvent} de este nodo. Solo se
+ * activa con {@code app.reports.snapshot.enabled}.
+ */
+@Slf4j
+@Component
+@Order(2)
+public class ColumnarReportSnapshot implements ReportIndex {
+
+    private static final String REPORTS_COLLECTION = "citizen_reports";
+    private static final int NULL_INT = Integer.MIN_VALUE;
+    private static final byte NULL_BYTE = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_DAY_RANGE = 100_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final CityCodes cityCodes = new CityCodes();
+    private final ReportIndexRefresher refresher = new ReportIndexRefresher(new ReentrantLock());
+
+    private volatile Columns columns = new Columns(INITIAL_CAPACITY);
+    private volatile boolean ready;
+
+    @Value("${app.reports.snapshot.enabled:false}")
+    private boolean enabled;
+
+    public ColumnarReportSnapshot(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialLoad() {
+        refreshQuietly();
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.reports.snapshot.refresh-interval-ms:900000}",
+            initialDelayString = "${app.reports.snapshot.refresh-interval-ms:900000}")
+    public void scheduledRefresh() {
+        refreshQuietly();
+    }
+
+    /** Recarga todas las columnas desde MongoDB y las reemplaza de forma atómica. */
+    public void refresh() {
+        long start = System.currentTimeMillis();
+        refresher.refresh(
+                this::load,
+                (loaded, missed) -> {
+                    columns = loaded;
+                    missed.forEach(this::appendLocked);
+                    ready = true;
+                });
+        log.info(
+                "Columnar report snapshot loaded {} reports and {} cities in {} ms",
+                columns.size,
+                cityCodes.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    @EventListener
+    public void onReportsCompleted(ReportsCompletedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        refresher.apply(event.reports(), this::appendLocked);
+    }
+
+    // ==================== ReportIndex ====================
+
+    @Override
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /** Solo contiene reportes COMPLETADO: cualquier otro estado va a MongoDB. */
+    @Override
+    public boolean supports(ReportFilter filter) {
+        return ProcessingStatus.COMPLETADO.equals(filter.getProcessingStatus());
+    }
+
+    @Override
+    public List<String> findIds(ReportFilter filter, int limit) {
+        Columns snapshot = columns;
+        int size = snapshot.size;
+        long[] selection = select(snapshot, size, filter);
+
+        List<String> ids = new ArrayList<>(Math.min(limit, 1024));
+        for (int word = 0; word < selection.length && ids.size() < limit; word++) {
+            long bits = selection[word];
+            while (bits != 0 && ids.size() < limit) {
+                int row = (word << 6) + Long.numberOfTrailingZeros(bits);
+                ids.add(snapshot.rows.idOf(row));
+                bits &= bits - 1;
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public long count(ReportFilter filter) {
+        Columns snapshot = columns;
+        long[] selection = select(snapshot, snapshot.size, filter);
+        long count = 0;
+        for (long word : selection) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    // ==================== Conteos agrupados ====================
+
+    /**
+     * Estadísticas de los reportes que cumplen el filtro.
+     *
+     * @param cityLimit Máximo de ciudades en {@code topCities}; 0 = todas
+     */
+    public ReportStatistics summarize(ReportFilter filter, int cityLimit) {
+        Columns snapshot = columns;
+        return summarize(snapshot, select(snapshot, snapshot.size, filter), cityLimit);
+    }
+
+    // ==================== Helper Methods ====================
+
+    private void refreshQuietly() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Could not refresh the columnar report snapshot", e);
+        }
+    }
+
+    /** Lee los reportes completados en orden de {@code _id}, solo con los campos analíticos. */
+    private Columns load() {
+        Columns loaded = new Columns(Math.max(INITIAL_CAPACITY, columns.size + INITIAL_CAPACITY));
+        try (MongoCursor<Document> cursor =
+                mongoTemplate
+                        .getCollection(REPORTS_COLLECTION)
+                        .find(Filters.eq("processingStatus", ProcessingStatus.COMPLETADO.name()))
+                        .projection(
+                                Projections.include(
+                                        "age",
+                                        "reportDate",
+                                        "city",
+                                        "categoryProblem",
+                                        "urgencyLevel",
+                                        "area",
+                                        "governmentPreAttention",
+                                        "biasDetected"))
+                        .sort(Sorts.ascending("_id"))
+                        .batchSize(5000)
+                        .cursor()) {
+            while (cursor.hasNext()) {
+                Document document = cursor.next();
+                if (!(document.get("_id") instanceof ObjectId id)) {
+                    continue;
+                }
+                int row = loaded.rows.addSorted(id);
+                loaded = loaded.ensureCapacity(row + 1);
+                loaded.set(
+                        row,
+                        document.getInteger("age"),
+                        epochDay(document.getDate("reportDate")),
+                        cityCodes.encode(document.getString("city")),
+                        parse(ProblemCategory.class, document.getString("categoryProblem")),
+                        parse(UrgencyLevel.class, document.getString("urgencyLevel")),
+                        parse(Zone.class, document.getString("area")),
+                        document.getBoolean("governmentPreAttention"),
+                        document.getBoolean("biasDetected"));
+                loaded.size = row + 1;
+            }
+        }
+        return loaded;
+    }
+
+    /** Agrega un reporte completado al final de las columnas actuales. */
+    private void appendLocked(CitizenReport report) {
+        Columns current = columns;
+        if (report.getId() == null || !ObjectId.isValid(report.getId())) {
+            return;
+        }
+        int row = current.rows.addIfAbsent(new ObjectId(report.getId()));
+        if (row < 0) {
+            return;
+        }
+
+        Columns target = current.ensureCapacity(row + 1);
+        target.set(
+                row,
+                report.getAge(),
+                report.getReportDate() != null
+                        ? (int) report.getReportDate().toEpochDay()
+                        : NULL_INT,
+                cityCodes.encode(report.getCity()),
+                report.getCategoryProblem(),
+                report.getUrgencyLevel(),
+                report.getArea(),
+                report.getGovernmentPreAttention(),
+                report.getBiasDetected());
+        // La escritura volátil publica la fila a los lectores
+        target.size = row + 1;
+        if (target != current) {
+            columns = target;
+        }
+    }
+
+    /** Bitset con las filas que cumplen todos los predicados del filtro. */
+    private long[] select(Columns snapshot, int size, ReportFilter filter) {
+        long[] selection = new long[words(size)];
+        Arrays.fill(selection, -1L);
+        if ((size & 63) != 0) {
+            selection[selection.length - 1] = (1L << (size & 63)) - 1;
+        }
+
+        if (filter.getArea() != null) {
+            keepIn(selection, size, snapshot.zone, mask(List.of(filter.getArea()), Zone.class));
+        }
+        if (filter.getCities() != null && !filter.getCities().isEmpty()) {
+            keepIn(selection, size, snapshot.city, cityCodes.mask(filter.getCities()));
+        }
+        if (filter.getCategories() != null && !filter.getCategories().isEmpty()) {
+            keepIn(
+                    selection,
+                    size,
+                    snapshot.category,
+                    mask(filter.getCategories(), ProblemCategory.class));
+        }
+        if (filter.getUrgencyLevels() != null && !filter.getUrgencyLevels().isEmpty()) {
+            keepIn(
+                    selection,
+                    size,
+                    snapshot.urgency,
+                    mask(filter.getUrgencyLevels(), UrgencyLevel.class));
+        }
+        if (filter.getGovernmentPreAttention() != null) {
+            keepIn(
+                    selection,
+                    size,
+                    snapshot.attention,
+                    booleanMask(filter.getGovernmentPreAttention()));
+        }
+        if (filter.getBiasDetected() != null) {
+            keepIn(selection, size, snapshot.bias, booleanMask(filter.getBiasDetected()));
+        }
+        if (filter.getStartDate() != null || filter.getEndDate() != null) {
+            keepRange(
+                    selection,
+                    size,
+                    snapshot.epochDay,
+                    filter.getStartDate() != null
+                            ? (int) filter.getStartDate().toEpochDay()
+                            : NULL_INT + 1,
+                    filter.getEndDate() != null
+                            ? (int) filter.getEndDate().toEpochDay()
+                            : Integer.MAX_VALUE);
+        }
+        if (filter.getMinAge() != null || filter.getMaxAge() != null) {
+            keepRange(
+                    selection,
+                    size,
+                    snapshot.age,
+                    filter.getMinAge() != null ? filter.getMinAge() : NULL_INT + 1,
+                    filter.getMaxAge() != null ? filter.getMaxAge() : Integer.MAX_VALUE);
+        }
+        return selection;
+    }
+
+    /** Conserva las filas cuyo valor tiene {@code true} en {@code allowed}; los nulos no pasan. */
+    private static void keepIn(long[] selection, int size, byte[] column, boolean[] allowed) {
+        for (int word = 0; word < selection.length; word++) {
+            long current = selection[word];
+            if (current == 0) {
+                continue;
+            }
+            int base = word << 6;
+            int end = Math.min(64, size - base);
+            long bits = 0;
+            for (int i = 0; i < end; i++) {
+                int value = column[base + i];
+                bits |= (value >= 0 && allowed[value] ? 1L : 0L) << i;
+            }
+            selection[word] = current & bits;
+        }
+    }
+
+    private static void keepIn(long[] selection, int size, int[] column, boolean[] allowed) {
+        for (int word = 0; word < selection.length; word++) {
+            long current = selection[word];
+            if (current == 0) {
+                continue;
+            }
+            int base = word << 6;
+            int end = Math.min(64, size - base);
+            long bits = 0;
+            for (int i = 0; i < end; i++) {
+                int value = column[base + i];
+                bits |= (value >= 0 && value < allowed.length && allowed[value] ? 1L : 0L) << i;
+            }
+            selection[word] = current & bits;
+        }
+    }
+
+    /** Conserva las filas con valor en {@code [from, to]}; los nulos no pasan. */
+    private static void keepRange(long[] selection, int size, int[] column, int from, int to) {
+        for (int word = 0; word < selection.length; word++) {
+            long current = selection[word];
+            if (current == 0) {
+                continue;
+            }
+            int base = word << 6;
+            int end = Math.min(64, size - base);
+            long bits = 0;
+            for (int i = 0; i < end; i++) {
+                int value = column[base + i];
+                bits |= (value >= from && value <= to ? 1L : 0L) << i;
+            }
+            selection[word] = current & bits;
+        }
+    }
+
+    private ReportStatistics summarize(Columns snapshot, long[] selection, int cityLimit) {
+        long total = 0;
+        long[] byCategory = new long[ProblemCategory.values().length];
+        long[] byUrgency = new long[UrgencyLevel.values().length];
+        long[] byZone = new long[Zone.values().length];
+        long[] byCity = new long[cityCodes.size()];
+        long withAttention = 0;
+        long withoutAttention = 0;
+        long withBias = 0;
+        int minDay = Integer.MAX_VALUE;
+        int maxDay = Integer.MIN_VALUE;
+
+        for (int word = 0; word < selection.length; word++) {
+            long bits = selection[word];
+            while (bits != 0) {
+                int row = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+
+                total++;
+                increment(byCategory, snapshot.category[row]);
+                increment(byUrgency, snapshot.urgency[row]);
+                increment(byZone, snapshot.zone[row]);
+                int city = snapshot.city[row];
+                if (city >= 0 && city < byCity.length) {
+                    byCity[city]++;
+                }
+                withAttention += snapshot.attention[row] == 1 ? 1 : 0;
+                withoutAttention += snapshot.attention[row] == 0 ? 1 : 0;
+                withBias += snapshot.bias[row] == 1 ? 1 : 0;
+                int day = snapshot.epochDay[row];
+                if (day != NULL_INT) {
+                    minDay = Math.min(minDay, day);
+                    maxDay = Math.max(maxDay, day);
+                }
+            }
+        }
+
+        return new ReportStatistics(
+                total,
+                enumCounts(ProblemCategory.class, byCategory),
+                enumCounts(UrgencyLevel.class, byUrgency),
+                enumCounts(Zone.class, byZone),
+                topCities(byCity, cityLimit),
+                dayCounts(snapshot, selection, minDay, maxDay),
+                withAttention,
+                withoutAttention,
+                withBias);
+    }
+
+    /** Segunda pasada sobre las filas seleccionadas, con un arreglo del rango de fechas visto. */
+    private static Map<LocalDate, Long> dayCounts(
+            Columns snapshot, long[] selection, int minDay, int maxDay) {
+        Map<LocalDate, Long> counts = new TreeMap<>();
+        if (minDay > maxDay) {
+            return counts;
+        }
+
+        boolean dense = (long) maxDay - minDay < MAX_DAY_RANGE;
+        long[] days = dense ? new long[maxDay - minDay + 1] : null;
+        for (int word = 0; word < selection.length; word++) {
+            long bits = selection[word];
+            while (bits != 0) {
+                int row = (word << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int day = snapshot.epochDay[row];
+                if (day == NULL_INT) {
+                    continue;
+                }
+                if (dense) {
+                    days[day - minDay]++;
+                } else {
+                    counts.merge(LocalDate.ofEpochDay(day), 1L, Long::sum);
+                }
+            }
+        }
+
+        if (dense) {
+            for (int i = 0; i < days.length; i++) {
+                if (days[i] > 0) {
+                    counts.put(LocalDate.ofEpochDay(minDay + i), days[i]);
+                }
+            }
+        }
+        return counts;
+    }
+
+    private Map<String, Long> topCities(long[] byCity, int cityLimit) {
+        List<Integer> codes = new ArrayList<>();
+        for (int code = 0; code < byCity.length; code++) {
+            if (byCity[code] > 0) {
+                codes.add(code);
+            }
+        }
+        codes.sort(
+                Comparator.<Integer>comparingLong(code -> byCity[code])
+                        .reversed()
+                        .thenComparing(cityCodes::decode));
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Integer code : codes) {
+            if (cityLimit > 0 && counts.size() == cityLimit) {
+                break;
+            }
+            counts.put(cityCodes.decode(code), byCity[code]);
+        }
+        return counts;
+    }
+
+    private static void increment(long[] counts, byte ordinal) {
+        if (ordinal >= 0) {
+            counts[ordinal]++;
+        }
+    }
+
+    private static <E extends Enum<E>> Map<E, Long> enumCounts(Class<E> type, long[] counts) {
+        Map<E, Long> result = new EnumMap<>(type);
+        for (E value : type.getEnumConstants()) {
+            if (counts[value.ordinal()] > 0) {
+                result.put(value, counts[value.ordinal()]);
+            }
+        }
+        return result;
+    }
+
+    private static <E extends Enum<E>> boolean[] mask(Collection<E> values, Class<E> type) {
+        boolean[] allowed = new boolean[type.getEnumConstants().length];
+        values.forEach(value -> allowed[value.ordinal()] = true);
+        return allowed;
+    }
+
+    private static boolean[] booleanMask(boolean value) {
+        boolean[] allowed = new boolean[2];
+        allowed[value ? 1 : 0] = true;
+        return allowed;
+    }
+
+    private static int words(int size) {
+        return (size + 63) >>> 6;
+    }
+
+    /** {@code LocalDate} se guarda como la medianoche en la zona del servidor. */
+    private static int epochDay(Date date) {
+        return date != null
+                ? (int) LocalDate.ofInstant(date.toInstant(), ZoneId.systemDefault()).toEpochDay()
+                : NULL_INT;
+    }
+
+    // ==================== Estructuras internas ====================
+
+    /**
+     * Una versión de las columnas. La fila de cada {@code _id} la asigna {@link ReportRowIds}, que
+     * comparten las copias de mayor capacidad. Solo el hilo que tiene el lock de escritura agrega
+     * filas; los lectores leen hasta el {@code size} que observaron.
+     */
+    private static final class Columns {
+        final ReportRowIds rows;
+        final int[] age;
+        final int[] epochDay;
+        final int[] city;
+        final byte[] category;
+        final byte[] urgency;
+        final byte[] zone;
+        final byte[] attention;
+        final byte[] bias;
+        volatile int size;
+
+        Columns(int capacity) {
+            this(capacity, null);
+        }
+
+        /** Copia {@code source} en arreglos de mayor capacidad. */
+        private Columns(int capacity, Columns source) {
+            rows = source != null ? source.rows : new ReportRowIds();
+            age = copy(source != null ? source.age : null, capacity);
+            epochDay = copy(source != null ? source.epochDay : null, capacity);
+            city = copy(source != null ? source.city : null, capacity);
+            category = copy(source != null ? source.category : null, capacity);
+            urgency = copy(source != null ? source.urgency : null, capacity);
+            zone = copy(source != null ? source.zone : null, capacity);
+            attention = copy(source != null ? source.attention : null, capacity);
+            bias = copy(source != null ? source.bias : null, capacity);
+            size = source != null ? source.size : 0;
+        }
+
+        Columns ensureCapacity(int required) {
+            if (required <= age.length) {
+                return this;
+            }
+            return new Columns(Math.max(required, age.length * 2), this);
+        }
+
+        void set(
+                int row,
+                Integer ageValue,
+                int day,
+                int cityCode,
+                ProblemCategory categoryValue,
+                UrgencyLevel urgencyValue,
+                Zone zoneValue,
+                Boolean attentionValue,
+                Boolean biasValue) {
+            age[row] = ageValue != null ? ageValue : NULL_INT;
+            epochDay[row] = day;
+            city[row] = cityCode;
+            category[row] = ordinal(categoryValue);
+            urgency[row] = ordinal(urgencyValue);
+            zone[row] = ordinal(zoneValue);
+            attention[row] = flag(attentionValue);
+            bias[row] = flag(biasValue);
+        }
+
+        private static byte ordinal(Enum<?> value) {
+            return value != null ? (byte) value.ordinal() : NULL_BYTE;
+        }
+
+        private static byte flag(Boolean value) {
+            return value == null ? NULL_BYTE : (byte) (value ? 1 : 0);
+        }
+
+        private static int[] copy(int[] source, int capacity) {
+            return source != null ? Arrays.copyOf(source, capacity) : new int[capacity];
+        }
+
+        private static byte[] copy(byte[] source, int capacity) {
+            return source != null ? Arrays.copyOf(source, capacity) : new byte[capacity];
+        }
+    }
+
+    /** Diccionario de ciudades: cada ciudad distinta recibe un código entero consecutivo. */
+    private static final class CityCodes {
+        private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+        private volatile String[] names = new String[64];
+        private volatile int size;
+
+        synchronized int encode(String city) {
+            if (city == null) {
+                return -1;
+            }
+            Integer code = codes.get(city);
+            if (code != null) {
+                return code;
+            }
+            if (size == names.length) {
+                names = Arrays.copyOf(names, size * 2);
+            }
+            names[size] = city;
+            codes.put(city, size);
+            return size++;
+        }
+
+        String decode(int code) {
+            return names[code];
+        }
+
+        int size() {
+            return size;
+        }
+
+        /** Códigos permitidos para las ciudades dadas; las desconocidas no seleccionan filas. */
+        boolean[] mask(Collection<String> cities) {
+            boolean[] allowed = new boolean[size];
+            for (String city : cities) {
+                Integer code = codes.get(city);
+                if (code != null && code < allowed.length) {
+                    allowed[code] = true;
+                }
+            }
+            return allowed;
+        }
+    }
+}
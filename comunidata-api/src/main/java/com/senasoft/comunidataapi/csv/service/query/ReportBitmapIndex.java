@@ -0,0 +1,333 @@
+package com.senasoft.comunidataapi.csv.service.query;
+
+import static com.senasoft.comunidataapi.csv.util.EnumValues.parse;
+
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.senasoft.comunidataapi.csv.entity.CitizenReport;
+import com.senasoft.comunidataapi.csv.enums.ProblemCategory;
+import com.senasoft.comunidataapi.csv.enums.ProcessingStatus;
+import com.senasoft.comunidataapi.csv.enums.UrgencyLevel;
+import com.senasoft.comunidataapi.csv.enums.Zone;
+import com.senasoft.comunidataapi.csv.event.ReportsCompletedEvent;
+import com.senasoft.comunidataapi.csv.repository.ReportFilter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Índice de bitmaps sobre los atributos de baja cardinalidad de los reportes completados.
+ *
+ * <p>Cada reporte recibe un número de fila y cada valor de categoría, urgencia, zona, atención del
+ * gobierno y sesgo tiene un {@link CompressedBitmap} con las filas que lo tienen. Un filtro se
+ * resuelve con operaciones de bits: OR entre los valores permitidos de un campo y AND entre campos,
+ * empezando por el bitmap más pequeño. Los conteos usan {@link CompressedBitmap#andCardinality}
+ * sin construir la intersección final.
+ *
+ * <p>Solo soporta filtros sobre esos cinco campos; los de ciudad, fecha o edad pasan al siguiente
+ * {@link ReportIndex}. Se carga al iniciar y se recarga cada {@code
+ * app.reports.bitmap.refresh-interval-ms}; entre recargas se actualiza con los {@link
+ * ReportsCompletedEvent} de este nodo, por lo que con varios nodos no ve lo que completan los demás
+ * hasta la siguiente recarga. Solo se activa con {@code app.reports.bitmap.enabled}.
+ */
+@Slf4j
+@Component
+@Order(1)
+public class ReportBitmapIndex implements ReportIndex {
+
+    private static final String REPORTS_COLLECTION = "citizen_reports";
+
+    private final MongoTemplate mongoTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReportIndexRefresher refresher = new ReportIndexRefresher(lock.writeLock());
+
+    /** Protegido por {@code lock}. */
+    private Bitmaps bitmaps = new Bitmaps();
+
+    private volatile boolean ready;
+
+    @Value("${app.reports.bitmap.enabled:false}")
+    private boolean enabled;
+
+    public ReportBitmapIndex(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialLoad() {
+        refreshQuietly();
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.reports.bitmap.refresh-interval-ms:3600000}",
+            initialDelayString = "${app.reports.bitmap.refresh-interval-ms:3600000}")
+    public void scheduledRefresh() {
+        refreshQuietly();
+    }
+
+    /** Reconstruye los bitmaps desde MongoDB y los reemplaza. */
+    public void refresh() {
+        long start = System.currentTimeMillis();
+        Bitmaps loaded =
+                refresher.refresh(
+                        this::load,
+                        (fresh, missed) -> {
+                            missed.forEach(fresh::addIfAbsent);
+                            bitmaps = fresh;
+                        });
+        ready = true;
+        log.info(
+                "Report bitmap index loaded {} reports ({} KB) in {} ms",
+                loaded.rows.size(),
+                loaded.sizeInBytes() / 1024,
+                System.currentTimeMillis() - start);
+    }
+
+    @EventListener
+    public void onReportsCompleted(ReportsCompletedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        refresher.apply(event.reports(), report -> bitmaps.addIfAbsent(report));
+    }
+
+    // ==================== ReportIndex ====================
+
+    @Override
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /** Reportes completados filtrados solo por categoría, urgencia, zona, atención y sesgo. */
+    @Override
+    public boolean supports(ReportFilter filter) {
+        return ProcessingStatus.COMPLETADO.equals(filter.getProcessingStatus())
+                && isEmpty(filter.getCities())
+                && filter.getStartDate() == null
+                && filter.getEndDate() == null
+                && filter.getMinAge() == null
+                && filter.getMaxAge() == null;
+    }
+
+    @Override
+    public List<String> findIds(ReportFilter filter, int limit) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            List<CompressedBitmap> predicates = bitmaps.predicates(filter);
+            List<String> ids = new ArrayList<>(Math.min(limit, 1024));
+            if (predicates.isEmpty()) {
+                for (int row = 0; row < bitmaps.rows.size() && ids.size() < limit; row++) {
+                    ids.add(bitmaps.rows.idOf(row));
+                }
+                return ids;
+            }
+
+            intersect(predicates)
+                    .forEach(
+                            row -> {
+                                ids.add(bitmaps.rows.idOf(row));
+                                return ids.size() < limit;
+                            });
+            return ids;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public long count(ReportFilter filter) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            List<CompressedBitmap> predicates = bitmaps.predicates(filter);
+            if (predicates.isEmpty()) {
+                return bitmaps.rows.size();
+            }
+            if (predicates.size() == 1) {
+                return predicates.get(0).cardinality();
+            }
+            // La última intersección solo se cuenta
+            CompressedBitmap last = predicates.remove(predicates.size() - 1);
+            return intersect(predicates).andCardinality(last);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    private void refreshQuietly() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Could not refresh the report bitmap index", e);
+        }
+    }
+
+    private Bitmaps load() {
+        Bitmaps loaded = new Bitmaps();
+        try (MongoCursor<Document> cursor =
+                mongoTemplate
+                        .getCollection(REPORTS_COLLECTION)
+                        .find(Filters.eq("processingStatus", ProcessingStatus.COMPLETADO.name()))
+                        .projection(
+                                Projections.include(
+                                        "categoryProblem",
+                                        "urgencyLevel",
+                                        "area",
+                                        "governmentPreAttention",
+                                        "biasDetected"))
+                        .sort(Sorts.ascending("_id"))
+                        .batchSize(5000)
+                        .cursor()) {
+            while (cursor.hasNext()) {
+                Document document = cursor.next();
+                if (document.get("_id") instanceof ObjectId id) {
+                    loaded.add(
+                            loaded.rows.addSorted(id),
+                            parse(ProblemCategory.class, document.getString("categoryProblem")),
+                            parse(UrgencyLevel.class, document.getString("urgencyLevel")),
+                            parse(Zone.class, document.getString("area")),
+                            document.getBoolean("governmentPreAttention"),
+                            document.getBoolean("biasDetected"));
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /** AND de los bitmaps, del más pequeño al más grande para achicar pronto el resultado. */
+    private static CompressedBitmap intersect(List<CompressedBitmap> predicates) {
+        predicates.sort(Comparator.comparingLong(CompressedBitmap::cardinality));
+        CompressedBitmap result = predicates.get(0);
+        for (int i = 1; i < predicates.size() && !result.isEmpty(); i++) {
+            result = result.and(predicates.get(i));
+        }
+        return result;
+    }
+
+    private static boolean isEmpty(Collection<?> values) {
+        return values == null || values.isEmpty();
+    }
+
+    // ==================== Estructuras internas ====================
+
+    /** Una versión completa del índice: la tabla de filas y un bitmap por valor. */
+    private static final class Bitmaps {
+        final ReportRowIds rows = new ReportRowIds();
+        final CompressedBitmap[] byCategory = bitmaps(ProblemCategory.values().length);
+        final CompressedBitmap[] byUrgency = bitmaps(UrgencyLevel.values().length);
+        final CompressedBitmap[] byZone = bitmaps(Zone.values().length);
+        final CompressedBitmap[] byAttention = bitmaps(2);
+        final CompressedBitmap[] byBias = bitmaps(2);
+
+        void addIfAbsent(CitizenReport report) {
+            if (report.getId() == null || !ObjectId.isValid(report.getId())) {
+                return;
+            }
+            int row = rows.addIfAbsent(new ObjectId(report.getId()));
+            if (row >= 0) {
+                add(
+                        row,
+                        report.getCategoryProblem(),
+                        report.getUrgencyLevel(),
+                        report.getArea(),
+                        report.getGovernmentPreAttention(),
+                        report.getBiasDetected());
+            }
+        }
+
+        void add(
+                int row,
+                ProblemCategory category,
+                UrgencyLevel urgency,
+                Zone zone,
+                Boolean attention,
+                Boolean bias) {
+            if (category != null) {
+                byCategory[category.ordinal()].add(row);
+            }
+            if (urgency != null) {
+                byUrgency[urgency.ordinal()].add(row);
+            }
+            if (zone != null) {
+                byZone[zone.ordinal()].add(row);
+            }
+            if (attention != null) {
+                byAttention[attention ? 1 : 0].add(row);
+            }
+            if (bias != null) {
+                byBias[bias ? 1 : 0].add(row);
+            }
+        }
+
+        /** Un bitmap por campo filtrado: la unión de los valores permitidos. */
+        List<CompressedBitmap> predicates(ReportFilter filter) {
+            List<CompressedBitmap> predicates = new ArrayList<>();
+            if (filter.getArea() != null) {
+                predicates.add(byZone[filter.getArea().ordinal()]);
+            }
+            if (!isEmpty(filter.getCategories())) {
+                predicates.add(union(byCategory, filter.getCategories()));
+            }
+            if (!isEmpty(filter.getUrgencyLevels())) {
+                predicates.add(union(byUrgency, filter.getUrgencyLevels()));
+            }
+            if (filter.getGovernmentPreAttention() != null) {
+                predicates.add(byAttention[filter.getGovernmentPreAttention() ? 1 : 0]);
+            }
+            if (filter.getBiasDetected() != null) {
+                predicates.add(byBias[filter.getBiasDetected() ? 1 : 0]);
+            }
+            return predicates;
+        }
+
+        long sizeInBytes() {
+            long bytes = rows.sizeInBytes();
+            for (CompressedBitmap[] field :
+                    List.of(byCategory, byUrgency, byZone, byAttention, byBias)) {
+                for (CompressedBitmap bitmap : field) {
+                    bytes += bitmap.sizeInBytes();
+                }
+            }
+            return bytes;
+        }
+
+        private static <E extends Enum<E>> CompressedBitmap union(
+                CompressedBitmap[] bitmaps, Collection<E> values) {
+            if (values.size() == 1) {
+                return bitmaps[values.iterator().next().ordinal()];
+            }
+            return CompressedBitmap.orAll(
+                    values.stream().distinct().map(value -> bitmaps[value.ordinal()]).toList());
+        }
+
+        private static CompressedBitmap[] bitmaps(int size) {
+            CompressedBitmap[] bitmaps = new CompressedBitmap[size];
+            for (int i = 0; i < size; i++) {
+                bitmaps[i] = new CompressedBitmap();
+            }
+            return bitmaps;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.senasoft.comunidataapi.csv.service.query;
+
+import com.senasoft.comunidataapi.csv.repository.ReportFilter;
+import java.util.List;
+
+/**
+ * Índice en memoria que resuelve un {@link ReportFilter} sin consultar MongoDB.
+ *
+ * <p>{@link ReportQueryService} usa el primer índice (según {@code @Order}) que esté listo y
+ * soporte el filtro; si ninguno lo hace, la consulta va a MongoDB.
+ */
+public interface ReportIndex {
+
+    /** Si el índice terminó su carga inicial y está habilitado. */
+    boolean isReady();
+
+    /** Si el índice puede evaluar todos los campos del filtro. */
+    boolean supports(ReportFilter filter);
+
+    /**
+     * IDs de los reportes que cumplen el filtro.
+     *
+     * @param limit Máximo de IDs a retornar
+     */
+    List<String> findIds(ReportFilter filter, int limit);
+
+    /** Cantidad de reportes que cumplen el filtro. */
+    long count(ReportFilter filter);
+}
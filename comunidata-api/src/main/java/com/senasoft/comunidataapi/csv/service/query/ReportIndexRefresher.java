@@ -0,0 +1,75 @@
+package com.senasoft.comunidataapi.csv.service.query;
+
+import com.senasoft.comunidataapi.csv.entity.CitizenReport;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Recarga de un índice en memoria sin perder los reportes completados que llegan mientras se lee
+ * MongoDB.
+ *
+ * <p>La carga corre sin el lock; los reportes recibidos mientras tanto se aplican a la versión
+ * actual y se guardan para aplicarlos también sobre la nueva antes de publicarla. El lock es el de
+ * escritura del índice.
+ */
+final class ReportIndexRefresher {
+
+    private final Lock writeLock;
+
+    /** Reportes recibidos durante una recarga; protegido por {@code writeLock}. */
+    private List<CitizenReport> pendingDuringRefresh;
+
+    ReportIndexRefresher(Lock writeLock) {
+        this.writeLock = writeLock;
+    }
+
+    /**
+     * Carga una versión nueva y la publica con {@code install}, que recibe los reportes que
+     * llegaron durante la carga. {@code install} corre con el lock tomado.
+     */
+    <T> T refresh(Supplier<T> load, BiConsumer<T, List<CitizenReport>> install) {
+        withLock(() -> pendingDuringRefresh = new ArrayList<>());
+
+        T loaded;
+        try {
+            loaded = load.get();
+        } catch (RuntimeException e) {
+            withLock(() -> pendingDuringRefresh = null);
+            throw e;
+        }
+
+        withLock(
+                () -> {
+                    List<CitizenReport> missed = pendingDuringRefresh;
+                    pendingDuringRefresh = null;
+                    install.accept(loaded, missed != null ? missed : List.of());
+                });
+        return loaded;
+    }
+
+    /** Aplica los reportes a la versión actual con {@code append}, que corre con el lock tomado. */
+    void apply(List<CitizenReport> reports, Consumer<CitizenReport> append) {
+        withLock(
+                () -> {
+                    if (pendingDuringRefresh != null) {
+                        pendingDuringRefresh.addAll(reports);
+                    }
+                    reports.forEach(append);
+                });
+    }
+
+    // ==================== Helper Methods ====================
+
+    private void withLock(Runnable action) {
+        writeLock.lock();
+        try {
+            action.run();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.senasoft.comunidataapi.csv.service.query;
+
+import com.senasoft.comunidataapi.csv.entity.CitizenReport;
+import com.senasoft.comunidataapi.csv.repository.CitizenReportRepository;
+import com.senasoft.comunidataapi.csv.repository.ReportFilter;
+import com.senasoft.comunidataapi.csv.service.analytics.ReportAnalyticsService;
+import com.senasoft.comunidataapi.csv.service.analytics.ReportStatistics;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Punto único para filtrar, contar y resumir reportes ciudadanos.
+ *
+ * <p>Si algún {@link ReportIndex} en memoria está listo y soporta el filtro, resuelve los IDs con
+ * él y solo lee de MongoDB esos documentos, por {@code _id}. Las estadísticas salen de {@link
+ * ColumnarReportSnapshot} cuando está listo. En cualquier otro caso se consulta MongoDB como
+ * antes, con el repository y {@link ReportAnalyticsService}.
+ */
+@Slf4j
+@Service
+public class ReportQueryService {
+
+    private final List<ReportIndex> indexes;
+    private final ColumnarReportSnapshot snapshot;
+    private final CitizenReportRepository repository;
+    private final ReportAnalyticsService analyticsService;
+    private final int maxResults;
+    private final int topCities;
+
+    public ReportQueryService(
+            List<ReportIndex> indexes,
+            ColumnarReportSnapshot snapshot,
+            CitizenReportRepository repository,
+            ReportAnalyticsService analyticsService,
+            @Value("${app.reports.filter.max-results:5000}") int maxResults,
+            @Value("${app.reports.analytics.top-cities:10}") int topCities) {
+        this.indexes = indexes;
+        this.snapshot = snapshot;
+        this.repository = repository;
+        this.analyticsService = analyticsService;
+        this.maxResults = maxResults;
+        this.topCities = topCities;
+    }
+
+    /** Reportes que cumplen el filtro, sin embedding ni comentario original. */
+    public List<CitizenReport> findReports(ReportFilter filter) {
+        Optional<ReportIndex> index = indexFor(filter);
+        if (index.isEmpty()) {
+            return repository.findByFilter(filter);
+        }
+
+        int limit =
+                filter.getLimit() != null ? Math.min(filter.getLimit(), maxResults) : maxResults;
+        List<String> ids = index.get().findIds(filter, limit);
+        if (ids.size() == limit) {
+            log.warn("Report filter reached the limit of {} results: {}", limit, filter);
+        }
+        return fetchInOrder(ids);
+    }
+
+    /** Cantidad de reportes que cumplen el filtro. */
+    public long count(ReportFilter filter) {
+        return indexFor(filter)
+                .map(index -> index.count(filter))
+                .orElseGet(() -> repository.countByFilter(filter));
+    }
+
+    /** Estadísticas de los reportes que cumplen el filtro. */
+    public ReportStatistics statistics(ReportFilter filter) {
+        if (snapshot.isReady() && snapshot.supports(filter)) {
+            return snapshot.summarize(filter, topCities);
+        }
+        return analyticsService.summarize(filter);
+    }
+
+    /**
+     * Estadísticas de reportes ya consultados, p. ej. el resultado de una herramienta del chat.
+     * Ya están en memoria, así que se cuentan aquí sin otra ida a MongoDB.
+     */
+    public ReportStatistics statistics(Collection<CitizenReport> reports) {
+        return ReportStatistics.of(reports, topCities);
+    }
+
+    // ==================== Helper Methods ====================
+
+    private Optional<ReportIndex> indexFor(ReportFilter filter) {
+        return indexes.stream()
+                .filter(index -> index.isReady() && index.supports(filter))
+                .findFirst();
+    }
+
+    /** Lee los reportes por {@code _id} y los retorna en el orden de los IDs. */
+    private List<CitizenReport> fetchInOrder(List<String> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Integer> positions = new HashMap<>(ids.size() * 2);
+        for (int i = 0; i < ids.size(); i++) {
+            positions.put(ids.get(i), i);
+        }
+        return repository.findWithoutHeavyFieldsByIdIn(ids).stream()
+                .sorted(
+                        Comparator.comparingInt(
+                                report -> positions.getOrDefault(report.getId(), ids.size())))
+                .toList();
+    }
+}
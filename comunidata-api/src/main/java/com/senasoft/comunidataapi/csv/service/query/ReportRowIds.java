@@ -0,0 +1,120 @@
+package com.senasoft.comunidataapi.csv.service.query;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.bson.types.ObjectId;
+
+/**
+ * Tabla de filas densas ({@code 0..size-1}) a {@code _id} de reportes, para los índices que
+ * trabajan sobre números de fila.
+ *
+ * <p>Cada {@code _id} ocupa tres {@code int}. Las filas de la carga completa llegan ordenadas por
+ * {@code _id} y se ubican con búsqueda binaria; las agregadas después se ubican con un mapa.
+ *
+ * <p>Un solo hilo escribe a la vez: el índice que la usa sincroniza las escrituras. Los lectores
+ * pueden llamar a {@link #idOf} sin lock para las filas que el índice ya publicó, porque los
+ * arreglos llenos se copian antes de reemplazarlos con una escritura volátil.
+ */
+final class ReportRowIds {
+
+    private volatile int[] high = new int[1024];
+    private volatile int[] middle = new int[1024];
+    private volatile int[] low = new int[1024];
+    private final Map<ObjectId, Integer> appended = new HashMap<>();
+    private int sortedRows;
+    private int size;
+
+    /** Agrega una fila de la carga completa; los IDs deben llegar en orden ascendente. */
+    int addSorted(ObjectId id) {
+        if (size != sortedRows) {
+            throw new IllegalStateException("Sorted rows must be loaded before appended rows");
+        }
+        int row = put(id);
+        sortedRows++;
+        return row;
+    }
+
+    /**
+     * Agrega una fila nueva si el ID no está en la tabla.
+     *
+     * @return Fila nueva, o -1 si el ID ya estaba
+     */
+    int addIfAbsent(ObjectId id) {
+        if (rowOf(id) >= 0) {
+            return -1;
+        }
+        int row = put(id);
+        appended.put(id, row);
+        return row;
+    }
+
+    /** Fila del ID, o -1 si no está en la tabla. */
+    int rowOf(ObjectId id) {
+        Integer row = appended.get(id);
+        if (row != null) {
+            return row;
+        }
+
+        ByteBuffer bytes = ByteBuffer.wrap(id.toByteArray());
+        int idHigh = bytes.getInt();
+        int idMiddle = bytes.getInt();
+        int idLow = bytes.getInt();
+        int from = 0;
+        int to = sortedRows - 1;
+        while (from <= to) {
+            int mid = (from + to) >>> 1;
+            int comparison = Integer.compareUnsigned(high[mid], idHigh);
+            if (comparison == 0) {
+                comparison = Integer.compareUnsigned(middle[mid], idMiddle);
+            }
+            if (comparison == 0) {
+                comparison = Integer.compareUnsigned(low[mid], idLow);
+            }
+            if (comparison == 0) {
+                return mid;
+            }
+            if (comparison < 0) {
+                from = mid + 1;
+            } else {
+                to = mid - 1;
+            }
+        }
+        return -1;
+    }
+
+    String idOf(int row) {
+        return new ObjectId(
+                        ByteBuffer.allocate(12)
+                                .putInt(high[row])
+                                .putInt(middle[row])
+                                .putInt(low[row])
+                                .array())
+                .toHexString();
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** Bytes aproximados de la tabla, para los logs. */
+    long sizeInBytes() {
+        return high.length * 12L + appended.size() * 64L;
+    }
+
+    // ==================== Helper Methods ====================
+
+    private int put(ObjectId id) {
+        if (size == high.length) {
+            high = Arrays.copyOf(high, size * 2);
+            middle = Arrays.copyOf(middle, size * 2);
+            low = Arrays.copyOf(low, size * 2);
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(id.toByteArray());
+        high[size] = bytes.getInt();
+        middle[size] = bytes.getInt();
+        low[size] = bytes.getInt();
+        return size++;
+    }
+}
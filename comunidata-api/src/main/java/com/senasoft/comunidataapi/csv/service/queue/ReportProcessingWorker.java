@@ -0,0 +1,113 @@
+package com.senasoft.comunidataapi.csv.service.queue;
+
+import com.senasoft.comunidataapi.csv.entity.CitizenReport;
+import com.senasoft.comunidataapi.csv.enums.ProcessingStatus;
+import com.senasoft.comunidataapi.csv.event.ReportsProcessedEvent;
+import com.senasoft.comunidataapi.csv.service.processing.EmbeddingGenerationService;
+import com.senasoft.comunidataapi.csv.service.processing.GraniteProcessingService;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Worker que consume la {@link ReportWorkQueue} en cada nodo de la API.
+ *
+ * <p>En cada ciclo reclama lotes de reportes PENDIENTE para validarlos con IBM Granite y lotes de
+ * reportes PROCESANDO_IA para generar sus embeddings. Así se procesan las cargas diferidas
+ * ({@code procesarInmediatamente=false}) y se recuperan los reportes que quedaron a medias por un
+ * reinicio, sin intervención manual.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReportProcessingWorker {
+
+    private final ReportWorkQueue workQueue;
+    private final GraniteProcessingService graniteService;
+    private final EmbeddingGenerationService embeddingService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.queue.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.queue.batch-size:150}")
+    private int batchSize;
+
+    @Value("${app.queue.max-batches-per-poll:10}")
+    private int maxBatchesPerPoll;
+
+    @Scheduled(
+            fixedDelayString = "${app.queue.poll-interval-ms:5000}",
+            initialDelayString = "${app.queue.initial-delay-ms:30000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            drain(ProcessingStatus.PENDIENTE, this::validateWithGranite);
+            drain(ProcessingStatus.PROCESANDO_IA, embeddingService::generateEmbeddings);
+        } catch (Exception e) {
+            // Los reclamos no liberados vencen y se reintentan en un ciclo posterior
+            log.error("Error polling report work queue", e);
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    /** Reclama y procesa lotes de una etapa hasta vaciarla o alcanzar el máximo por ciclo. */
+    private void drain(ProcessingStatus stage, UnaryOperator<List<CitizenReport>> processor) {
+        for (int i = 0; i < maxBatchesPerPoll; i++) {
+            List<CitizenReport> claimed = workQueue.claim(stage, batchSize);
+            if (claimed.isEmpty()) {
+                return;
+            }
+
+            log.info("Processing {} queued reports in stage {}", claimed.size(), stage);
+            List<CitizenReport> processed;
+            try {
+                processed = processor.apply(claimed);
+            } catch (RuntimeException e) {
+                workQueue.release(claimed);
+                throw e;
+            }
+            workQueue.complete(stage, processed);
+            publishProgress(processed);
+
+            if (claimed.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private List<CitizenReport> validateWithGranite(List<CitizenReport> reports) {
+        return graniteService.processReportsInBatches(reports, "queue-" + workQueue.getNodeId());
+    }
+
+    private void publishProgress(List<CitizenReport> processed) {
+        Map<String, List<CitizenReport>> byBatch =
+                processed.stream()
+                        .filter(report -> report.getBatchId() != null)
+                        .collect(Collectors.groupingBy(CitizenReport::getBatchId));
+
+        byBatch.forEach(
+                (batchId, reports) ->
+                        eventPublisher.publishEvent(
+                                new ReportsProcessedEvent(
+                                        batchId,
+                                        countByStatus(reports, ProcessingStatus.PROCESANDO_IA),
+                                        countByStatus(reports, ProcessingStatus.COMPLETADO),
+                                        countByStatus(reports, ProcessingStatus.ERROR))));
+    }
+
+    private int countByStatus(List<CitizenReport> reports, ProcessingStatus status) {
+        return (int) reports.stream().filter(r -> status.equals(r.getProcessingStatus())).count();
+    }
+}
@@ -0,0 +1,289 @@
+package com.senasoft.comunidataapi.csv.service.queue;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.senasoft.comunidataapi.csv.entity.CitizenReport;
+import com.senasoft.comunidataapi.csv.enums.ProcessingStatus;
+import com.senasoft.comunidataapi.csv.event.ReportsCompletedEvent;
+import com.senasoft.comunidataapi.csv.service.analytics.ReportRollupService;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cola de trabajo persistente sobre la colección {@code citizen_reports}.
+ *
+ * <p>Cada reporte es un elemento de la cola: su {@code processingStatus} indica la etapa pendiente
+ * (PENDIENTE → IBM Granite, PROCESANDO_IA → embeddings) y el par {@code leaseOwner}/{@code
+ * leaseUntil} indica qué nodo lo tiene reclamado y hasta cuándo. Un reclamo toma un lote entero:
+ * lee los IDs disponibles y los marca con un {@code updateMany} que vuelve a exigir que sigan
+ * libres y les pone un {@code claimToken} propio, así que varios nodos de la API pueden consumir
+ * la misma cola sin procesar dos veces un reporte. Mientras el nodo los procesa renueva sus
+ * reclamos periódicamente; si cae, los reclamos vencen y otro nodo los retoma.
+ *
+ * <p>Todo reporte llega a COMPLETADO a través de {@link #complete}, que por eso también actualiza
+ * los conteos de {@link ReportRollupService} y publica un {@link ReportsCompletedEvent}.
+ */
+@Slf4j
+@Component
+public class ReportWorkQueue {
+
+    private final MongoTemplate mongoTemplate;
+    private final ReportRollupService rollupService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String nodeId;
+
+    @Value("${app.queue.lease-minutes:15}")
+    private long leaseMinutes;
+
+    @Value("${app.queue.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${app.queue.retry-delay-ms:60000}")
+    private long retryDelayMs;
+
+    /** Reportes reclamados por este nodo que todavía se están procesando. */
+    private final Set<String> heldIds = ConcurrentHashMap.newKeySet();
+
+    public ReportWorkQueue(
+            MongoTemplate mongoTemplate,
+            ReportRollupService rollupService,
+            ApplicationEventPublisher eventPublisher) {
+        this.mongoTemplate = mongoTemplate;
+        this.rollupService = rollupService;
+        this.eventPublisher = eventPublisher;
+        this.nodeId = UUID.randomUUID().toString();
+        log.info("Report work queue node id: {}", nodeId);
+    }
+
+    /** Identificador de este nodo como dueño de reclamos. */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Marca como reclamados por este nodo reportes que aún no se han insertado, para que el
+     * worker no los tome mientras se procesan en el mismo flujo de la carga.
+     */
+    public void assignLease(List<CitizenReport> reports) {
+        LocalDateTime leaseUntil = LocalDateTime.now().plusMinutes(leaseMinutes);
+        reports.forEach(
+                report -> {
+                    report.setLeaseOwner(nodeId);
+                    report.setLeaseUntil(leaseUntil);
+                    report.setProcessingAttempts(1);
+                    heldIds.add(report.getId());
+                });
+    }
+
+    /**
+     * Consulta de los reportes reclamables en una etapa: sin reclamo o con el reclamo vencido.
+     *
+     * <p>{@code $not $gt} incluye los {@code leaseUntil} nulos en el mismo rango del índice {@code
+     * work_queue_idx}, que además entrega el orden sin ordenar en memoria: primero los reportes
+     * nunca reclamados y después los vencidos, cada grupo en orden de inserción.
+     */
+    public static Query claimableQuery(ProcessingStatus status, LocalDateTime now) {
+        return new Query(
+                        Criteria.where("processingStatus")
+                                .is(status)
+                                .and("leaseUntil")
+                                .not()
+                                .gt(now))
+                .with(Sort.by(Sort.Direction.ASC, "leaseUntil", "_id"));
+    }
+
+    /**
+     * Reclama hasta {@code batchSize} reportes en el estado indicado cuyo reclamo no exista o esté
+     * vencido. Los reportes que superaron {@code app.queue.max-attempts} se marcan como ERROR en
+     * lugar de retornarse.
+     *
+     * <p>Son tres operaciones por lote, no una por reporte: leer los IDs candidatos, marcarlos con
+     * un {@code updateMany} condicionado a que sigan libres y leer los que quedaron con el token de
+     * este reclamo. Los que otro nodo tomó en medio simplemente no se retornan.
+     *
+     * @param status Etapa pendiente a reclamar
+     * @param batchSize Máximo de reportes a reclamar
+     * @return Reportes reclamados por este nodo
+     */
+    public List<CitizenReport> claim(ProcessingStatus status, int batchSize) {
+        LocalDateTime now = LocalDateTime.now();
+        Query candidates = claimableQuery(status, now).limit(batchSize);
+        candidates.fields().include("_id");
+        List<String> ids =
+                mongoTemplate.find(candidates, CitizenReport.class).stream()
+                        .map(CitizenReport::getId)
+                        .toList();
+        if (ids.isEmpty()) {
+            return List.of(); // Cola vacía para esta etapa
+        }
+
+        String claimToken = UUID.randomUUID().toString();
+        Query stillClaimable =
+                new Query(
+                        Criteria.where("_id")
+                                .in(ids)
+                                .and("processingStatus")
+                                .is(status)
+                                .and("leaseUntil")
+                                .not()
+                                .gt(now));
+        Update update =
+                new Update()
+                        .set("leaseOwner", nodeId)
+                        .set("claimToken", claimToken)
+                        .set("leaseUntil", now.plusMinutes(leaseMinutes))
+                        .inc("processingAttempts", 1);
+        mongoTemplate.updateMulti(stillClaimable, update, CitizenReport.class);
+
+        List<CitizenReport> claimed = new ArrayList<>();
+        List<CitizenReport> exhausted = new ArrayList<>();
+        Query byToken =
+                new Query(Criteria.where("claimToken").is(claimToken))
+                        .with(Sort.by(Sort.Direction.ASC, "_id"));
+        for (CitizenReport report : mongoTemplate.find(byToken, CitizenReport.class)) {
+            heldIds.add(report.getId());
+            if (report.getProcessingAttempts() != null
+                    && report.getProcessingAttempts() > maxAttempts) {
+                report.setProcessingStatus(ProcessingStatus.ERROR);
+                report.setErrorMessage(
+                        "Se superó el máximo de " + maxAttempts + " intentos de procesamiento");
+                exhausted.add(report);
+            } else {
+                claimed.add(report);
+            }
+        }
+
+        if (!exhausted.isEmpty()) {
+            log.warn("{} reports exceeded {} processing attempts", exhausted.size(), maxAttempts);
+            complete(status, exhausted);
+        }
+        return claimed;
+    }
+
+    /**
+     * Renueva los reclamos de los reportes que este nodo sigue procesando, para que un chunk largo
+     * (Granite + embeddings en la misma carga) no pierda el reclamo a mitad de camino.
+     */
+    @Scheduled(fixedDelayString = "${app.queue.lease-heartbeat-ms:300000}")
+    public void renewLeases() {
+        if (heldIds.isEmpty()) {
+            return;
+        }
+        List<String> ids = List.copyOf(heldIds);
+        long renewed =
+                mongoTemplate
+                        .updateMulti(
+                                new Query(
+                                        Criteria.where("_id").in(ids).and("leaseOwner").is(nodeId)),
+                                new Update()
+                                        .set(
+                                                "leaseUntil",
+                                                LocalDateTime.now().plusMinutes(leaseMinutes)),
+                                CitizenReport.class)
+                        .getModifiedCount();
+        log.debug("Renewed {} of {} report leases", renewed, ids.size());
+    }
+
+    /**
+     * Libera sin guardar resultados los reclamos de reportes cuyo procesamiento falló, para que se
+     * puedan reclamar de nuevo sin esperar a que venzan. El intento ya quedó contado.
+     */
+    public void release(List<CitizenReport> reports) {
+        List<String> ids = reports.stream().map(CitizenReport::getId).toList();
+        ids.forEach(heldIds::remove);
+        mongoTemplate.updateMulti(
+                new Query(Criteria.where("_id").in(ids).and("leaseOwner").is(nodeId)),
+                new Update().unset("leaseOwner").unset("claimToken").unset("leaseUntil"),
+                CitizenReport.class);
+    }
+
+    /**
+     * Guarda los reportes procesados y libera sus reclamos en un solo bulk write. Solo se
+     * reemplazan los reportes que siguen reclamados por este nodo: si un reclamo venció y otro
+     * nodo lo retomó, el resultado de este nodo se descarta.
+     *
+     * <p>El contador de intentos se reinicia solo para los reportes que pasaron a otra etapa. Los
+     * que siguen en {@code claimedStage} (el proveedor estaba sobrecargado) conservan sus intentos,
+     * que cuentan para {@code app.queue.max-attempts}, y no se pueden reclamar hasta que pase
+     * {@code app.queue.retry-delay-ms}, que se duplica con cada intento.
+     *
+     * <p>Los reportes que quedaron en COMPLETADO se suman a los rollups y se publican como {@link
+     * ReportsCompletedEvent}. Si se perdieron todos los reclamos no hay nada que sumar. Si se
+     * perdió solo una parte, el resultado del bulk no indica cuáles, así que el lote no se suma
+     * para no contar dos veces reportes del otro nodo, y se pide una reconstrucción de los rollups
+     * para el siguiente ciclo en lugar de esperar a la nocturna.
+     */
+    public void complete(ProcessingStatus claimedStage, List<CitizenReport> reports) {
+        if (reports.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulkOps =
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CitizenReport.class);
+        for (CitizenReport report : reports) {
+            heldIds.remove(report.getId());
+            report.setLeaseOwner(null);
+            report.setClaimToken(null);
+            report.setLeaseUntil(null);
+            if (claimedStage.equals(report.getProcessingStatus())) {
+                // Sin dueño, pero no reclamable hasta que pase la espera
+                report.setLeaseUntil(now.plus(retryDelay(report), ChronoUnit.MILLIS));
+            } else if (!ProcessingStatus.ERROR.equals(report.getProcessingStatus())) {
+                // La siguiente etapa empieza con sus propios intentos
+                report.setProcessingAttempts(0);
+            }
+            Criteria ownedByThisNode =
+                    Criteria.where("_id").is(report.getId()).and("leaseOwner").is(nodeId);
+            bulkOps.replaceOne(new Query(ownedByThisNode), report);
+        }
+
+        BulkWriteResult result = bulkOps.execute();
+        int lost = reports.size() - result.getMatchedCount();
+        if (lost == reports.size()) {
+            log.warn("All {} reports were reclaimed by another node before completion", lost);
+        } else if (lost > 0) {
+            log.warn(
+                    "{} of {} reports were reclaimed by another node before completion,"
+                            + " requesting a rollup rebuild",
+                    lost,
+                    reports.size());
+            rollupService.requestRebuild();
+        } else {
+            rollupService.recordCompleted(reports);
+            List<CitizenReport> completed =
+                    reports.stream()
+                            .filter(
+                                    report ->
+                                            ProcessingStatus.COMPLETADO.equals(
+                                                    report.getProcessingStatus()))
+                            .toList();
+            if (!completed.isEmpty()) {
+                eventPublisher.publishEvent(new ReportsCompletedEvent(completed));
+            }
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    /** Espera antes de reintentar un reporte: {@code retry-delay-ms} por 2^(intentos - 1). */
+    private long retryDelay(CitizenReport report) {
+        int attempts = report.getProcessingAttempts() != null ? report.getProcessingAttempts() : 1;
+        return retryDelayMs << Math.min(Math.max(attempts - 1, 0), 10);
+    }
+}
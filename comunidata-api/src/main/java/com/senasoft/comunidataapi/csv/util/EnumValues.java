@@ -0,0 +1,23 @@
+package com.senasoft.comunidataapi.csv.util;
+
+/** Lectura de enums guardados por nombre en documentos de MongoDB leídos sin mapear. */
+public final class EnumValues {
+
+    private EnumValues() {}
+
+    /**
+     * Valor del enum con ese nombre exacto.
+     *
+     * @return El valor, o null si el nombre es null o no existe en el enum
+     */
+    public static <E extends Enum<E>> E parse(Class<E> type, String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
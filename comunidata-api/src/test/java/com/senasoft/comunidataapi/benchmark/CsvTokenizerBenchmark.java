@@ -0,0 +1,108 @@
+package com.senasoft.comunidataapi.benchmark;
+
+import com.senasoft.comunidataapi.csv.service.normalization.CsvRecordTokenizer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compara el tokenizador {@link CsvRecordTokenizer} contra el split por regex que usaba {@code
+ * CsvNormalizationServiceImpl.parseCsvLine}, sobre un CSV en memoria de 1M de filas.
+ *
+ * <p>Ejecutar con: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.senasoft.comunidataapi.benchmark.CsvTokenizerBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class CsvTokenizerBenchmark {
+
+    private static final String HEADER =
+            "ID,Nombre,Edad,Género,Ciudad,Comentario,Categoría del problema,Nivel de urgencia,"
+                    + "Fecha del reporte,Acceso a internet,Atención previa del gobierno,Zona rural";
+
+    private static final String[] COMMENTS = {
+        "\"El hospital no tiene medicamentos, y la fila es de 5 horas\"",
+        "\"Falta iluminación en el parque, \"\"muy peligroso\"\" de noche\"",
+        "Las basuras no se recogen desde hace dos semanas",
+        "\"La escuela necesita profesores, pupitres y techo nuevo\""
+    };
+
+    @Param({"1000000"})
+    private int rows;
+
+    private String csv;
+
+    @Setup
+    public void setUp() {
+        StringBuilder builder = new StringBuilder(rows * 160);
+        builder.append(HEADER).append('\n');
+        for (int i = 0; i < rows; i++) {
+            builder.append(i)
+                    .append(",Ciudadano ")
+                    .append(i)
+                    .append(',')
+                    .append(18 + i % 60)
+                    .append(",F,manizales,")
+                    .append(COMMENTS[i % COMMENTS.length])
+                    .append(",Salud,Alta,11/08/2023,1,0,1\n");
+        }
+        csv = builder.toString();
+    }
+
+    /** Implementación anterior: readLine + split con lookahead + replaceAll por campo. */
+    @Benchmark
+    public void regexSplit(Blackhole blackhole) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new StringReader(csv))) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)", -1);
+                for (int i = 0; i < fields.length; i++) {
+                    fields[i] = fields[i].trim().replaceAll("^\"|\"$", "");
+                }
+                blackhole.consume(fields);
+            }
+        }
+    }
+
+    /** Implementación nueva: máquina de estados sobre un buffer de caracteres. */
+    @Benchmark
+    public void stateMachineTokenizer(Blackhole blackhole) throws IOException {
+        try (CsvRecordTokenizer tokenizer = new CsvRecordTokenizer(new StringReader(csv))) {
+            tokenizer.nextRecord();
+            while (tokenizer.nextRecord()) {
+                for (int i = 0; i < tokenizer.fieldCount(); i++) {
+                    blackhole.consume(tokenizer.field(i));
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(
+                        new OptionsBuilder()
+                                .include(CsvTokenizerBenchmark.class.getSimpleName())
+                                .build())
+                .run();
+    }
+}
@@ -0,0 +1,174 @@
+package com.senasoft.comunidataapi.benchmark;
+
+import com.senasoft.comunidataapi.csv.config.MongoConversionConfig;
+import com.senasoft.comunidataapi.csv.config.MongoVectorStoreConfig;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compara lo que cuesta una respuesta de listado de {@value #REPORTS_PER_REQUEST} reportes según
+ * los campos que se leen de MongoDB: documento completo con el embedding como arreglo de doubles
+ * (formato anterior), documento completo con el embedding como vector float32, y la proyección
+ * {@code CitizenReportSummary}.
+ *
+ * <p>Cada operación decodifica los documentos BSON tal como llegan del servidor, por lo que el
+ * score es el tiempo de decodificación por request y {@code gc.alloc.rate.norm} del {@link
+ * GCProfiler} es el heap asignado por request. Los bytes transferidos por request se imprimen
+ * antes de la ejecución.
+ *
+ * <p>Ejecutar con: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.senasoft.comunidataapi.benchmark.ReportProjectionBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportProjectionBenchmark {
+
+    private static final int REPORTS_PER_REQUEST = 500;
+    private static final DocumentCodec CODEC = new DocumentCodec();
+
+    private enum Shape {
+        FULL_DOUBLE_ARRAY,
+        FULL_FLOAT32_VECTOR,
+        SUMMARY_PROJECTION
+    }
+
+    private List<RawBsonDocument> fullDoubleArray;
+    private List<RawBsonDocument> fullFloat32Vector;
+    private List<RawBsonDocument> summaryProjection;
+
+    @Setup
+    public void setUp() {
+        fullDoubleArray = buildRequest(Shape.FULL_DOUBLE_ARRAY);
+        fullFloat32Vector = buildRequest(Shape.FULL_FLOAT32_VECTOR);
+        summaryProjection = buildRequest(Shape.SUMMARY_PROJECTION);
+    }
+
+    /** Antes: {@code findAllCompletedReports()} con el embedding como {@code List<Double>}. */
+    @Benchmark
+    public List<Document> fullDocumentsDoubleArray() {
+        return decode(fullDoubleArray);
+    }
+
+    /** Documento completo con el embedding en binario float32. */
+    @Benchmark
+    public List<Document> fullDocumentsFloat32Vector() {
+        return decode(fullFloat32Vector);
+    }
+
+    /** Ahora: {@code findSummariesByProcessingStatus(COMPLETADO)}. */
+    @Benchmark
+    public List<Document> summaryProjection() {
+        return decode(summaryProjection);
+    }
+
+    private static List<Document> decode(List<RawBsonDocument> documents) {
+        List<Document> decoded = new ArrayList<>(documents.size());
+        for (RawBsonDocument document : documents) {
+            decoded.add(document.decode(CODEC));
+        }
+        return decoded;
+    }
+
+    private static List<RawBsonDocument> buildRequest(Shape shape) {
+        Random random = new Random(42);
+        List<RawBsonDocument> documents = new ArrayList<>(REPORTS_PER_REQUEST);
+        for (int i = 0; i < REPORTS_PER_REQUEST; i++) {
+            documents.add(new RawBsonDocument(report(i, shape, random), CODEC));
+        }
+        return documents;
+    }
+
+    /** Documento con los mismos nombres de campo que guarda {@code CitizenReport}. */
+    private static Document report(int index, Shape shape, Random random) {
+        String comment =
+                "La vía principal del barrio lleva meses sin pavimentar y en invierno se inunda, "
+                        + "los niños no pueden llegar a la escuela. Reporte "
+                        + index;
+        Date now = new Date();
+
+        Document document =
+                new Document("_id", new ObjectId())
+                        .append("age", 18 + random.nextInt(60))
+                        .append("city", "Manizales")
+                        .append("comment", comment)
+                        .append("categoryProblem", "EDUCACION")
+                        .append("urgencyLevel", "ALTA")
+                        .append("reportDate", now)
+                        .append("governmentPreAttention", random.nextBoolean())
+                        .append("area", "URBANA")
+                        .append("biasDetected", false)
+                        .append("descriptionBias", null)
+                        .append("processingStatus", "COMPLETADO")
+                        .append("importDate", now)
+                        .append("processDate", now);
+        if (shape == Shape.SUMMARY_PROJECTION) {
+            return document;
+        }
+
+        float[] vector = new float[MongoVectorStoreConfig.EMBEDDING_DIMENSIONS];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = random.nextFloat() * 2 - 1;
+        }
+        if (shape == Shape.FULL_DOUBLE_ARRAY) {
+            List<Double> embedding = new ArrayList<>(vector.length);
+            for (float value : vector) {
+                embedding.add((double) value);
+            }
+            document.append("embedding", embedding);
+        } else {
+            document.append("embedding", MongoConversionConfig.toBinary(vector));
+        }
+
+        return document.append("originalCategory", "Educación")
+                .append("errorMessage", null)
+                .append("leaseOwner", null)
+                .append("leaseUntil", null)
+                .append("processingAttempts", 0)
+                .append("batchId", "4d1c9b6e-2f0a-4c4e-9d0c-0b8f3a7c1e55")
+                .append("batchIndex", index)
+                .append("originalComment", "  " + comment.toUpperCase() + "!!!  ");
+    }
+
+    private static long wireBytes(List<RawBsonDocument> documents) {
+        return documents.stream().mapToLong(document -> document.getByteBuffer().remaining()).sum();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (Shape shape : Shape.values()) {
+            System.out.printf(
+                    "%-20s %,12d bytes per request%n", shape, wireBytes(buildRequest(shape)));
+        }
+
+        new Runner(
+                        new OptionsBuilder()
+                                .include(ReportProjectionBenchmark.class.getSimpleName())
+                                .addProfiler(GCProfiler.class)
+                                .build())
+                .run();
+    }
+}
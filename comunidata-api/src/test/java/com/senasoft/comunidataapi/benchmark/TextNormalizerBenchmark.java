@@ -0,0 +1,99 @@
+package com.senasoft.comunidataapi.benchmark;
+
+import com.senasoft.comunidataapi.csv.service.normalization.TextNormalizer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compara la normalización de comentario + ciudad por fila entre la implementación anterior
+ * ({@code replaceAll}/{@code split}) y {@link TextNormalizer}.
+ *
+ * <p>Cada operación normaliza una fila, por lo que el score es directamente ns/fila. El {@link
+ * GCProfiler} agrega {@code gc.alloc.rate.norm}, los bytes asignados por fila.
+ *
+ * <p>Ejecutar con: {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.senasoft.comunidataapi.benchmark.TextNormalizerBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextNormalizerBenchmark {
+
+    private static final String[] COMMENTS = {
+        "El hospital no tiene medicamentos, y la fila es de 5 horas",
+        "  Falta iluminación en el parque!!!   muy peligroso de noche...  ",
+        "### Las basuras no se recogen @@@ desde hace dos semanas ???",
+        "La escuela necesita profesores,\tpupitres y   techo nuevo"
+    };
+
+    private static final String[] CITIES = {
+        "Manizales", "manizales", "  BOGOTÁ  ", "san josé   del guaviare"
+    };
+
+    private final TextNormalizer textNormalizer = new TextNormalizer();
+
+    private int row;
+
+    /** Implementación anterior: 5 replaceAll por comentario y split + substring por ciudad. */
+    @Benchmark
+    public Object legacyRegex() {
+        int i = row++ & 3;
+        return new Object[] {legacyComment(COMMENTS[i]), legacyCity(CITIES[i])};
+    }
+
+    /** Implementación nueva: un recorrido por campo con un único buffer de trabajo. */
+    @Benchmark
+    public Object singlePassScanner() {
+        int i = row++ & 3;
+        return new Object[] {
+            textNormalizer.normalizeComment(COMMENTS[i]), textNormalizer.capitalizeWords(CITIES[i])
+        };
+    }
+
+    private static String legacyComment(String comentario) {
+        String normalized = comentario.trim();
+        normalized = normalized.replaceAll("([#@*_=+\\-]{2,})", "");
+        normalized = normalized.replaceAll("\\s+", " ");
+        normalized = normalized.replaceAll("\\.{2,}", ".");
+        normalized = normalized.replaceAll("!{2,}", "!");
+        normalized = normalized.replaceAll("\\?{2,}", "?");
+        return normalized.trim();
+    }
+
+    private static String legacyCity(String ciudad) {
+        String[] words = ciudad.trim().split("\\s+");
+        StringBuilder result = new StringBuilder();
+        for (String word : words) {
+            if (!word.isEmpty()) {
+                result.append(Character.toUpperCase(word.charAt(0)))
+                        .append(word.substring(1).toLowerCase())
+                        .append(" ");
+            }
+        }
+        return result.toString().trim();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(
+                        new OptionsBuilder()
+                                .include(TextNormalizerBenchmark.class.getSimpleName())
+                                .addProfiler(GCProfiler.class)
+                                .build())
+                .run();
+    }
+}
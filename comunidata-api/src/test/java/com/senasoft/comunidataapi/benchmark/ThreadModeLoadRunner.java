@@ -0,0 +1,222 @@
+package com.senasoft.comunidataapi.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Programa de carga para comparar la API con hilos de plataforma y con hilos virtuales. No es un
+ * test de JUnit: se ejecuta con {@code main}, como se muestra abajo.
+ *
+ * <p>Lanza {@code clients} clientes concurrentes contra una instancia ya levantada durante {@code
+ * durationSeconds}. Cada cliente repite una operación bloqueante de punta a punta: {@code POST
+ * /v1/chat} (OpenAI + MongoDB) o, con {@code -Dscenario=csv}, {@code POST /csv/add} seguido de
+ * {@code GET /csv/jobs/{batchId}} hasta que la carga termina (Granite + embeddings + MongoDB). Al
+ * final imprime throughput, errores y latencias p50/p95/p99.
+ *
+ * <p>Para comparar, levantar la API dos veces y correr la prueba con los mismos parámetros:
+ *
+ * <pre>
+ * VIRTUAL_THREADS_ENABLED=false mvn spring-boot:run
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.senasoft.comunidataapi.benchmark.ThreadModeLoadRunner
+ *     -Dmode=platform -Dclients=400 -DdurationSeconds=120
+ *
+ * VIRTUAL_THREADS_ENABLED=true mvn spring-boot:run
+ * ... -Dmode=virtual -Dclients=400 -DdurationSeconds=120
+ * </pre>
+ *
+ * <p>Propiedades: {@code baseUrl} (por defecto {@code http://localhost:8080/api}), {@code clients},
+ * {@code durationSeconds}, {@code scenario} ({@code chat} o {@code csv}), {@code prompt}, {@code
+ * csvFile} (obligatoria con {@code csv}) y {@code mode} (solo etiqueta la salida).
+ */
+public class ThreadModeLoadRunner {
+
+    private static final Pattern BATCH_ID = Pattern.compile("\"batchId\"\\s*:\\s*\"([^\"]+)\"");
+    private static final Pattern JOB_STATUS = Pattern.compile("\"status\"\\s*:\\s*\"([A-Z_]+)\"");
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(5);
+    private static final Duration JOB_POLL_INTERVAL = Duration.ofSeconds(1);
+
+    private final String baseUrl;
+    private final String scenario;
+    private final String prompt;
+    private final byte[] csvBytes;
+    private final HttpClient httpClient;
+
+    private ThreadModeLoadRunner(
+            String baseUrl, String scenario, String prompt, byte[] csvBytes, HttpClient client) {
+        this.baseUrl = baseUrl;
+        this.scenario = scenario;
+        this.prompt = prompt;
+        this.csvBytes = csvBytes;
+        this.httpClient = client;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("baseUrl", "http://localhost:8080/api");
+        int clients = Integer.getInteger("clients", 200);
+        int durationSeconds = Integer.getInteger("durationSeconds", 60);
+        String scenario = System.getProperty("scenario", "chat");
+        String mode = System.getProperty("mode", "unlabeled");
+        String prompt =
+                System.getProperty(
+                        "prompt", "¿Cuántos reportes de salud con urgencia alta hay en Bogotá?");
+        byte[] csvBytes = null;
+        if ("csv".equals(scenario)) {
+            String csvFile = System.getProperty("csvFile");
+            if (csvFile == null) {
+                throw new IllegalArgumentException("-DcsvFile is required for scenario csv");
+            }
+            csvBytes = Files.readAllBytes(Path.of(csvFile));
+        }
+
+        ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient httpClient =
+                HttpClient.newBuilder()
+                        .executor(clientThreads)
+                        .connectTimeout(Duration.ofSeconds(10))
+                        .build();
+        ThreadModeLoadRunner runner =
+                new ThreadModeLoadRunner(baseUrl, scenario, prompt, csvBytes, httpClient);
+
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger errors = new AtomicInteger();
+        long deadline = System.nanoTime() + Duration.ofSeconds(durationSeconds).toNanos();
+        long start = System.nanoTime();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                workers.submit(
+                        () -> {
+                            while (System.nanoTime() < deadline) {
+                                long begin = System.nanoTime();
+                                if (runner.runOnce()) {
+                                    latencies.add(System.nanoTime() - begin);
+                                } else {
+                                    errors.incrementAndGet();
+                                }
+                            }
+                        });
+            }
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+        clientThreads.shutdown();
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        System.out.printf(
+                "mode=%s scenario=%s clients=%d duration=%.1fs%n",
+                mode, scenario, clients, elapsedSeconds);
+        System.out.printf(
+                "ok=%d errors=%d throughput=%.2f req/s%n",
+                sorted.size(), errors.get(), sorted.size() / elapsedSeconds);
+        System.out.printf(
+                "latency p50=%d ms p95=%d ms p99=%d ms%n",
+                percentileMillis(sorted, 0.50),
+                percentileMillis(sorted, 0.95),
+                percentileMillis(sorted, 0.99));
+    }
+
+    /** Ejecuta una operación completa; retorna false si falló. */
+    private boolean runOnce() {
+        try {
+            return "csv".equals(scenario) ? uploadCsvAndWait() : askChat();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // ==================== Helper Methods ====================
+
+    private boolean askChat() throws IOException, InterruptedException {
+        String body = "{\"prompt\":\"" + prompt.replace("\"", "\\\"") + "\"}";
+        HttpRequest request =
+                HttpRequest.newBuilder(URI.create(baseUrl + "/v1/chat"))
+                        .timeout(REQUEST_TIMEOUT)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode()
+                == 200;
+    }
+
+    private boolean uploadCsvAndWait() throws IOException, InterruptedException {
+        String boundary = "----loadtest" + UUID.randomUUID();
+        HttpRequest upload =
+                HttpRequest.newBuilder(URI.create(baseUrl + "/csv/add"))
+                        .timeout(REQUEST_TIMEOUT)
+                        .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(multipartBody(boundary)))
+                        .build();
+        HttpResponse<String> accepted =
+                httpClient.send(upload, HttpResponse.BodyHandlers.ofString());
+        Matcher batchId = BATCH_ID.matcher(accepted.body());
+        if (accepted.statusCode() != 202 || !batchId.find()) {
+            return false;
+        }
+
+        HttpRequest poll =
+                HttpRequest.newBuilder(URI.create(baseUrl + "/csv/jobs/" + batchId.group(1)))
+                        .timeout(REQUEST_TIMEOUT)
+                        .GET()
+                        .build();
+        while (true) {
+            HttpResponse<String> job = httpClient.send(poll, HttpResponse.BodyHandlers.ofString());
+            Matcher status = JOB_STATUS.matcher(job.body());
+            if (job.statusCode() != 200 || !status.find()) {
+                return false;
+            }
+            switch (status.group(1)) {
+                case "COMPLETADO":
+                    return true;
+                case "ERROR":
+                    return false;
+                default:
+                    Thread.sleep(JOB_POLL_INTERVAL);
+            }
+        }
+    }
+
+    private byte[] multipartBody(String boundary) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(csvBytes.length + 512);
+        body.write(
+                ("--" + boundary + "\r\n"
+                                + "Content-Disposition: form-data; name=\"procesarInmediatamente\""
+                                + "\r\n\r\ntrue\r\n"
+                                + "--" + boundary + "\r\n"
+                                + "Content-Disposition: form-data; name=\"file\";"
+                                + " filename=\"loadtest.csv\"\r\n"
+                                + "Content-Type: text/csv\r\n\r\n")
+                        .getBytes(StandardCharsets.UTF_8));
+        body.write(csvBytes);
+        body.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
+
+    private static long percentileMillis(List<Long> sortedNanos, double percentile) {
+        if (sortedNanos.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.size()) - 1;
+        return sortedNanos.get(Math.max(0, index)) / 1_000_000;
+    }
+}
@@ -0,0 +1,196 @@
+package com.senasoft.comunidataapi.csv.service.analytics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.ServerAddress;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoCollection;
+import com.senasoft.comunidataapi.csv.entity.CitizenReport;
+import com.senasoft.comunidataapi.csv.enums.ProblemCategory;
+import com.senasoft.comunidataapi.csv.enums.UrgencyLevel;
+import com.senasoft.comunidataapi.csv.enums.Zone;
+import com.senasoft.comunidataapi.csv.event.ReportsCompletedEvent;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Pruebas de {@link LiveReportStatistics} con MongoDB simulado: un servidor standalone que no
+ * soporta change streams y una agregación de {@code citizen_reports} con resultado fijo.
+ */
+class LiveReportStatisticsTest {
+
+    private MongoTemplate mongoTemplate;
+    private ChangeStreamIterable<Document> changeStream;
+    private ReportAnalyticsService analyticsService;
+    private LiveReportStatistics statistics;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        changeStream = mock(ChangeStreamIterable.class);
+        when(mongoTemplate.getCollection("citizen_reports")).thenReturn(collection);
+        when(collection.watch(anyList())).thenReturn(changeStream);
+        when(changeStream.maxAwaitTime(anyLong(), any())).thenReturn(changeStream);
+        when(changeStream.cursor())
+                .thenThrow(
+                        new MongoCommandException(
+                                new BsonDocument("code", new BsonInt32(40573))
+                                        .append(
+                                                "errmsg",
+                                                new BsonString(
+                                                        "The $changeStream stage is only"
+                                                                + " supported on replica sets")),
+                                new ServerAddress()));
+
+        analyticsService = mock(ReportAnalyticsService.class);
+        when(analyticsService.summarizeReports(any(), eq(0))).thenReturn(aggregation(0, Map.of()));
+
+        statistics = new LiveReportStatistics(mongoTemplate, analyticsService);
+        ReflectionTestUtils.setField(statistics, "enabled", true);
+        ReflectionTestUtils.setField(statistics, "useChangeStream", true);
+        ReflectionTestUtils.setField(statistics, "retryDelayMs", 10L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.stop();
+    }
+
+    @Test
+    void fallsBackToEventsWhenChangeStreamsAreNotSupported() {
+        statistics.start();
+
+        // Un solo intento: sin change streams no se reintenta cada retry-delay-ms
+        verify(changeStream, after(200).times(1)).cursor();
+        assertThat(statistics.getSnapshot().getSource())
+                .isEqualTo(LiveReportStatistics.Source.EVENTS.name());
+
+        statistics.onReportsCompleted(
+                new ReportsCompletedEvent(
+                        List.of(
+                                report(ProblemCategory.SALUD, "Bogotá"),
+                                report(ProblemCategory.SALUD, "Cali"),
+                                report(ProblemCategory.EDUCACION, "Bogotá"))));
+
+        LiveReportCounters counters = statistics.getCounters();
+        assertThat(counters.total()).isEqualTo(3);
+        assertThat(counters.count(ProblemCategory.SALUD)).isEqualTo(2);
+        assertThat(counters.count(UrgencyLevel.ALTA)).isEqualTo(3);
+        assertThat(counters.count(Zone.URBANA)).isEqualTo(3);
+        assertThat(counters.count("Bogotá")).isEqualTo(2);
+        assertThat(counters.count("Cali")).isEqualTo(1);
+    }
+
+    @Test
+    void reconcileCorrectsCountersToTheReportsAggregation() {
+        statistics.start();
+        statistics.onReportsCompleted(
+                new ReportsCompletedEvent(
+                        List.of(
+                                report(ProblemCategory.SALUD, "Bogotá"),
+                                report(ProblemCategory.SALUD, "Cali"))));
+        when(analyticsService.summarizeReports(any(), eq(0)))
+                .thenReturn(aggregation(5, Map.of("Bogotá", 5L)));
+
+        long drift = statistics.reconcile();
+
+        LiveReportCounters counters = statistics.getCounters();
+        assertThat(counters.total()).isEqualTo(5);
+        assertThat(counters.count(ProblemCategory.SALUD)).isEqualTo(5);
+        assertThat(counters.count("Bogotá")).isEqualTo(5);
+        assertThat(counters.count("Cali")).isZero();
+        assertThat(counters.byCity()).containsOnlyKeys("Bogotá");
+        assertThat(statistics.getSnapshot().getLastReconciliationDrift()).isEqualTo(drift);
+        assertThat(drift).isPositive();
+    }
+
+    @Test
+    void reconcileKeepsIncrementsReceivedDuringTheAggregation() {
+        statistics.start();
+        when(analyticsService.summarizeReports(any(), eq(0)))
+                .thenAnswer(
+                        invocation -> {
+                            // Un reporte que se completa mientras corre la agregación
+                            statistics.onReportsCompleted(
+                                    new ReportsCompletedEvent(
+                                            List.of(report(ProblemCategory.SALUD, "Cali"))));
+                            return aggregation(4, Map.of("Bogotá", 4L));
+                        });
+
+        statistics.reconcile();
+
+        LiveReportCounters counters = statistics.getCounters();
+        assertThat(counters.total()).isEqualTo(5);
+        assertThat(counters.count(ProblemCategory.SALUD)).isEqualTo(5);
+        assertThat(counters.count("Bogotá")).isEqualTo(4);
+        assertThat(counters.count("Cali")).isEqualTo(1);
+    }
+
+    @Test
+    void reconcileReadsCitizenReportsInsteadOfRollups() {
+        statistics.start();
+
+        statistics.reconcile();
+
+        verify(analyticsService, times(2)).summarizeReports(any(), eq(0));
+        verify(analyticsService, never()).summarize(any(), eq(0));
+    }
+
+    // ==================== Helper Methods ====================
+
+    private static CitizenReport report(ProblemCategory category, String city) {
+        return CitizenReport.builder()
+                .categoryProblem(category)
+                .urgencyLevel(UrgencyLevel.ALTA)
+                .area(Zone.URBANA)
+                .city(city)
+                .build();
+    }
+
+    /** Agregación con todos los reportes en SALUD, ALTA y URBANA. */
+    private static ReportStatistics aggregation(long total, Map<String, Long> cities) {
+        Map<ProblemCategory, Long> byCategory = new EnumMap<>(ProblemCategory.class);
+        Map<UrgencyLevel, Long> byUrgency = new EnumMap<>(UrgencyLevel.class);
+        Map<Zone, Long> byZone = new EnumMap<>(Zone.class);
+        if (total > 0) {
+            byCategory.put(ProblemCategory.SALUD, total);
+            byUrgency.put(UrgencyLevel.ALTA, total);
+            byZone.put(Zone.URBANA, total);
+        }
+        return new ReportStatistics(
+                total,
+                byCategory,
+                byUrgency,
+                byZone,
+                new LinkedHashMap<>(cities),
+                new TreeMap<>(),
+                0,
+                0,
+                0);
+    }
+}
@@ -0,0 +1,120 @@
+package com.senasoft.comunidataapi.csv.service.processing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Prueba el ajuste AIMD de {@link AimdConcurrencyLimiter}: el aumento de un permiso por ronda de
+ * llamadas exitosas, la disminución como máximo una vez por latencia promedio de llamada y los
+ * límites mínimo y máximo.
+ */
+class AimdConcurrencyLimiterTest {
+
+    private static final double BACKOFF = 0.5;
+    private static final double TOLERANCE = 2.0;
+
+    @Test
+    void successesAddOnePermitPerRound() {
+        AimdConcurrencyLimiter limiter = limiter(1, 1, 100);
+
+        success(limiter, 10, 1);
+        assertThat(limiter.getLimit()).isEqualTo(2);
+
+        // Con límite 2 cada éxito suma 1/2 de forma decreciente: 2.5, 2.9, 3.24
+        success(limiter, 10, 1);
+        success(limiter, 10, 1);
+        assertThat(limiter.getLimit()).isEqualTo(2);
+        success(limiter, 10, 1);
+        assertThat(limiter.getLimit()).isEqualTo(3);
+    }
+
+    @Test
+    void overloadsWithinOneAverageLatencyDecreaseOnce() {
+        AimdConcurrencyLimiter limiter = limiter(8, 1, 100);
+        // Latencia promedio de una hora: todas las señales siguientes caen en la misma ronda
+        limiter.onSuccess(1, TimeUnit.HOURS, 1);
+
+        limiter.onOverload();
+        limiter.onOverload();
+        limiter.onOverload();
+
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void overloadsAfterOneAverageLatencyDecreaseAgain() throws InterruptedException {
+        AimdConcurrencyLimiter limiter = limiter(8, 1, 100);
+        limiter.onSuccess(1, TimeUnit.NANOSECONDS, 1);
+
+        limiter.onOverload();
+        Thread.sleep(1);
+        limiter.onOverload();
+
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void slowLatencyIsComparedPerWorkUnit() {
+        AimdConcurrencyLimiter limiter = limiter(4, 1, 100);
+        success(limiter, 100, 1);
+
+        // Diez veces más reportes en diez veces más tiempo: misma latencia por reporte
+        success(limiter, 1_000, 10);
+        assertThat(limiter.getLimit()).isEqualTo(4);
+
+        // Diez veces más tiempo para un solo reporte: sobrecarga
+        success(limiter, 1_000, 1);
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void limitStaysWithinMinAndMax() {
+        AimdConcurrencyLimiter limiter = limiter(50, 2, 5);
+        assertThat(limiter.getLimit()).isEqualTo(5);
+
+        for (int i = 0; i < 100; i++) {
+            success(limiter, 10, 1);
+        }
+        assertThat(limiter.getLimit()).isEqualTo(5);
+
+        // Sin latencias de llamada previas cada sobrecarga disminuye el límite
+        AimdConcurrencyLimiter idle = limiter(5, 2, 5);
+        for (int i = 0; i < 5; i++) {
+            idle.onOverload();
+        }
+        assertThat(idle.getLimit()).isEqualTo(2);
+
+        assertThat(limiter(0, 2, 5).getLimit()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsInvalidBounds() {
+        assertThatThrownBy(() -> limiter(1, 0, 5)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> limiter(3, 4, 3)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void acquireAndReleaseTrackInFlightCalls() throws InterruptedException {
+        AimdConcurrencyLimiter limiter = limiter(2, 1, 2);
+
+        limiter.acquire();
+        limiter.acquire();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+
+        limiter.release();
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+    }
+
+    // ==================== Helper Methods ====================
+
+    private static AimdConcurrencyLimiter limiter(int initial, int min, int max) {
+        return new AimdConcurrencyLimiter(initial, min, max, BACKOFF, TOLERANCE);
+    }
+
+    private static void success(AimdConcurrencyLimiter limiter, long millis, int workUnits) {
+        limiter.onSuccess(millis, TimeUnit.MILLISECONDS, workUnits);
+    }
+}
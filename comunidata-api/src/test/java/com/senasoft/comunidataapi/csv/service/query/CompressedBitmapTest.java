@@ -0,0 +1,186 @@
+package com.senasoft.comunidataapi.csv.service.query;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.fail;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compara {@link CompressedBitmap} contra {@link BitSet} en los bordes de los contenedores: 4096
+ * valores (máximo del arreglo), 4097 (pasa a bitmap) y valores a ambos lados de un cambio de
+ * grupo de 16 bits altos (65535/65536).
+ */
+class CompressedBitmapTest {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int KEY_SIZE = 1 << 16;
+
+    @Test
+    void addMatchesBitSetAroundTheArrayLimit() {
+        for (int count : new int[] {ARRAY_MAX - 1, ARRAY_MAX, ARRAY_MAX + 1, ARRAY_MAX + 2}) {
+            // Consecutivos y con salto, para que el bitmap no quede lleno de a palabras
+            assertSameValues(IntStream.range(0, count).toArray());
+            assertSameValues(IntStream.range(0, count).map(i -> i * 3).toArray());
+            assertSameValues(IntStream.range(0, count).map(i -> KEY_SIZE - 1 - i * 7).toArray());
+        }
+    }
+
+    @Test
+    void addMatchesBitSetAcrossContainerKeys() {
+        assertSameValues(
+                KEY_SIZE - 2, KEY_SIZE - 1, KEY_SIZE, KEY_SIZE + 1, 2 * KEY_SIZE - 1, 2 * KEY_SIZE);
+        // Un grupo en medio de otros dos ya existentes
+        assertSameValues(0, 3 * KEY_SIZE, KEY_SIZE + 5, 2 * KEY_SIZE + 9, KEY_SIZE - 1);
+        assertSameValues(randomValues(new Random(7), 20_000, 5 * KEY_SIZE));
+    }
+
+    @Test
+    void duplicatesAreCountedOnce() {
+        int[] values = IntStream.range(0, 2 * ARRAY_MAX).map(i -> i % (ARRAY_MAX + 1)).toArray();
+
+        assertSameValues(values);
+    }
+
+    @Test
+    void andAndOrMatchBitSetForMixedContainers() {
+        Random random = new Random(42);
+        List<int[]> inputs =
+                List.of(
+                        // Arreglo justo en el límite y bitmap justo pasado el límite
+                        IntStream.range(0, ARRAY_MAX).map(i -> i * 2).toArray(),
+                        IntStream.range(0, ARRAY_MAX + 1).map(i -> i * 3).toArray(),
+                        // Bitmap denso que cruza al grupo siguiente
+                        IntStream.range(KEY_SIZE - 10_000, KEY_SIZE + 10_000).toArray(),
+                        // Arreglos pequeños a ambos lados del cambio de grupo
+                        new int[] {KEY_SIZE - 1, KEY_SIZE, KEY_SIZE + 1, 3 * KEY_SIZE},
+                        // Dos arreglos que juntos superan el límite
+                        IntStream.range(0, ARRAY_MAX - 100).map(i -> i * 2 + 1).toArray(),
+                        randomValues(random, 12_000, 3 * KEY_SIZE),
+                        randomValues(random, 3_000, 3 * KEY_SIZE),
+                        new int[0]);
+
+        for (int[] left : inputs) {
+            for (int[] right : inputs) {
+                CompressedBitmap leftBitmap = bitmapOf(left);
+                CompressedBitmap rightBitmap = bitmapOf(right);
+                BitSet and = bitSetOf(left);
+                and.and(bitSetOf(right));
+                BitSet or = bitSetOf(left);
+                or.or(bitSetOf(right));
+
+                assertMatches(and, leftBitmap.and(rightBitmap));
+                assertThat(leftBitmap.andCardinality(rightBitmap)).isEqualTo(and.cardinality());
+                assertMatches(or, leftBitmap.or(rightBitmap));
+                // Los operandos no cambian
+                assertMatches(bitSetOf(left), leftBitmap);
+                assertMatches(bitSetOf(right), rightBitmap);
+            }
+        }
+    }
+
+    @Test
+    void andResultsBelowTheLimitStillMatch() {
+        // Dos bitmaps de 8000 valores cuya intersección tiene exactamente 4096 y 4097
+        for (int overlap : new int[] {ARRAY_MAX, ARRAY_MAX + 1}) {
+            int[] left = IntStream.range(0, 8000).toArray();
+            int[] right = IntStream.range(8000 - overlap, 16_000 - overlap).toArray();
+
+            CompressedBitmap and = bitmapOf(left).and(bitmapOf(right));
+
+            BitSet expected = bitSetOf(left);
+            expected.and(bitSetOf(right));
+            assertMatches(expected, and);
+            assertThat(and.cardinality()).isEqualTo(overlap);
+        }
+    }
+
+    @Test
+    void orAllMatchesBitSet() {
+        Random random = new Random(3);
+        List<CompressedBitmap> bitmaps = new ArrayList<>();
+        BitSet expected = new BitSet();
+        for (int i = 0; i < 5; i++) {
+            int[] values = randomValues(random, 2_000 * (i + 1), 2 * KEY_SIZE + 100);
+            bitmaps.add(bitmapOf(values));
+            expected.or(bitSetOf(values));
+        }
+
+        assertMatches(expected, CompressedBitmap.orAll(bitmaps));
+        assertThat(CompressedBitmap.orAll(List.of()).isEmpty()).isTrue();
+    }
+
+    @Test
+    void forEachStopsWhenTheConsumerReturnsFalse() {
+        CompressedBitmap bitmap = bitmapOf(IntStream.range(0, 3 * KEY_SIZE).toArray());
+        List<Integer> seen = new ArrayList<>();
+
+        bitmap.forEach(
+                value -> {
+                    seen.add(value);
+                    return seen.size() < 10;
+                });
+
+        assertThat(seen).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+    }
+
+    @Test
+    void rejectsNegativeValues() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+
+        assertThatThrownBy(() -> bitmap.add(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(bitmap.contains(-1)).isFalse();
+    }
+
+    // ==================== Helper Methods ====================
+
+    private static void assertSameValues(int... values) {
+        assertMatches(bitSetOf(values), bitmapOf(values));
+    }
+
+    private static void assertMatches(BitSet expected, CompressedBitmap actual) {
+        assertThat(actual.cardinality()).isEqualTo(expected.cardinality());
+        assertThat(actual.isEmpty()).isEqualTo(expected.isEmpty());
+
+        List<Integer> values = new ArrayList<>();
+        actual.forEach(
+                value -> {
+                    values.add(value);
+                    return true;
+                });
+        assertThat(values).isEqualTo(expected.stream().boxed().toList());
+
+        // Sin un assertThat por valor: son cientos de miles de valores por comparación
+        for (int value = 0; value <= expected.length() + 1; value++) {
+            boolean contains = actual.contains(value);
+            if (contains != expected.get(value)) {
+                fail("contains(%d) returned %s", value, contains);
+            }
+        }
+    }
+
+    private static CompressedBitmap bitmapOf(int[] values) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    private static BitSet bitSetOf(int[] values) {
+        BitSet bitSet = new BitSet();
+        for (int value : values) {
+            bitSet.set(value);
+        }
+        return bitSet;
+    }
+
+    private static int[] randomValues(Random random, int count, int bound) {
+        return random.ints(count, 0, bound).toArray();
+    }
+}